@@ -1,4 +1,6 @@
 // app/build.gradle.kts
+import com.example.travelitineraryplanner.gradle.CompilePoiCatalogTask
+import com.example.travelitineraryplanner.gradle.GenerateModelTablesTask
 import org.jetbrains.kotlin.gradle.tasks.KotlinCompile
 
 plugins {
@@ -47,6 +49,11 @@ android {
         viewBinding = true
     }
 
+    // The compiled POI catalog is memory-mapped at runtime, which needs it stored uncompressed
+    androidResources {
+        noCompress += "poicat"
+    }
+
     // If you use Kotlin android-specific options elsewhere, avoid duplicating jvmTarget here.
     // We configure Kotlin compilation below via tasks.withType.
 }
@@ -57,6 +64,30 @@ kotlin {
     jvmToolchain(17)
 }
 
+// Model pipeline exports (encoders + scaler) consumed at build time
+val modelExports = rootProject.layout.projectDirectory.dir("../model/exports")
+
+// Compile the POI CSV into the binary catalog the planner maps at startup
+val compilePoiCatalog = tasks.register<CompilePoiCatalogTask>("compilePoiCatalog") {
+    poiCsv.set(layout.projectDirectory.file("src/main/assets/pois_for_app.csv"))
+    scalerJson.set(modelExports.file("scaler.json"))
+    outputDir.set(layout.buildDirectory.dir("generated/assets/poiCatalog"))
+}
+
+// Turn encoders.json / scaler.json into constant tables (ml.ModelTables), so nothing parses JSON at startup
+val generateModelTables = tasks.register<GenerateModelTablesTask>("generateModelTables") {
+    encodersJson.set(modelExports.file("encoders.json"))
+    scalerJson.set(modelExports.file("scaler.json"))
+    outputDir.set(layout.buildDirectory.dir("generated/source/modelTables"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(compilePoiCatalog) { it.outputDir }
+        variant.sources.java?.addGeneratedSourceDirectory(generateModelTables) { it.outputDir }
+    }
+}
+
 // Ensure all Kotlin compile tasks target JVM 17
 tasks.withType<KotlinCompile>().configureEach {
     kotlinOptions {
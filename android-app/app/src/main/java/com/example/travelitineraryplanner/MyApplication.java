@@ -1,12 +1,31 @@
 package com.example.travelitineraryplanner;
 
 import android.app.Application;
+import android.content.ComponentCallbacks2;
+import com.example.travelitineraryplanner.ml.ItineraryPlanner;
 import com.google.firebase.FirebaseApp;
 
 public class MyApplication extends Application {
+    private ItineraryPlanner.Warmup plannerWarmup;
+
     @Override
     public void onCreate() {
         super.onCreate();
         FirebaseApp.initializeApp(this);
+
+        // Off unless a build sets R.bool.warm_up_planner_on_start; runs at low priority on the
+        // planning lane
+        if (getResources().getBoolean(R.bool.warm_up_planner_on_start)) {
+            plannerWarmup = ItineraryPlanner.getInstance(this).warmUp();
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Warm-up is an optimization; give the memory back instead
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && plannerWarmup != null) {
+            plannerWarmup.cancel();
+        }
     }
-}
\ No newline at end of file
+}
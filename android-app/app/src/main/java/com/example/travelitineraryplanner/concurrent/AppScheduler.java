@@ -0,0 +1,277 @@
+package com.example.travelitineraryplanner.concurrent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * App-wide background threads: a fixed set of lanes, each a small pool of daemon threads
+ * created once per process, so the thread count does not grow with screens or list rows.
+ *
+ * Each lane runs its queue highest priority first, FIFO within a priority. Queues are
+ * bounded: once a lane holds {@code capacity} queued tasks new work is rejected, and LOW
+ * priority work is already turned away at half that, so best-effort tasks cannot crowd
+ * out the ones a user is waiting for. {@link #supply} reports a rejection through the
+ * returned future; the {@link Executor} views throw RejectedExecutionException.
+ */
+public final class AppScheduler {
+
+    public enum Lane {
+        /** Work a user is waiting on: plan requests, autocomplete, search, re-ranking. */
+        INTERACTIVE("interactive", 3, 16, Thread.NORM_PRIORITY),
+        /**
+         * Planner computation: shared plan runs, model and catalog loading, upgrades and
+         * warm-up. Separate from INTERACTIVE because plan requests wait on plan runs.
+         */
+        PLANNING("planning", 3, 32, Thread.NORM_PRIORITY),
+        /** Room reads and writes. */
+        DATABASE("db", 2, 128, Thread.NORM_PRIORITY),
+        /** Firestore sync; best effort, never on a path a user waits for. */
+        SYNC("sync", 1, 64, Thread.MIN_PRIORITY);
+
+        final String threadName;
+        final int threads;
+        final int capacity;
+        final int threadPriority;
+
+        Lane(String threadName, int threads, int capacity, int threadPriority) {
+            this.threadName = threadName;
+            this.threads = threads;
+            this.capacity = capacity;
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    /** Point-in-time counters of one lane. */
+    public static final class LaneStats {
+        public final Lane lane;
+        public final int threads;
+        public final int capacity;
+        public final int queued;
+        public final int peakQueued;
+        public final int running;
+        public final long submitted;
+        public final long completed;
+        public final long rejected;
+        public final long meanWaitMicros; // time from submission to start
+
+        LaneStats(Lane lane, int threads, int capacity, int queued, int peakQueued, int running,
+                  long submitted, long completed, long rejected, long meanWaitMicros) {
+            this.lane = lane;
+            this.threads = threads;
+            this.capacity = capacity;
+            this.queued = queued;
+            this.peakQueued = peakQueued;
+            this.running = running;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.meanWaitMicros = meanWaitMicros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d/%d running, %d queued (peak %d of %d), "
+                            + "%d submitted, %d completed, %d rejected, mean wait %dus",
+                    lane.threadName, running, threads, queued, peakQueued, capacity,
+                    submitted, completed, rejected, meanWaitMicros);
+        }
+    }
+
+    private static volatile AppScheduler instance;
+
+    private final Map<Lane, Pool> pools = new EnumMap<>(Lane.class);
+
+    public static AppScheduler get() {
+        AppScheduler scheduler = instance;
+        if (scheduler == null) {
+            synchronized (AppScheduler.class) {
+                if (instance == null) {
+                    instance = new AppScheduler();
+                }
+                scheduler = instance;
+            }
+        }
+        return scheduler;
+    }
+
+    private AppScheduler() {
+        for (Lane lane : Lane.values()) {
+            pools.put(lane, new Pool(lane, lane.threads, lane.capacity));
+        }
+    }
+
+    /** Every lane with the same size; for tests. */
+    AppScheduler(int threads, int capacity) {
+        for (Lane lane : Lane.values()) {
+            pools.put(lane, new Pool(lane, threads, capacity));
+        }
+    }
+
+    /** NORMAL priority work on {@code lane}. */
+    public Executor executor(Lane lane) {
+        return executor(lane, Priority.NORMAL);
+    }
+
+    public Executor executor(Lane lane, Priority priority) {
+        Pool pool = pools.get(lane);
+        return task -> pool.execute(priority, task);
+    }
+
+    /**
+     * As {@link #executor(Lane, Priority)}, but a full lane drops the task instead of
+     * throwing; for lookups that the next keystroke or slider move supersedes anyway.
+     */
+    public Executor executorDroppingWhenFull(Lane lane, Priority priority) {
+        Pool pool = pools.get(lane);
+        return task -> {
+            try {
+                pool.execute(priority, task);
+            } catch (RejectedExecutionException ignored) {
+                // counted in the lane's stats
+            }
+        };
+    }
+
+    /**
+     * Runs {@code work} on {@code lane}. The future fails with RejectedExecutionException
+     * if the lane is full; cancelling it before the work starts skips the work.
+     */
+    public <T> CompletableFuture<T> supply(Lane lane, Priority priority, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            pools.get(lane).execute(priority, () -> {
+                if (future.isDone()) {
+                    return; // cancelled while queued
+                }
+                try {
+                    future.complete(work.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> run(Lane lane, Priority priority, Runnable work) {
+        return supply(lane, priority, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public LaneStats stats(Lane lane) {
+        return pools.get(lane).stats();
+    }
+
+    public List<LaneStats> stats() {
+        List<LaneStats> all = new ArrayList<>();
+        for (Lane lane : Lane.values()) {
+            all.add(stats(lane));
+        }
+        return all;
+    }
+
+    /** Stops every lane; for tests. The shared instance lives as long as the process. */
+    void shutdownNow() {
+        for (Pool pool : pools.values()) {
+            pool.threads.shutdownNow();
+        }
+    }
+
+    private static final class Pool {
+        final Lane lane;
+        final int capacity;
+        final ThreadPoolExecutor threads;
+        final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
+        final AtomicLong sequence = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicInteger peakQueued = new AtomicInteger();
+
+        Pool(Lane lane, int size, int capacity) {
+            this.lane = lane;
+            this.capacity = capacity;
+            AtomicInteger count = new AtomicInteger();
+            threads = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue, task -> {
+                Thread thread = new Thread(task, lane.threadName + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(lane.threadPriority);
+                return thread;
+            });
+        }
+
+        void execute(Priority priority, Runnable work) {
+            int limit = priority == Priority.LOW ? capacity / 2 : capacity;
+            // Check and enqueue together, so concurrent submitters cannot overshoot the bound
+            synchronized (this) {
+                int depth = queue.size();
+                if (depth >= limit) {
+                    rejected.incrementAndGet();
+                    System.out.println("AppScheduler: " + lane.threadName + " lane full (" + depth
+                            + " queued), rejecting " + priority + " task");
+                    throw new RejectedExecutionException(lane.threadName + " lane is full");
+                }
+                threads.execute(new Task(priority, sequence.getAndIncrement(), work));
+                peakQueued.accumulateAndGet(queue.size(), Math::max);
+            }
+        }
+
+        LaneStats stats() {
+            long done = completed.get();
+            return new LaneStats(lane, threads.getMaximumPoolSize(), capacity, queue.size(), peakQueued.get(),
+                    threads.getActiveCount(), sequence.get(), done, rejected.get(),
+                    done == 0 ? 0 : waitNanos.get() / done / 1000);
+        }
+
+        private final class Task implements Runnable, Comparable<Task> {
+            final Priority priority;
+            final long order;
+            final Runnable work;
+            final long submittedAt = System.nanoTime();
+
+            Task(Priority priority, long order, Runnable work) {
+                this.priority = priority;
+                this.order = order;
+                this.work = work;
+            }
+
+            @Override
+            public void run() {
+                waitNanos.addAndGet(System.nanoTime() - submittedAt);
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    // Keep the lane's thread; the task's owner had its chance to handle this
+                    System.out.println("AppScheduler: task on " + lane.threadName + " lane failed: " + e);
+                    e.printStackTrace();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            }
+
+            @Override
+            public int compareTo(Task other) {
+                int byPriority = priority.compareTo(other.priority);
+                return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+            }
+        }
+    }
+}
@@ -4,11 +4,13 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import android.content.Context;
 
 @Database(
     entities = {TripRequest.class, ItineraryItem.class},
-    version = 1,
+    version = 2,
     exportSchema = false
 )
 @TypeConverters({DateConverter.class})
@@ -18,6 +20,57 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract TripRequestDao tripRequestDao();
     public abstract ItineraryItemDao itineraryItemDao();
     
+    /**
+     * v2: items get a numeric durationHours (was the string "time", which sorted "10.0"
+     * before "2.0") and an orderInDay visit order, and both tables get the composite
+     * indices their queries read through.
+     *
+     * Written for the SQLite 3.18 of API 26: no DROP/RENAME COLUMN and no window
+     * functions, so the items table is rebuilt and copied, and orderInDay is counted
+     * with a correlated subquery. v1 inserted each day's items in visit order, so the
+     * row id order within a day is the visit order.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            // Step 1: the v2 items table, exactly as Room creates it
+            db.execSQL("CREATE TABLE IF NOT EXISTS `itinerary_items_v2` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`tripRequestId` INTEGER NOT NULL, `day` INTEGER NOT NULL, "
+                    + "`orderInDay` INTEGER NOT NULL, `name` TEXT, `category` TEXT, "
+                    + "`estimatedCost` REAL NOT NULL, `durationHours` REAL NOT NULL, "
+                    + "`thumbnailUrl` TEXT, `description` TEXT, `address` TEXT, "
+                    + "`latitude` REAL NOT NULL, `longitude` REAL NOT NULL, "
+                    + "FOREIGN KEY(`tripRequestId`) REFERENCES `trip_requests`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            
+            // Step 2: copy, numbering each day's items. The temporary index keeps the
+            // count a range scan; it goes away with the old table
+            db.execSQL("CREATE INDEX `tmp_itinerary_items_trip_day_id` "
+                    + "ON `itinerary_items` (`tripRequestId`, `day`, `id`)");
+            db.execSQL("INSERT INTO `itinerary_items_v2` (`id`, `tripRequestId`, `day`, `orderInDay`, "
+                    + "`name`, `category`, `estimatedCost`, `durationHours`, `thumbnailUrl`, "
+                    + "`description`, `address`, `latitude`, `longitude`) "
+                    + "SELECT i.`id`, i.`tripRequestId`, i.`day`, "
+                    + "(SELECT COUNT(*) FROM `itinerary_items` AS e "
+                    + "WHERE e.`tripRequestId` = i.`tripRequestId` AND e.`day` = i.`day` AND e.`id` <= i.`id`), "
+                    + "i.`name`, i.`category`, i.`estimatedCost`, COALESCE(CAST(i.`time` AS REAL), 0), "
+                    + "i.`thumbnailUrl`, i.`description`, i.`address`, i.`latitude`, i.`longitude` "
+                    + "FROM `itinerary_items` AS i "
+                    + "WHERE i.`tripRequestId` IN (SELECT `id` FROM `trip_requests`)");
+            
+            // Step 3: swap the tables in
+            db.execSQL("DROP TABLE `itinerary_items`");
+            db.execSQL("ALTER TABLE `itinerary_items_v2` RENAME TO `itinerary_items`");
+            
+            // Step 4: indices, named as Room names them
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_itinerary_items_tripRequestId_day_orderInDay` "
+                    + "ON `itinerary_items` (`tripRequestId`, `day`, `orderInDay`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_trip_requests_userId_createdAt` "
+                    + "ON `trip_requests` (`userId`, `createdAt`)");
+        }
+    };
+    
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -26,7 +79,7 @@ public abstract class AppDatabase extends RoomDatabase {
                         context.getApplicationContext(),
                         AppDatabase.class,
                         "travel_itinerary_database"
-                    ).build();
+                    ).addMigrations(MIGRATION_1_2).build();
                 }
             }
         }
@@ -3,6 +3,7 @@ package com.example.travelitineraryplanner.data.local;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 @Entity(
@@ -12,7 +13,9 @@ import androidx.room.PrimaryKey;
         parentColumns = "id",
         childColumns = "tripRequestId",
         onDelete = ForeignKey.CASCADE
-    )
+    ),
+    // Every query filters by trip and reads in visit order
+    indices = @Index({"tripRequestId", "day", "orderInDay"})
 )
 public class ItineraryItem {
     @PrimaryKey(autoGenerate = true)
@@ -20,10 +23,11 @@ public class ItineraryItem {
     
     public int tripRequestId;
     public int day;
+    public int orderInDay; // 1-based visit order within the day
     public String name;
     public String category;
     public double estimatedCost;
-    public String time;
+    public double durationHours;
     public String thumbnailUrl;
     public String description;
     public String address;
@@ -33,14 +37,15 @@ public class ItineraryItem {
     public ItineraryItem() {}
     
     @Ignore
-    public ItineraryItem(int tripRequestId, int day, String name, String category, 
-                        double estimatedCost, String time, String thumbnailUrl) {
+    public ItineraryItem(int tripRequestId, int day, int orderInDay, String name, String category, 
+                        double estimatedCost, double durationHours, String thumbnailUrl) {
         this.tripRequestId = tripRequestId;
         this.day = day;
+        this.orderInDay = orderInDay;
         this.name = name;
         this.category = category;
         this.estimatedCost = estimatedCost;
-        this.time = time;
+        this.durationHours = durationHours;
         this.thumbnailUrl = thumbnailUrl;
     }
 }
@@ -6,13 +6,13 @@ import java.util.List;
 
 @Dao
 public interface ItineraryItemDao {
-    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId ORDER BY day, time")
+    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId ORDER BY day, orderInDay")
     LiveData<List<ItineraryItem>> getItineraryItemsByTrip(int tripRequestId);
     
-    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId ORDER BY day, time")
+    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId ORDER BY day, orderInDay")
     List<ItineraryItem> getItineraryItemsByTripSync(int tripRequestId);
     
-    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId AND day = :day ORDER BY time")
+    @Query("SELECT * FROM itinerary_items WHERE tripRequestId = :tripRequestId AND day = :day ORDER BY orderInDay")
     LiveData<List<ItineraryItem>> getItineraryItemsByTripAndDay(int tripRequestId, int day);
     
     @Insert
@@ -30,6 +30,13 @@ public interface ItineraryItemDao {
     @Query("DELETE FROM itinerary_items WHERE tripRequestId = :tripRequestId")
     void deleteItineraryItemsForTrip(int tripRequestId);
     
+    // Swap a trip's items in one transaction so observers never see an empty itinerary
+    @Transaction
+    default void replaceItineraryItemsForTrip(int tripRequestId, List<ItineraryItem> items) {
+        deleteItineraryItemsForTrip(tripRequestId);
+        insertItineraryItems(items);
+    }
+    
     @Query("DELETE FROM itinerary_items WHERE tripRequestId IN (SELECT id FROM trip_requests WHERE userId = :userId)")
     void deleteAllItineraryItemsForUser(String userId);
 }
@@ -2,10 +2,12 @@ package com.example.travelitineraryplanner.data.local;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import java.util.Date;
 
-@Entity(tableName = "trip_requests")
+// getTripsByUser() and getTripSummariesByUser() read one user's trips newest first straight off the index
+@Entity(tableName = "trip_requests", indices = @Index({"userId", "createdAt"}))
 public class TripRequest {
     @PrimaryKey(autoGenerate = true)
     public int id;
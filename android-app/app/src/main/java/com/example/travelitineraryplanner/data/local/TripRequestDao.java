@@ -2,6 +2,8 @@ package com.example.travelitineraryplanner.data.local;
 
 import androidx.room.*;
 import androidx.lifecycle.LiveData;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Dao
@@ -9,15 +11,72 @@ public interface TripRequestDao {
     @Query("SELECT * FROM trip_requests WHERE userId = :userId ORDER BY createdAt DESC")
     LiveData<List<TripRequest>> getTripsByUser(String userId);
     
+    // The history list in one query: per trip the item count, total cost, number of
+    // distinct place names and the first three of them. Each subquery is a search on the items' (tripRequestId,
+    // day, orderInDay) index; correlated subqueries and GROUP_CONCAT rather than window
+    // functions, which need SQLite 3.25 (API 30).
+    @Query("SELECT t.*, "
+            + "(SELECT COUNT(*) FROM itinerary_items i WHERE i.tripRequestId = t.id) AS itemCount, "
+            + "(SELECT TOTAL(i.estimatedCost) FROM itinerary_items i WHERE i.tripRequestId = t.id) AS totalCost, "
+            + "(SELECT COUNT(DISTINCT i.name) FROM itinerary_items i WHERE i.tripRequestId = t.id AND i.name <> '') AS placeCount, "
+            + "(SELECT GROUP_CONCAT(name, ', ') FROM ("
+            + "SELECT i.name FROM itinerary_items i WHERE i.tripRequestId = t.id AND i.name <> '' "
+            + "AND NOT EXISTS (SELECT 1 FROM itinerary_items e WHERE e.tripRequestId = i.tripRequestId "
+            + "AND e.name = i.name AND (e.day < i.day OR (e.day = i.day AND e.orderInDay < i.orderInDay))) "
+            + "ORDER BY i.day, i.orderInDay LIMIT 3)) AS leadingPlaces "
+            + "FROM trip_requests t WHERE t.userId = :userId ORDER BY t.createdAt DESC")
+    LiveData<List<TripSummary>> getTripSummariesByUser(String userId);
+    
     @Query("SELECT * FROM trip_requests WHERE id = :id")
     LiveData<TripRequest> getTripById(int id);
     
     @Query("SELECT * FROM trip_requests WHERE firestoreId = :firestoreId")
     TripRequest getTripByFirestoreId(String firestoreId);
     
+    @Query("SELECT firestoreId FROM trip_requests WHERE userId = :userId AND firestoreId IS NOT NULL")
+    List<String> getFirestoreIdsForUser(String userId);
+    
     @Insert
     long insertTrip(TripRequest trip);
     
+    @Insert
+    long[] insertTrips(List<TripRequest> trips);
+    
+    // Items of trips being inserted here; see insertTripsWithItems()
+    @Insert
+    void insertItems(List<ItineraryItem> items);
+    
+    // A trip and its items in one transaction; returns the trip's generated id
+    @Transaction
+    default long insertTripWithItems(TripRequest trip, List<ItineraryItem> items) {
+        return insertTripsWithItems(Collections.singletonList(new TripWithItems(trip, items)))[0];
+    }
+    
+    // Trips and all their items in one transaction, so one commit however many rows.
+    // Each @Insert binds its rows to a single prepared statement. Sets every trip's id
+    // and its items' tripRequestId; returns the generated trip ids in order.
+    @Transaction
+    default long[] insertTripsWithItems(List<TripWithItems> trips) {
+        List<TripRequest> rows = new ArrayList<>(trips.size());
+        for (TripWithItems t : trips) {
+            rows.add(t.trip);
+        }
+        long[] ids = insertTrips(rows);
+        List<ItineraryItem> items = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            TripWithItems t = trips.get(i);
+            t.trip.id = (int) ids[i];
+            for (ItineraryItem item : t.items) {
+                item.tripRequestId = t.trip.id;
+                items.add(item);
+            }
+        }
+        if (!items.isEmpty()) {
+            insertItems(items);
+        }
+        return ids;
+    }
+    
     @Update
     void updateTrip(TripRequest trip);
     
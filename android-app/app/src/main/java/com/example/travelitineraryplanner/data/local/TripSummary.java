@@ -0,0 +1,19 @@
+package com.example.travelitineraryplanner.data.local;
+
+import androidx.room.Embedded;
+
+/**
+ * A row of the trip history list, read by {@link TripRequestDao#getTripSummariesByUser}:
+ * the trip plus what the list shows of its items, so binding a row needs no I/O.
+ */
+public class TripSummary {
+    @Embedded
+    public TripRequest trip;
+    
+    public int itemCount;
+    public double totalCost;
+    // Distinct place names among the items; a trip that revisits a place has fewer than itemCount
+    public int placeCount;
+    // Up to three distinct place names in visit order, comma separated; null if none
+    public String leadingPlaces;
+}
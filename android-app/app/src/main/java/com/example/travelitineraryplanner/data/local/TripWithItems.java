@@ -0,0 +1,18 @@
+package com.example.travelitineraryplanner.data.local;
+
+import java.util.List;
+
+/**
+ * A trip and its itinerary items, written together by
+ * {@link TripRequestDao#insertTripsWithItems}. The items' tripRequestId is filled in
+ * from the trip's generated id.
+ */
+public class TripWithItems {
+    public final TripRequest trip;
+    public final List<ItineraryItem> items;
+    
+    public TripWithItems(TripRequest trip, List<ItineraryItem> items) {
+        this.trip = trip;
+        this.items = items;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.travelitineraryplanner.data.repository;
+
+import com.example.travelitineraryplanner.data.local.ItineraryItem;
+import com.example.travelitineraryplanner.data.local.TripRequest;
+import com.example.travelitineraryplanner.ml.ItineraryResult;
+import com.example.travelitineraryplanner.ml.Poi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The Room rows an itinerary is stored as. Items are taken from the result as it is,
+ * day by day in visit order, so POIs the user added or swapped in and a re-weighted
+ * order are saved the way they were shown.
+ */
+final class SavedItinerary {
+
+    private SavedItinerary() {}
+
+    /** The trip row for a shown itinerary; its length is the number of planned days. */
+    static TripRequest tripFor(String userId, ItineraryResult shown) {
+        ItineraryResult.Metadata metadata = shown.metadata != null ? shown.metadata : new ItineraryResult.Metadata();
+        String destination = metadata.location != null ? metadata.location : "Unknown";
+        String budget = metadata.budget != null ? metadata.budget : "MODERATE";
+        int duration = shown.dayPlans != null && !shown.dayPlans.isEmpty() ? shown.dayPlans.size() : metadata.days;
+        return new TripRequest(userId, destination, Math.max(1, duration), budget);
+    }
+
+    static List<ItineraryItem> items(int tripId, ItineraryResult itineraryResult, int duration) {
+        List<ItineraryItem> itemsToSave = new ArrayList<>();
+        if (itineraryResult != null && itineraryResult.dayPlans != null && !itineraryResult.dayPlans.isEmpty()) {
+            // Day by day, so rows are inserted in visit order
+            for (Map.Entry<Integer, List<Poi>> entry : new TreeMap<>(itineraryResult.dayPlans).entrySet()) {
+                int day = entry.getKey();
+                List<Poi> pois = entry.getValue();
+                int order = 0;
+                for (Poi poi : pois) {
+                    order++;
+                    // Use the constructor your ItineraryItem class has for required fields,
+                    // then set optional fields by assignment for compatibility.
+                    ItineraryItem it = new ItineraryItem(
+                            tripId,
+                            day,
+                            order,
+                            poi.name == null ? "" : poi.name,
+                            poi.category == null ? "" : poi.category,
+                            poi.estimatedCost,
+                            poi.timeHours,
+                            poi.thumbnailUrl == null ? "" : poi.thumbnailUrl
+                    );
+                    // set optional extras if your entity has them (fields exist in your ItineraryItem)
+                    try { it.description = poi.description; } catch (Exception ignored) {}
+                    try { it.address = poi.address; } catch (Exception ignored) {}
+                    try { it.latitude = poi.latitude; it.longitude = poi.longitude; } catch (Exception ignored) {}
+
+                    itemsToSave.add(it);
+                }
+            }
+        } else {
+            // No ML result: fallback - create empty day entries so UI has something
+            // We'll create one placeholder item per day (so users see a card to edit later)
+            for (int d = 1; d <= duration; d++) {
+                ItineraryItem it = new ItineraryItem(
+                        tripId,
+                        d,
+                        1,
+                        "No recommended POIs",
+                        "info",
+                        0.0,
+                        1.0,
+                        ""
+                );
+                it.description = "No suggestions available for the selected location. Try a nearby city or broader state name.";
+                itemsToSave.add(it);
+            }
+        }
+        return itemsToSave;
+    }
+
+}
@@ -4,23 +4,25 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.travelitineraryplanner.concurrent.AppScheduler;
 import com.example.travelitineraryplanner.data.local.AppDatabase;
 import com.example.travelitineraryplanner.data.local.ItineraryItemDao;
 import com.example.travelitineraryplanner.data.local.TripRequestDao;
 import com.example.travelitineraryplanner.data.local.TripRequest;
+import com.example.travelitineraryplanner.data.local.TripSummary;
 import com.example.travelitineraryplanner.data.local.ItineraryItem;
+import com.example.travelitineraryplanner.data.local.TripWithItems;
 
 import com.example.travelitineraryplanner.ml.ItineraryPlanner;
 import com.example.travelitineraryplanner.ml.ItineraryResult;
-import com.example.travelitineraryplanner.ml.Poi;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TripRepository - glue between Room DB, Firestore and the ML itinerary planner.
@@ -33,7 +35,8 @@ public class TripRepository {
     private final FirebaseFirestore firestore;
     private final FirebaseAuth auth;
     private final ItineraryPlanner itineraryPlanner;
-    private final ExecutorService executor;
+    // Room work runs on the app's DATABASE lane, Firestore sync on the SYNC lane
+    private final AppScheduler scheduler;
     private final Application application;
 
     public TripRepository(Application application) {
@@ -43,25 +46,27 @@ public class TripRepository {
         this.itineraryItemDao = db.itineraryItemDao();
         this.firestore = FirebaseFirestore.getInstance();
         this.auth = FirebaseAuth.getInstance();
-        this.itineraryPlanner = new ItineraryPlanner(application);
-        this.executor = Executors.newFixedThreadPool(3);
+        this.itineraryPlanner = ItineraryPlanner.getInstance(application);
+        this.scheduler = AppScheduler.get();
     }
     
     public void deleteTrip(TripRequest trip) {
-        executor.execute(() -> {
+        scheduler.run(AppScheduler.Lane.DATABASE, AppScheduler.Priority.NORMAL, () -> {
             // Delete from local database
             tripRequestDao.deleteTrip(trip);
             
             // Delete associated itinerary items
             itineraryItemDao.deleteItineraryItemsForTrip(trip.id);
             
-            // Delete from Firestore if user is authenticated
+            // Delete from Firestore if user is authenticated; by its document id, or
+            // loadTripsFromFirestore() would bring the trip back
             String userId = getCurrentUserId();
-            if (userId != null && !userId.equals("guest_user")) {
-                firestore.collection("users").document(userId)
-                    .collection("trips").document(String.valueOf(trip.id))
-                    .delete();
+            if (userId != null && !userId.equals("guest_user") && trip.firestoreId != null) {
+                tripsCollection(userId).document(trip.firestoreId).delete();
             }
+        }).exceptionally(e -> {
+            e.printStackTrace();
+            return null;
         });
     }
     
@@ -69,32 +74,44 @@ public class TripRepository {
         void onItemsLoaded(List<ItineraryItem> items);
     }
     
+    /** Callback form of {@link #loadItineraryAsync}; an unparsable id loads nothing. */
     public void getItineraryItemsByTripId(String tripId, ItineraryItemsCallback callback) {
-        executor.execute(() -> {
-            try {
-                int tripIdInt = Integer.parseInt(tripId);
-                List<ItineraryItem> items = itineraryItemDao.getItineraryItemsByTripSync(tripIdInt);
-                callback.onItemsLoaded(items);
-            } catch (NumberFormatException e) {
-                // Handle error - return empty list
-                callback.onItemsLoaded(new ArrayList<>());
-            }
-        });
+        int tripIdInt;
+        try {
+            tripIdInt = Integer.parseInt(tripId);
+        } catch (NumberFormatException e) {
+            callback.onItemsLoaded(new ArrayList<>());
+            return;
+        }
+        loadItineraryAsync(tripIdInt).thenAccept(callback::onItemsLoaded);
+    }
+
+    /**
+     * The trip's itinerary items, read on the DATABASE lane ahead of writes. A failed
+     * read completes with an empty list.
+     */
+    public CompletableFuture<List<ItineraryItem>> loadItineraryAsync(int tripId) {
+        return scheduler.supply(AppScheduler.Lane.DATABASE, AppScheduler.Priority.HIGH,
+                        () -> itineraryItemDao.getItineraryItemsByTripSync(tripId))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return new ArrayList<>();
+                });
     }
 
     // -------------------------
     // Read APIs for ViewModels
     // -------------------------
-    public LiveData<List<TripRequest>> getUserTrips() {
+    public LiveData<List<TripSummary>> getUserTripSummaries() {
         String userId = getCurrentUserId();
-        System.out.println("TripRepository: getUserTrips called, userId: " + userId);
+        System.out.println("TripRepository: getUserTripSummaries called, userId: " + userId);
         if (userId == null) {
             System.out.println("TripRepository: No user ID, returning empty list");
             // return empty live data so UI won't NPE
             return new MutableLiveData<>(new ArrayList<>());
         }
         System.out.println("TripRepository: Getting trips for user: " + userId);
-        return tripRequestDao.getTripsByUser(userId);
+        return tripRequestDao.getTripSummariesByUser(userId);
     }
 
     public LiveData<TripRequest> getTripById(int tripId) {
@@ -111,9 +128,8 @@ public class TripRepository {
     }
 
     public void insertItineraryItemsSync(List<ItineraryItem> items) {
-        for (ItineraryItem item : items) {
-            itineraryItemDao.insertItineraryItem(item);
-        }
+        // One statement and one transaction for the whole list
+        itineraryItemDao.insertItineraryItems(items);
     }
 
     // -------------------------
@@ -121,104 +137,109 @@ public class TripRepository {
     // resultLiveData will receive inserted tripId (long) or -1 on failure
     // -------------------------
     public void createTrip(String destination, int duration, String budget, MutableLiveData<Long> resultLiveData) {
-        executor.execute(() -> {
-            try {
-                String userId = getCurrentUserId();
-                // userId will never be null now due to our fix in getCurrentUserId()
-                
-                // Validate inputs to prevent errors
-                String finalDestination = destination;
-                if (finalDestination == null || finalDestination.trim().isEmpty()) {
-                    finalDestination = "Unknown Destination";
-                }
-                
-                String finalBudget = budget;
-                if (finalBudget == null || finalBudget.trim().isEmpty()) {
-                    finalBudget = "MODERATE";
-                }
-                
-                int finalDuration = duration;
-                if (finalDuration <= 0) {
-                    finalDuration = 1; // Ensure at least 1 day
-                }
-
-                // Create TripRequest (uses constructor in your TripRequest)
-                TripRequest trip = new TripRequest(userId, finalDestination, finalDuration, finalBudget);
-                long insertedId = tripRequestDao.insertTrip(trip); // DAO method exists
-                if (insertedId <= 0) {
-                    resultLiveData.postValue(-1L);
-                    return;
-                }
-                // Some TripRequest classes store id as int; set if present
-                try { trip.id = (int) insertedId; } catch (Exception ignored) {}
-
-                // Generate itinerary via ML planner
-                ItineraryResult itineraryResult = itineraryPlanner.planItinerary(finalDestination, finalDuration, finalBudget);
-
-                // Defensive: If ML returns nothing, still create an empty day structure
-                List<ItineraryItem> itemsToSave = new ArrayList<>();
-                if (itineraryResult != null && itineraryResult.dayPlans != null && !itineraryResult.dayPlans.isEmpty()) {
-                    for (Map.Entry<Integer, List<Poi>> entry : itineraryResult.dayPlans.entrySet()) {
-                        int day = entry.getKey();
-                        List<Poi> pois = entry.getValue();
-                        int order = 0;
-                        for (Poi poi : pois) {
-                            order++;
-                            // Use the constructor your ItineraryItem class has for required fields,
-                            // then set optional fields by assignment for compatibility.
-                            ItineraryItem it = new ItineraryItem(
-                                    (int) insertedId,
-                                    day,
-                                    poi.name == null ? "" : poi.name,
-                                    poi.category == null ? "" : poi.category,
-                                    poi.estimatedCost,
-                                    String.valueOf(poi.timeHours),
-                                    poi.thumbnailUrl == null ? "" : poi.thumbnailUrl
-                            );
-                            // set optional extras if your entity has them (fields exist in your ItineraryItem)
-                            try { it.description = poi.description; } catch (Exception ignored) {}
-                            try { it.address = poi.address; } catch (Exception ignored) {}
-                            try { it.latitude = poi.latitude; it.longitude = poi.longitude; } catch (Exception ignored) {}
-
-                            itemsToSave.add(it);
-                        }
-                    }
-                } else {
-                    // No ML result: fallback - create empty day entries so UI has something
-                    // We'll create one placeholder item per day (so users see a card to edit later)
-                    for (int d = 1; d <= finalDuration; d++) {
-                        ItineraryItem it = new ItineraryItem(
-                                (int) insertedId,
-                                d,
-                                "No recommended POIs",
-                                "info",
-                                0.0,
-                                "1.0",
-                                ""
-                        );
-                        it.description = "No suggestions available for the selected location. Try a nearby city or broader state name.";
-                        itemsToSave.add(it);
-                    }
-                }
-
-                // Save items to Room (uses DAO insertItineraryItems)
-                if (!itemsToSave.isEmpty()) {
-                    itineraryItemDao.insertItineraryItems(itemsToSave);
-                }
-
-                // Try to persist to Firestore (non-blocking for success)
-                try {
-                    saveTripToFirestore(trip, itemsToSave);
-                } catch (Exception e) {
+        createTripAsync(destination, duration, budget).whenComplete((tripId, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                resultLiveData.postValue(-1L);
+            } else {
+                resultLiveData.postValue(tripId);
+            }
+        });
+    }
+
+    /**
+     * Creates a trip and its itinerary; completes with the inserted trip id once both are
+     * in Room.
+     *
+     * Stages: the planner resolves and scores on its own threads; the trip row and all of
+     * its items are then written in one transaction on the DATABASE lane. The Firestore
+     * sync and, for a provisional plan, the model-ranked rewrite run after the future has
+     * completed and do not hold it up.
+     */
+    public CompletableFuture<Long> createTripAsync(String destination, int duration, String budget) {
+        String userId = getCurrentUserId();
+        // userId will never be null now due to our fix in getCurrentUserId()
+
+        // Validate inputs to prevent errors
+        String finalDestination = destination;
+        if (finalDestination == null || finalDestination.trim().isEmpty()) {
+            finalDestination = "Unknown Destination";
+        }
+
+        String finalBudget = budget;
+        if (finalBudget == null || finalBudget.trim().isEmpty()) {
+            finalBudget = "MODERATE";
+        }
+
+        int finalDuration = duration <= 0 ? 1 : duration; // Ensure at least 1 day
+
+        // Step 1: plan
+        TripRequest trip = new TripRequest(userId, finalDestination, finalDuration, finalBudget);
+        CompletableFuture<ItineraryResult> planned =
+                itineraryPlanner.planAsync(finalDestination, finalDuration, finalBudget);
+
+        // Step 2: save the trip and its items together. If the planner fails,
+        // SavedItinerary.items() still leaves placeholder days so the trip is not empty
+        return planned.exceptionally(e -> null).thenCompose(itineraryResult -> saveAsync(trip,
+                SavedItinerary.items(0, itineraryResult, finalDuration),
+                itineraryResult != null && itineraryResult.provisional ? itineraryResult : null));
+    }
+
+    /**
+     * Saves an itinerary exactly as it is shown, with the POIs the user added or swapped
+     * and the order the ranking sliders gave it; completes with the inserted trip id.
+     * Nothing is re-planned, and a provisional plan is not rewritten by its upgrade, which
+     * would drop those edits. Call on the thread that edits {@code shown}; its rows are
+     * copied before this returns.
+     */
+    public CompletableFuture<Long> saveTripAsync(ItineraryResult shown) {
+        TripRequest trip = SavedItinerary.tripFor(getCurrentUserId(), shown);
+        return saveAsync(trip, SavedItinerary.items(0, shown, trip.duration), null);
+    }
+
+    /**
+     * Writes the trip row and all of its items in one transaction on the DATABASE lane,
+     * then syncs them to Firestore. {@code provisional}, if not null, is the plan the items
+     * came from; they are rewritten once its model-ranked version is ready.
+     */
+    private CompletableFuture<Long> saveAsync(TripRequest trip, List<ItineraryItem> itemsToSave,
+                                              ItineraryResult provisional) {
+        // The Firestore id is generated locally, so the row is written once with it
+        trip.firestoreId = tripsCollection(trip.userId).document().getId();
+
+        CompletableFuture<Long> saved = scheduler.supply(AppScheduler.Lane.DATABASE, AppScheduler.Priority.NORMAL, () -> {
+            long insertedId = tripRequestDao.insertTripWithItems(trip, itemsToSave);
+            if (insertedId <= 0) {
+                throw new IllegalStateException("Trip insert failed for " + trip.destination);
+            }
+            if (provisional != null) {
+                replaceWhenUpgraded(trip.id, provisional);
+            }
+            return insertedId;
+        });
+
+        // Firestore sync, off the critical path (local is the source of truth)
+        saved.thenRunAsync(() -> saveTripToFirestore(trip, itemsToSave),
+                        scheduler.executor(AppScheduler.Lane.SYNC, AppScheduler.Priority.LOW))
+                .exceptionally(e -> {
                     // do not fail on Firestore issues
                     e.printStackTrace();
-                }
+                    return null;
+                });
 
-                // Return inserted id
-                resultLiveData.postValue(insertedId);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                resultLiveData.postValue(-1L);
+        return saved;
+    }
+
+    /**
+     * A provisional plan is rewritten with the model-ranked one once the model is loaded;
+     * observers of getItineraryItems() pick the change up from Room.
+     */
+    private void replaceWhenUpgraded(int tripId, ItineraryResult provisional) {
+        itineraryPlanner.upgradeOf(provisional).thenAccept(upgraded -> {
+            // Runs on a planner worker thread, so Room can be called directly
+            if (upgraded != null && !upgraded.dayPlans.isEmpty()) {
+                itineraryItemDao.replaceItineraryItemsForTrip(
+                        tripId, SavedItinerary.items(tripId, upgraded, upgraded.metadata.days));
             }
         });
     }
@@ -244,7 +265,8 @@ public class TripRepository {
             m.put("title", tryGetField(it, "title", tryGetField(it, "name", "")));
             m.put("category", tryGetField(it, "category", ""));
             m.put("estimatedCost", tryGetField(it, "estimatedCost", 0.0));
-            m.put("time", tryGetField(it, "time", "1.0"));
+            m.put("orderInDay", tryGetField(it, "orderInDay", 1));
+            m.put("durationHours", tryGetField(it, "durationHours", 1.0));
             m.put("description", tryGetField(it, "description", ""));
             m.put("address", tryGetField(it, "address", ""));
             m.put("latitude", tryGetField(it, "latitude", 0.0));
@@ -253,16 +275,10 @@ public class TripRepository {
         }
         tripData.put("itinerary", list);
 
-        firestore.collection("users").document(userId)
-                .collection("trips")
-                .add(tripData)
-                .addOnSuccessListener(documentReference -> {
-                    // update local entity's firestoreId in background
-                    try {
-                        trip.firestoreId = documentReference.getId();
-                        executor.execute(() -> tripRequestDao.updateTrip(trip));
-                    } catch (Exception ignored) {}
-                })
+        // Under the id the local row already has (see saveAsync)
+        CollectionReference trips = tripsCollection(userId);
+        (trip.firestoreId != null ? trips.document(trip.firestoreId) : trips.document())
+                .set(tripData)
                 .addOnFailureListener(e -> {
                     // ignore Firestore failure (local was saved)
                     e.printStackTrace();
@@ -270,28 +286,80 @@ public class TripRepository {
     }
 
     // -------------------------
-    // Firestore -> local sync helper (optional)
+    // Firestore -> local sync: trips this device does not have yet are imported with
+    // their items in one transaction
     // -------------------------
     public void loadTripsFromFirestore() {
         String userId = getCurrentUserId();
         if (userId == null) return;
 
-        firestore.collection("users").document(userId)
-                .collection("trips")
+        tripsCollection(userId)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    executor.execute(() -> {
+                    scheduler.run(AppScheduler.Lane.DATABASE, AppScheduler.Priority.LOW, () -> {
+                        Set<String> known = new HashSet<>(tripRequestDao.getFirestoreIdsForUser(userId));
+                        List<TripWithItems> missing = new ArrayList<>();
                         for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                            if (known.contains(document.getId())) continue;
                             try {
-                                Map<String, Object> data = document.getData();
-                                // transform and upsert to local DB if needed
-                                // left intentionally minimal — expand if you want merge behavior
-                            } catch (Exception ignored) {}
+                                missing.add(tripFromFirestore(userId, document));
+                            } catch (Exception e) {
+                                // skip malformed documents, import the rest
+                                System.out.println("TripRepository: Skipping trip " + document.getId() + ": " + e.getMessage());
+                            }
+                        }
+                        if (!missing.isEmpty()) {
+                            tripRequestDao.insertTripsWithItems(missing);
+                            System.out.println("TripRepository: Imported " + missing.size() + " trips from Firestore");
                         }
+                    }).exceptionally(e -> {
+                        e.printStackTrace();
+                        return null;
                     });
                 });
     }
 
+    // Inverse of saveTripToFirestore()
+    private TripWithItems tripFromFirestore(String userId, QueryDocumentSnapshot document) {
+        String destination = document.getString("destination");
+        String budget = document.getString("budget");
+        TripRequest trip = new TripRequest(userId,
+                destination == null ? "Unknown Destination" : destination,
+                asNumber(document.get("duration"), 1).intValue(),
+                budget == null ? "MODERATE" : budget);
+        Date createdAt = document.getDate("createdAt");
+        if (createdAt != null) trip.createdAt = createdAt;
+        trip.firestoreId = document.getId();
+
+        List<ItineraryItem> items = new ArrayList<>();
+        Object itinerary = document.get("itinerary");
+        if (itinerary instanceof List) {
+            for (Object entry : (List<?>) itinerary) {
+                if (!(entry instanceof Map)) continue;
+                Map<?, ?> m = (Map<?, ?>) entry;
+                // Trips synced before durationHours carry the duration as a "time" string
+                Number duration = m.get("durationHours") instanceof Number
+                        ? (Number) m.get("durationHours") : parseNumber(m.get("time"), 1.0);
+                ItineraryItem it = new ItineraryItem(
+                        0,
+                        asNumber(m.get("day"), 1).intValue(),
+                        asNumber(m.get("orderInDay"), items.size() + 1).intValue(),
+                        asString(m.get("title"), ""),
+                        asString(m.get("category"), ""),
+                        asNumber(m.get("estimatedCost"), 0.0).doubleValue(),
+                        duration.doubleValue(),
+                        ""
+                );
+                it.description = asString(m.get("description"), "");
+                it.address = asString(m.get("address"), "");
+                it.latitude = asNumber(m.get("latitude"), 0.0).doubleValue();
+                it.longitude = asNumber(m.get("longitude"), 0.0).doubleValue();
+                items.add(it);
+            }
+        }
+        return new TripWithItems(trip, items);
+    }
+
     // -------------------------
     // Utility helpers
     // -------------------------
@@ -314,6 +382,26 @@ public class TripRepository {
         }
     }
 
+    private CollectionReference tripsCollection(String userId) {
+        return firestore.collection("users").document(userId).collection("trips");
+    }
+
+    private static Number asNumber(Object value, Number fallback) {
+        return value instanceof Number ? (Number) value : fallback;
+    }
+
+    private static Number parseNumber(Object value, Number fallback) {
+        try {
+            return value == null ? fallback : Double.valueOf(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static String asString(Object value, String fallback) {
+        return value == null ? fallback : String.valueOf(value);
+    }
+
     private Object tryGetField(Object obj, String fieldName, Object fallback) {
         if (obj == null) return fallback;
         try {
@@ -337,10 +425,8 @@ public class TripRepository {
         return Character.toUpperCase(s.charAt(0)) + s.substring(1);
     }
 
-    // Cleanup on ViewModel clear
+    // Cleanup on ViewModel clear. The lanes are app-wide, so there are no threads to
+    // release; queued work still completes.
     public void cleanup() {
-        try {
-            if (executor != null && !executor.isShutdown()) executor.shutdown();
-        } catch (Exception ignored) {}
     }
 }
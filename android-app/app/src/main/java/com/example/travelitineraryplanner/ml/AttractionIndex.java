@@ -0,0 +1,339 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text attraction search over the catalog: an inverted index on name, category,
+ * description, city and state, ranked with BM25.
+ *
+ * Terms are kept in one sorted array, so a query word is looked up exactly or, for the
+ * word being typed (and any word with no exact match), expanded to every term it
+ * prefixes. Field boosts are folded into term frequencies at index time: a name word
+ * counts NAME_WEIGHT times. Each term's postings are (doc gap, frequency) pairs as
+ * varints in one shared byte array, a few bytes per posting.
+ *
+ * The analyzed form of every row (terms and frequencies) is cached by row content, so
+ * rebuilding after a catalog update only tokenizes rows that are new or changed; the
+ * postings themselves are re-encoded, which is a linear pass.
+ */
+public class AttractionIndex {
+    private static final int NAME_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int CITY_WEIGHT = 2;
+    private static final int STATE_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // A term reached through prefix expansion scores a little below an exact match
+    private static final float PREFIX_FACTOR = 0.9f;
+    private static final int MAX_EXPANSIONS = 64;
+
+    /** One search result: a catalog row and its BM25 score. */
+    public static final class Hit {
+        public final int poi;
+        public final float score;
+
+        Hit(int poi, float score) {
+            this.poi = poi;
+            this.score = score;
+        }
+    }
+
+    // Analyzed row: distinct terms and their boosted frequencies
+    private static final class Doc {
+        final String[] terms;
+        final int[] freqs;
+        final int length;
+
+        Doc(String[] terms, int[] freqs, int length) {
+            this.terms = terms;
+            this.freqs = freqs;
+            this.length = length;
+        }
+    }
+
+    // Postings of one term while building
+    private static final class PostingBuilder {
+        byte[] bytes = new byte[16];
+        int size;
+        int lastDoc = -1;
+        int docFreq;
+
+        void add(int doc, int freq) {
+            ensure(10);
+            size = putVarint(bytes, size, doc - lastDoc);
+            size = putVarint(bytes, size, freq);
+            lastDoc = doc;
+            docFreq++;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    private final long catalogHash;
+    private final Map<Long, Doc> docCache;
+    private final int docCount;
+    private final int[] lengths;
+    private final float averageLength;
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] postingStarts; // terms.length + 1 offsets into postings
+    private final byte[] postings;
+
+    private AttractionIndex(long catalogHash, Map<Long, Doc> docCache, int[] lengths, float averageLength,
+                            String[] terms, int[] docFreqs, int[] postingStarts, byte[] postings) {
+        this.catalogHash = catalogHash;
+        this.docCache = docCache;
+        this.docCount = lengths.length;
+        this.lengths = lengths;
+        this.averageLength = averageLength;
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.postingStarts = postingStarts;
+        this.postings = postings;
+    }
+
+    /**
+     * Indexes {@code catalog}, reusing the analyzed rows of {@code previous} (may be null)
+     * for every row whose text is unchanged.
+     */
+    public static AttractionIndex build(PoiCatalog catalog, AttractionIndex previous) {
+        long start = System.nanoTime();
+        int n = catalog.size();
+        Map<Long, Doc> cache = new HashMap<>(n * 2);
+        Map<String, String> interned = new HashMap<>();
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        int[] lengths = new int[n];
+        long totalLength = 0;
+        int reused = 0;
+
+        for (int poi = 0; poi < n; poi++) {
+            long key = rowHash(catalog, poi);
+            Doc doc = previous != null ? previous.docCache.get(key) : null;
+            if (doc != null) {
+                reused++;
+            } else {
+                doc = cache.get(key);
+            }
+            if (doc == null) {
+                doc = analyze(catalog, poi, interned);
+            }
+            cache.put(key, doc);
+            lengths[poi] = doc.length;
+            totalLength += doc.length;
+            for (int t = 0; t < doc.terms.length; t++) {
+                PostingBuilder builder = builders.get(doc.terms[t]);
+                if (builder == null) {
+                    builder = new PostingBuilder();
+                    builders.put(doc.terms[t], builder);
+                }
+                builder.add(poi, doc.freqs[t]);
+            }
+        }
+
+        String[] terms = builders.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] docFreqs = new int[terms.length];
+        int[] starts = new int[terms.length + 1];
+        int total = 0;
+        for (int t = 0; t < terms.length; t++) {
+            starts[t] = total;
+            total += builders.get(terms[t]).size;
+        }
+        starts[terms.length] = total;
+        byte[] postings = new byte[total];
+        for (int t = 0; t < terms.length; t++) {
+            PostingBuilder builder = builders.get(terms[t]);
+            System.arraycopy(builder.bytes, 0, postings, starts[t], builder.size);
+            docFreqs[t] = builder.docFreq;
+        }
+
+        float average = n > 0 ? (float) totalLength / n : 0f;
+        System.out.println("Indexed " + n + " attractions (" + terms.length + " terms, " + total +
+                         " posting bytes, " + reused + " rows reused) in " + (System.nanoTime() - start) / 1_000 + "us");
+        return new AttractionIndex(catalog.contentHash(), cache, lengths, average, terms, docFreqs, starts, postings);
+    }
+
+    private static Doc analyze(PoiCatalog catalog, int poi, Map<String, String> interned) {
+        Map<String, Integer> freqs = new HashMap<>();
+        int length = 0;
+        length += addField(catalog.name(poi), NAME_WEIGHT, freqs, interned);
+        length += addField(catalog.category(poi), CATEGORY_WEIGHT, freqs, interned);
+        length += addField(catalog.description(poi), DESCRIPTION_WEIGHT, freqs, interned);
+        length += addField(catalog.city(poi), CITY_WEIGHT, freqs, interned);
+        length += addField(catalog.state(poi), STATE_WEIGHT, freqs, interned);
+
+        String[] terms = new String[freqs.size()];
+        int[] counts = new int[freqs.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+            terms[i] = entry.getKey();
+            counts[i] = entry.getValue();
+            i++;
+        }
+        return new Doc(terms, counts, length);
+    }
+
+    private static int addField(String text, int weight, Map<String, Integer> freqs, Map<String, String> interned) {
+        int length = 0;
+        for (String token : tokenize(text)) {
+            String term = interned.get(token);
+            if (term == null) {
+                interned.put(token, token);
+                term = token;
+            }
+            freqs.merge(term, weight, Integer::sum);
+            length += weight;
+        }
+        return length;
+    }
+
+    static String[] tokenize(String text) {
+        String normalized = LocationResolver.normalize(text);
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    // 64-bit FNV-1a over the indexed fields
+    private static long rowHash(PoiCatalog catalog, int poi) {
+        long hash = 0xcbf29ce484222325L;
+        String[] fields = {catalog.name(poi), catalog.category(poi), catalog.description(poi),
+                catalog.city(poi), catalog.state(poi)};
+        for (String field : fields) {
+            if (field != null) {
+                for (int i = 0; i < field.length(); i++) {
+                    hash = (hash ^ field.charAt(i)) * 0x100000001b3L;
+                }
+            }
+            hash = (hash ^ 0x1f) * 0x100000001b3L; // field separator
+        }
+        return hash;
+    }
+
+    public long catalogHash() {
+        return catalogHash;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * The {@code k} best matches for {@code query}, best first. Each query word adds the
+     * BM25 score of its best matching term, so rows matching more words rank higher.
+     */
+    public List<Hit> search(String query, int k) {
+        String[] words = tokenize(query);
+        List<Hit> hits = new ArrayList<>();
+        if (words.length == 0 || k <= 0 || docCount == 0) {
+            return hits;
+        }
+        float[] totals = new float[docCount];
+        float[] wordScores = new float[docCount];
+        int[] touched = new int[docCount];
+        int touchedCount = 0;
+        int[] wordDocs = new int[docCount];
+
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            int from = lowerBound(word);
+            boolean exact = from < terms.length && terms[from].equals(word);
+            int to = from + 1;
+            if (!exact || w == words.length - 1) {
+                // Expand to every term the word prefixes
+                to = from;
+                while (to < terms.length && to - from < MAX_EXPANSIONS && terms[to].startsWith(word)) {
+                    to++;
+                }
+            }
+
+            int wordDocCount = 0;
+            for (int t = from; t < to; t++) {
+                float factor = terms[t].length() == word.length() ? 1f : PREFIX_FACTOR;
+                float idf = (float) Math.log(1 + (docCount - docFreqs[t] + 0.5) / (docFreqs[t] + 0.5));
+                int position = postingStarts[t];
+                int end = postingStarts[t + 1];
+                int doc = -1;
+                while (position < end) {
+                    // Inline varint decode: doc gap, then frequency
+                    int gap = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = postings[position++];
+                        gap |= (b & 0x7f) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    int freq = 0;
+                    shift = 0;
+                    do {
+                        b = postings[position++];
+                        freq |= (b & 0x7f) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    doc += gap;
+
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    float score = factor * idf * freq * (K1 + 1) / (freq + norm);
+                    if (wordScores[doc] == 0f) {
+                        wordDocs[wordDocCount++] = doc;
+                    }
+                    if (score > wordScores[doc]) {
+                        wordScores[doc] = score;
+                    }
+                }
+            }
+
+            for (int i = 0; i < wordDocCount; i++) {
+                int doc = wordDocs[i];
+                if (totals[doc] == 0f) {
+                    touched[touchedCount++] = doc;
+                }
+                totals[doc] += wordScores[doc];
+                wordScores[doc] = 0f;
+            }
+        }
+
+        float[] scores = new float[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            scores[i] = totals[touched[i]];
+        }
+        int[] order = RankingComponents.rankDescending(scores, touchedCount);
+        for (int i = 0; i < Math.min(k, touchedCount); i++) {
+            hits.add(new Hit(touched[order[i]], scores[order[i]]));
+        }
+        return hits;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int putVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            out[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree over a fixed dictionary, for "all words within k edits of the
+ * query" lookups. Levenshtein distance is a metric, so a node at distance d from the
+ * query can only have matches among the children at edge distance d-k .. d+k; the rest
+ * of the tree is never visited. For a few hundred place names a query touches a handful
+ * of nodes and runs in microseconds.
+ */
+class BkTree {
+
+    /** A dictionary word and its edit distance to the query. */
+    static final class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Node {
+        final String word;
+        // children[d] is the subtree of words at distance d from this word
+        Node[] children;
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int d = distance(node.word, word);
+            if (d == 0) {
+                return; // already present
+            }
+            if (node.children == null || node.children.length <= d) {
+                Node[] grown = new Node[d + 1];
+                if (node.children != null) {
+                    System.arraycopy(node.children, 0, grown, 0, node.children.length);
+                }
+                node.children = grown;
+            }
+            if (node.children[d] == null) {
+                node.children[d] = new Node(word);
+                size++;
+                return;
+            }
+            node = node.children[d];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Every word within {@code maxDistance} edits of {@code query}, in no particular order.
+     */
+    List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int d = distance(node.word, query);
+            if (d <= maxDistance) {
+                matches.add(new Match(node.word, d));
+            }
+            if (node.children == null) {
+                continue;
+            }
+            int from = Math.max(1, d - maxDistance);
+            int to = Math.min(node.children.length - 1, d + maxDistance);
+            for (int edge = from; edge <= to; edge++) {
+                if (node.children[edge] != null) {
+                    pending.add(node.children[edge]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Levenshtein distance (insertions, deletions, substitutions), two rolling rows.
+     */
+    static int distance(String a, String b) {
+        int n = a.length();
+        int m = b.length();
+        if (n == 0) return m;
+        if (m == 0) return n;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation for one planning run.
+ *
+ * The planner checks the token at stage and chunk boundaries and stops with a
+ * CancellationException once it is cancelled. An interrupt of the thread doing the
+ * checking counts as cancellation too, so executor shutdown stops a run the same way.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+    private List<Runnable> listeners; // guarded by this, null once cancelled
+
+    public CancellationToken() {
+        listeners = new ArrayList<>();
+    }
+
+    /** Cancels the run; idempotent. Listeners run on the calling thread. */
+    public void cancel() {
+        List<Runnable> notify;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            notify = listeners;
+            listeners = null;
+        }
+        for (Runnable listener : notify) {
+            listener.run();
+        }
+    }
+
+    /** True once cancelled, or if the calling thread has been interrupted. */
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Planning cancelled");
+        }
+    }
+
+    /** Runs {@code listener} on cancellation, or right away if already cancelled. */
+    void onCancel(Runnable listener) {
+        synchronized (this) {
+            if (!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+}
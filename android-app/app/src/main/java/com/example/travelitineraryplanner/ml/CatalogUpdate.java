@@ -0,0 +1,118 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+/**
+ * A catalog update in app storage (see ItineraryPlanner.applyCatalogUpdate), stamped with
+ * the content hash of the bundled catalog it was applied over.
+ *
+ * The update replaces the bundled catalog only while that catalog is unchanged. Once an
+ * app update ships a different bundled catalog the stamp no longer matches, and the old
+ * update is deleted instead of hiding the newer bundled data forever.
+ *
+ * Stamp layout (little endian): int magic, int version, long bundled content hash.
+ */
+public class CatalogUpdate {
+    public static final int MAGIC = 0x31425543; // "CUB1"
+    public static final int VERSION = 1;
+    private static final int STAMP_SIZE = 16;
+
+    private final File file;
+    private final File stamp;
+
+    public CatalogUpdate(File file) {
+        this.file = file;
+        this.stamp = new File(file.getParentFile(), file.getName() + ".base");
+    }
+
+    /**
+     * Maps the update if it was applied over the bundled catalog with {@code bundledHash}.
+     * Returns null if there is none; a stale, unstamped or unreadable update is deleted.
+     */
+    public PoiCatalog open(long bundledHash) {
+        if (!file.exists()) {
+            return null;
+        }
+        Long base = readStamp();
+        if (base == null || base != bundledHash) {
+            System.out.println("Discarding catalog update applied over another bundled catalog");
+            delete();
+            return null;
+        }
+        try {
+            return map();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Discarding unreadable catalog update: " + e.getMessage());
+            delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the built catalog and its stamp through temporary files, so a reader never
+     * maps a half-written update. The stamp goes first: if the catalog move fails, the
+     * previous update stays, stamped for the same bundled catalog.
+     */
+    public void write(PoiCatalogBuilder builder, long bundledHash) throws IOException {
+        file.getParentFile().mkdirs();
+        ByteBuffer header = ByteBuffer.allocate(STAMP_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(bundledHash);
+        File stampTemp = new File(stamp.getParentFile(), stamp.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(stampTemp)) {
+            out.write(header.array());
+        }
+        moveIntoPlace(stampTemp, stamp);
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            builder.writeTo(out);
+        }
+        moveIntoPlace(temp, file);
+    }
+
+    /** Maps the update that {@link #write} just put in place. */
+    public PoiCatalog map() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return PoiCatalog.fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public void delete() {
+        file.delete();
+        stamp.delete();
+    }
+
+    private Long readStamp() {
+        if (!stamp.exists()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(stamp.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() != STAMP_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            return buffer.getLong(8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void moveIntoPlace(File temp, File target) throws IOException {
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Could not move " + target.getName() + " into place");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prefix index for destination autocomplete: every city, state and alias the resolver
+ * knows plus every attraction name, so users only pick destinations that have POIs.
+ *
+ * Keys are normalized names (and each later word of multi-word names, so "mahal" finds
+ * "hawa mahal") in one sorted array; a prefix is a binary search for the first key plus
+ * a scan of the contiguous run that shares it, keeping the k heaviest entries on the way.
+ * Places weigh their POI count plus total popularity, attractions their popularity, so
+ * cities and states come first. Built once per catalog; queries take microseconds.
+ */
+public class DestinationIndex {
+
+    public static final int CITY = 0;
+    public static final int STATE = 1;
+    public static final int ATTRACTION = 2;
+
+    /**
+     * One autocomplete row: {@code text} is what the dropdown shows, {@code destination}
+     * what goes into the destination field (an attraction's destination is its city).
+     */
+    public static final class Suggestion {
+        public final String text;
+        public final String destination;
+        public final int kind;
+        public final float weight;
+
+        Suggestion(String text, String destination, int kind, float weight) {
+            this.text = text;
+            this.destination = destination;
+            this.kind = kind;
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    // Entries; group is a place ID, or -1 - poi for attractions, for de-duplication
+    private final List<Suggestion> entries = new ArrayList<>();
+    private final List<Integer> groups = new ArrayList<>();
+    // Sorted keys and the entry each one points to
+    private final String[] keys;
+    private final int[] keyEntries;
+
+    public DestinationIndex(PoiCatalog catalog, LocationResolver resolver) {
+        List<String> keyList = new ArrayList<>();
+        List<Integer> entryList = new ArrayList<>();
+
+        for (int c = 0; c < resolver.cityCount(); c++) {
+            LocationResolver.Place city = resolver.city(c);
+            if (city.referencePoi < 0) continue;
+            String state = catalog.state(city.referencePoi);
+            for (String key : resolver.keysOf(city)) {
+                int entry = addEntry(new Suggestion(key + ", " + state, key, CITY, placeWeight(catalog, city)), city.id);
+                addKeys(key, entry, keyList, entryList);
+            }
+        }
+        for (int s = 0; s < resolver.stateCount(); s++) {
+            LocationResolver.Place state = resolver.state(s);
+            if (state.referencePoi < 0) continue;
+            for (String key : resolver.keysOf(state)) {
+                int entry = addEntry(new Suggestion(key + " (state)", key, STATE, placeWeight(catalog, state)), state.id);
+                addKeys(key, entry, keyList, entryList);
+            }
+        }
+        for (int poi = 0; poi < catalog.size(); poi++) {
+            String name = LocationResolver.normalize(catalog.name(poi));
+            if (name.isEmpty()) continue;
+            String city = catalog.city(poi);
+            int entry = addEntry(new Suggestion(name + " — " + city, city, ATTRACTION, (float) catalog.popularity(poi)), -1 - poi);
+            addKeys(name, entry, keyList, entryList);
+        }
+
+        // Sort key positions by key, then lay keys and entries out in that order
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keyList.get(a).compareTo(keyList.get(b)));
+        keys = new String[order.length];
+        keyEntries = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            keyEntries[i] = entryList.get(order[i]);
+        }
+    }
+
+    private int addEntry(Suggestion suggestion, int group) {
+        entries.add(suggestion);
+        groups.add(group);
+        return entries.size() - 1;
+    }
+
+    // The full name plus the start of each later word
+    private static void addKeys(String name, int entry, List<String> keyList, List<Integer> entryList) {
+        keyList.add(name);
+        entryList.add(entry);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            keyList.add(name.substring(i + 1));
+            entryList.add(entry);
+        }
+    }
+
+    private static float placeWeight(PoiCatalog catalog, LocationResolver.Place place) {
+        float weight = place.poiCount();
+        for (int r = 0; r < place.poiRanges.length; r += 2) {
+            for (int poi = place.poiRanges[r]; poi < place.poiRanges[r + 1]; poi++) {
+                weight += (float) catalog.popularity(poi);
+            }
+        }
+        return weight;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Up to {@code k} suggestions whose name (or a word of it) starts with {@code prefix},
+     * heaviest first, one per place or attraction.
+     */
+    public List<Suggestion> complete(String prefix, int k) {
+        String key = LocationResolver.normalize(prefix);
+        List<Suggestion> top = new ArrayList<>(k);
+        if (key.isEmpty() || k <= 0) {
+            return top;
+        }
+        int[] topGroups = new int[k];
+        for (int i = lowerBound(key); i < keys.length && keys[i].startsWith(key); i++) {
+            int entry = keyEntries[i];
+            int group = groups.get(entry);
+            Suggestion candidate = entries.get(entry);
+            if (indexOf(topGroups, top.size(), group) >= 0) {
+                continue; // same place or attraction through another key
+            }
+            if (top.size() == k && candidate.weight <= top.get(k - 1).weight) {
+                continue;
+            }
+            // Insertion into the small sorted top-k; equal weights keep key order
+            int at = top.size();
+            while (at > 0 && top.get(at - 1).weight < candidate.weight) {
+                at--;
+            }
+            if (top.size() == k) {
+                top.remove(k - 1);
+            }
+            System.arraycopy(topGroups, at, topGroups, at + 1, top.size() - at);
+            topGroups[at] = group;
+            top.add(at, candidate);
+        }
+        return top;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pure-Java student of the TFLite model, exported by model/distill_scorer.py.
+ *
+ * Either a linear model or a gradient-boosted tree ensemble stored as flat arrays
+ * (one slot per node, children as indices), so evaluation is a handful of array reads
+ * per tree with no allocation and no JNI. Features are passed column-major
+ * ({@code columns[feature * rows + row]}), in the order of ItineraryPlanner's feature schema.
+ */
+public class DistilledScorer {
+    public static final int MAGIC = 0x31435344; // "DSC1"
+    public static final int VERSION = 1;
+    public static final int KIND_LINEAR = 0;
+    public static final int KIND_GBDT = 1;
+
+    private final int kind;
+    private final int featureCount;
+    private final float bias;
+    // Linear
+    private final float[] weights;
+    // GBDT
+    private final int[] roots;
+    private final int[] feature;
+    private final float[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final float[] value;
+
+    private DistilledScorer(int kind, int featureCount, float bias, float[] weights,
+                            int[] roots, int[] feature, float[] threshold, int[] left, int[] right, float[] value) {
+        this.kind = kind;
+        this.featureCount = featureCount;
+        this.bias = bias;
+        this.weights = weights;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    /**
+     * Parses the exported format. Throws IllegalArgumentException if the data is not a
+     * scorer, has the wrong version or contains out-of-range node links.
+     */
+    public static DistilledScorer fromBuffer(ByteBuffer source) {
+        ByteBuffer in = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        in.position(0);
+        if (in.remaining() < 20 || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a distilled scorer");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported distilled scorer version " + version);
+        }
+        int kind = in.getInt();
+        int featureCount = in.getInt();
+        float bias = in.getFloat();
+
+        if (kind == KIND_LINEAR) {
+            float[] weights = readFloats(in, featureCount);
+            return new DistilledScorer(kind, featureCount, bias, weights, null, null, null, null, null, null);
+        }
+        if (kind != KIND_GBDT) {
+            throw new IllegalArgumentException("Unknown distilled scorer kind " + kind);
+        }
+        int treeCount = in.getInt();
+        int nodeCount = in.getInt();
+        int[] roots = readInts(in, treeCount);
+        int[] feature = readInts(in, nodeCount);
+        float[] threshold = readFloats(in, nodeCount);
+        int[] left = readInts(in, nodeCount);
+        int[] right = readInts(in, nodeCount);
+        float[] value = readFloats(in, nodeCount);
+
+        // Validate links once so evaluation can skip bounds reasoning
+        for (int root : roots) {
+            if (root < 0 || root >= nodeCount) {
+                throw new IllegalArgumentException("Corrupt distilled scorer: bad tree root");
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            if (feature[n] >= featureCount
+                    || (feature[n] >= 0 && (left[n] <= n || left[n] >= nodeCount || right[n] <= n || right[n] >= nodeCount))) {
+                throw new IllegalArgumentException("Corrupt distilled scorer: bad node " + n);
+            }
+        }
+        return new DistilledScorer(kind, featureCount, bias, null, roots, feature, threshold, left, right, value);
+    }
+
+    private static int[] readInts(ByteBuffer in, int count) {
+        if (count < 0 || in.remaining() < count * 4) {
+            throw new IllegalArgumentException("Truncated distilled scorer");
+        }
+        int[] out = new int[count];
+        in.asIntBuffer().get(out);
+        in.position(in.position() + count * 4);
+        return out;
+    }
+
+    private static float[] readFloats(ByteBuffer in, int count) {
+        if (count < 0 || in.remaining() < count * 4) {
+            throw new IllegalArgumentException("Truncated distilled scorer");
+        }
+        float[] out = new float[count];
+        in.asFloatBuffer().get(out);
+        in.position(in.position() + count * 4);
+        return out;
+    }
+
+    public int featureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Scores {@code rows} rows from a column-major feature matrix into {@code out}.
+     */
+    public void score(float[] columns, int rows, float[] out) {
+        if (columns.length < featureCount * rows || out.length < rows) {
+            throw new IllegalArgumentException("Feature matrix too small for " + rows + " rows");
+        }
+        if (kind == KIND_LINEAR) {
+            for (int r = 0; r < rows; r++) {
+                out[r] = bias;
+            }
+            // Column at a time: each pass is a sequential read of one feature
+            for (int f = 0; f < featureCount; f++) {
+                float w = weights[f];
+                int base = f * rows;
+                for (int r = 0; r < rows; r++) {
+                    out[r] += w * columns[base + r];
+                }
+            }
+            return;
+        }
+
+        for (int r = 0; r < rows; r++) {
+            out[r] = bias;
+        }
+        // Tree at a time keeps one tree's nodes hot in cache across all rows
+        for (int root : roots) {
+            for (int r = 0; r < rows; r++) {
+                int node = root;
+                int f;
+                while ((f = feature[node]) >= 0) {
+                    node = columns[f * rows + r] <= threshold[node] ? left[node] : right[node];
+                }
+                out[r] += value[node];
+            }
+        }
+    }
+}
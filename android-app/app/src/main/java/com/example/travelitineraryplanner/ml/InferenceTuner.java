@@ -0,0 +1,297 @@
+package com.example.travelitineraryplanner.ml;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.os.Build;
+import org.tensorflow.lite.Interpreter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Picks the fastest interpreter setup for this device.
+ *
+ * Every bundled model variant is benchmarked across thread counts with XNNPACK on and
+ * off, at the batch sizes the planner produces. A setup is only eligible if its scores
+ * agree with the reference (float) model on a fixed reference set, so a faster variant
+ * can never silently change the itineraries. The winner is stored in SharedPreferences
+ * together with a stamp of the installed app build and OS build; when either changes,
+ * the stored choice is re-validated before it is trusted again.
+ */
+public class InferenceTuner {
+    private static final String PREFS_NAME = "inference_tuner";
+    private static final String KEY_MODEL = "model";
+    private static final String KEY_THREADS = "threads";
+    private static final String KEY_XNNPACK = "xnnpack";
+    private static final String KEY_STAMP = "stamp";
+    private static final String KEY_MICROS = "micros";
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4};
+    private static final int BENCH_RUNS = 5;
+
+    // Agreement with the reference model required for a setup to be eligible
+    private static final double MAX_MEAN_ABS_ERROR = 0.05;
+    private static final double MIN_TOP_K_OVERLAP = 0.8;
+    private static final int TOP_K = 10;
+
+    public interface ModelSource {
+        ByteBuffer map(String modelFile) throws IOException;
+    }
+
+    /**
+     * One interpreter setup. threads == 0 means the TFLite default.
+     */
+    public static class Config {
+        public final String modelFile;
+        public final int threads;
+        public final boolean xnnpack;
+
+        public Config(String modelFile, int threads, boolean xnnpack) {
+            this.modelFile = modelFile;
+            this.threads = threads;
+            this.xnnpack = xnnpack;
+        }
+
+        public Interpreter.Options toOptions() {
+            Interpreter.Options options = new Interpreter.Options();
+            if (threads > 0) {
+                options.setNumThreads(threads);
+            }
+            options.setUseXNNPACK(xnnpack);
+            return options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Config)) return false;
+            Config other = (Config) o;
+            return modelFile.equals(other.modelFile) && threads == other.threads && xnnpack == other.xnnpack;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modelFile, threads, xnnpack);
+        }
+
+        @Override
+        public String toString() {
+            return modelFile + " threads=" + (threads > 0 ? threads : "default") + " xnnpack=" + xnnpack;
+        }
+    }
+
+    private final Context context;
+    private final ModelSource models;
+    private final String referenceModel;
+    private final String[] variants;
+    private final Config defaultConfig;
+
+    /**
+     * @param referenceModel variant whose scores define "correct" (normally the float model)
+     * @param variants all bundled variants; the first one is the default before calibration
+     */
+    public InferenceTuner(Context context, ModelSource models, String referenceModel, String... variants) {
+        this.context = context;
+        this.models = models;
+        this.referenceModel = referenceModel;
+        this.variants = variants;
+        this.defaultConfig = new Config(variants[0], 0, true);
+    }
+
+    private SharedPreferences prefs() {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * The stored choice, or the default setup if nothing has been calibrated yet.
+     * Usable immediately at startup; see {@link #needsCalibration()}.
+     */
+    public Config storedConfig() {
+        SharedPreferences prefs = prefs();
+        String model = prefs.getString(KEY_MODEL, null);
+        if (model == null || !Arrays.asList(variants).contains(model)) {
+            return defaultConfig;
+        }
+        return new Config(model, prefs.getInt(KEY_THREADS, 0), prefs.getBoolean(KEY_XNNPACK, true));
+    }
+
+    /** True on first run, and after an app or OS update until the choice is re-validated. */
+    public boolean needsCalibration() {
+        return !buildStamp().equals(prefs().getString(KEY_STAMP, null));
+    }
+
+    /**
+     * Brings the stored choice up to date: re-validates it if one exists (after an
+     * update), otherwise runs the full calibration. Returns the setup to use.
+     */
+    public Config tune(float[][] referenceInputs, int[] batchSizes) {
+        boolean hasStored = prefs().getString(KEY_MODEL, null) != null;
+        Config stored = storedConfig();
+        if (hasStored && stored != defaultConfig) {
+            float[] reference = referenceScores(referenceInputs);
+            if (reference != null) {
+                long micros = benchmark(stored, referenceInputs, reference, batchSizes);
+                if (micros >= 0) {
+                    System.out.println("Inference setup still valid after update: " + stored + " (" + micros + "us)");
+                    persist(stored, micros);
+                    return stored;
+                }
+            }
+            System.out.println("Stored inference setup no longer valid, recalibrating");
+        }
+        return calibrate(referenceInputs, batchSizes);
+    }
+
+    /**
+     * Benchmarks every variant x thread count x XNNPACK setup and stores the fastest
+     * one that agrees with the reference model.
+     */
+    public Config calibrate(float[][] referenceInputs, int[] batchSizes) {
+        long start = System.nanoTime();
+        float[] reference = referenceScores(referenceInputs);
+        if (reference == null) {
+            System.out.println("Reference model unavailable, keeping default inference setup");
+            persist(defaultConfig, -1);
+            return defaultConfig;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        Config best = null;
+        long bestMicros = Long.MAX_VALUE;
+        for (String variant : variants) {
+            for (int threads : THREAD_COUNTS) {
+                if (threads > cores) continue;
+                for (boolean xnnpack : new boolean[] {true, false}) {
+                    Config config = new Config(variant, threads, xnnpack);
+                    long micros = benchmark(config, referenceInputs, reference, batchSizes);
+                    System.out.println("Calibration: " + config + " -> " + (micros >= 0 ? micros + "us" : "rejected"));
+                    if (micros >= 0 && micros < bestMicros) {
+                        best = config;
+                        bestMicros = micros;
+                    }
+                }
+            }
+        }
+        if (best == null) {
+            best = defaultConfig;
+            bestMicros = -1;
+        }
+        persist(best, bestMicros);
+        System.out.println("Inference calibration picked " + best + " in " +
+                         (System.nanoTime() - start) / 1_000_000 + "ms");
+        return best;
+    }
+
+    private float[] referenceScores(float[][] inputs) {
+        Interpreter interpreter = null;
+        try {
+            interpreter = new Interpreter(models.map(referenceModel), new Interpreter.Options());
+            return run(interpreter, inputs);
+        } catch (Exception e) {
+            System.out.println("Could not score reference set: " + e.getMessage());
+            return null;
+        } finally {
+            if (interpreter != null) {
+                interpreter.close();
+            }
+        }
+    }
+
+    /**
+     * Summed median latency in microseconds over the batch sizes, or -1 if the setup
+     * cannot be created or disagrees with the reference scores.
+     */
+    private long benchmark(Config config, float[][] referenceInputs, float[] reference, int[] batchSizes) {
+        Interpreter interpreter = null;
+        try {
+            interpreter = new Interpreter(models.map(config.modelFile), config.toOptions());
+            if (!agrees(run(interpreter, referenceInputs), reference)) {
+                return -1;
+            }
+            long total = 0;
+            long[] samples = new long[BENCH_RUNS];
+            for (int batch : batchSizes) {
+                float[][] input = new float[batch][];
+                for (int i = 0; i < batch; i++) {
+                    input[i] = referenceInputs[i % referenceInputs.length];
+                }
+                run(interpreter, input); // first run at a new size allocates tensors
+                for (int r = 0; r < BENCH_RUNS; r++) {
+                    long t = System.nanoTime();
+                    run(interpreter, input);
+                    samples[r] = (System.nanoTime() - t) / 1000;
+                }
+                Arrays.sort(samples);
+                total += samples[BENCH_RUNS / 2];
+            }
+            return total;
+        } catch (Exception e) {
+            return -1;
+        } finally {
+            if (interpreter != null) {
+                interpreter.close();
+            }
+        }
+    }
+
+    static boolean agrees(float[] scores, float[] reference) {
+        if (scores == null || scores.length != reference.length) {
+            return false;
+        }
+        double error = 0;
+        for (int i = 0; i < scores.length; i++) {
+            error += Math.abs(scores[i] - reference[i]);
+        }
+        if (error / scores.length > MAX_MEAN_ABS_ERROR) {
+            return false;
+        }
+        // Rankings drive the itinerary, so the top picks must largely match too
+        int k = Math.min(TOP_K, scores.length);
+        Set<Integer> referenceTop = new HashSet<>(topK(reference, k));
+        int overlap = 0;
+        for (int i : topK(scores, k)) {
+            if (referenceTop.contains(i)) overlap++;
+        }
+        return overlap >= Math.ceil(k * MIN_TOP_K_OVERLAP);
+    }
+
+    private static List<Integer> topK(float[] scores, int k) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) order.add(i);
+        order.sort((a, b) -> Float.compare(scores[b], scores[a]));
+        return order.subList(0, k);
+    }
+
+    /**
+     * Scores one batch of feature rows, in the input/output layout the planner uses.
+     */
+    static float[] run(Interpreter interpreter, float[][] features) {
+        float[][] output = new float[1][features.length];
+        interpreter.run(features, output);
+        return output[0];
+    }
+
+    private void persist(Config config, long micros) {
+        prefs().edit()
+                .putString(KEY_MODEL, config.modelFile)
+                .putInt(KEY_THREADS, config.threads)
+                .putBoolean(KEY_XNNPACK, config.xnnpack)
+                .putLong(KEY_MICROS, micros)
+                .putString(KEY_STAMP, buildStamp())
+                .apply();
+    }
+
+    /**
+     * Changes whenever the app is updated or reinstalled, or the OS is updated.
+     */
+    private String buildStamp() {
+        long installed = 0;
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            installed = info.lastUpdateTime;
+        } catch (Exception e) {
+            System.out.println("Could not read package info: " + e.getMessage());
+        }
+        return installed + "|" + Build.FINGERPRINT;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Small dependency graph for startup work.
+ *
+ * Each task is scheduled on the executor as soon as the tasks it depends on have
+ * finished, so independent loads run side by side and the total time approaches the
+ * longest dependency chain instead of the sum of all tasks. Dependencies must be
+ * declared before the task that needs them, which also rules out cycles.
+ */
+public class InitTaskGraph {
+
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public InitTaskGraph(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Adds a task that starts once every task in {@code dependsOn} has completed.
+     * If a dependency fails, this task is skipped and the failure propagates.
+     */
+    public InitTaskGraph task(String name, Task task, String... dependsOn) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate init task: " + name);
+        }
+        CompletableFuture<?>[] prerequisites = new CompletableFuture<?>[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            CompletableFuture<Void> dependency = tasks.get(dependsOn[i]);
+            if (dependency == null) {
+                throw new IllegalArgumentException("Init task " + name + " depends on undeclared task " + dependsOn[i]);
+            }
+            prerequisites[i] = dependency;
+        }
+
+        CompletableFuture<Void> gate = prerequisites.length == 0
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.allOf(prerequisites);
+        tasks.put(name, gate.thenRunAsync(() -> runTimed(name, task), executor));
+        return this;
+    }
+
+    private void runTimed(String name, Task task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            timings.put(name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Future for a single declared task, for callers that only need part of the graph.
+     */
+    public CompletableFuture<Void> future(String name) {
+        CompletableFuture<Void> task = tasks.get(name);
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown init task: " + name);
+        }
+        return task;
+    }
+
+    /**
+     * Completes when every task has finished; completes exceptionally if any task failed.
+     */
+    public CompletableFuture<Void> completion() {
+        return CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Wall-clock milliseconds spent in each finished task, in declaration order.
+     */
+    public Map<String, Long> timingsMillis() {
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        synchronized (timings) {
+            for (String name : tasks.keySet()) {
+                Long millis = timings.get(name);
+                if (millis != null) {
+                    ordered.put(name, millis);
+                }
+            }
+        }
+        return ordered;
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.travelitineraryplanner.ml;
 
+import android.app.ActivityManager;
 import android.content.Context;
+import android.os.PowerManager;
 import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
+import com.example.travelitineraryplanner.concurrent.AppScheduler;
+import com.example.travelitineraryplanner.ml.catalog.CsvCatalogReader;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
 import org.tensorflow.lite.Interpreter;
 import java.io.*;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import org.json.JSONObject;
-import org.json.JSONArray;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.zip.CRC32;
 
 /**
  * Advanced Itinerary Planner with ML model integration
@@ -26,23 +39,127 @@ public class ItineraryPlanner {
     private static final double DAILY_BUDGET_MODERATE = 2500.0;
     private static final double DAILY_BUDGET_HIGH = 5000.0;
     private static final double MAX_DISTANCE_KM = 200.0;
+    // Radius steps for coordinate scopes: the first one that holds enough POIs is used
+    private static final int[] SCOPE_RADII_KM = {10, 25, 50, 100};
+    private static final int[] NEARBY_RADII_KM = {10, 25, 50, 100, (int) MAX_DISTANCE_KM};
+    
+    // How long a plan request may wait for the model before it is served provisionally
+    private static final long MODEL_WAIT_BUDGET_MS = 150;
+    private static final int MAX_PENDING_UPGRADES = 8;
+    // Ranking components kept for reweight(), most recently used plans first
+    private static final int MAX_CACHED_RANKINGS = 4;
+    // Finished plans kept by canonical request, most recently used first
+    private static final int MAX_CACHED_RESULTS = 16;
+    // Coordinate requests share a plan within this grid (about 1 km)
+    private static final double ORIGIN_KEY_DEGREES = 0.01;
+    // Rows per interpreter call; planning holds the interpreter one chunk at a time
+    private static final int INFERENCE_CHUNK_ROWS = 64;
+    
+    // Cascade ranking: the model only re-ranks the top candidates of a cheap prefilter
+    private static final int CASCADE_SLOTS_PER_DAY = 6; // MAX_HOURS_PER_DAY of one-hour visits
+    private static final int CASCADE_MIN_RERANK = 32;
+    private static final int CASCADE_MAX_RERANK = 256;
+    // Replacement search: nearest POIs fetched around each anchor, per requested replacement
+    private static final int REPLACEMENT_CANDIDATES_PER_RESULT = 4;
+    private static final int MIN_REPLACEMENT_CANDIDATES = 16;
     
     // Asset file names
     private static final String MODEL_FILE = "itinerary_model_consistent_final_quant_dynamic.tflite";
-    private static final String ENCODERS_FILE = "encoders.json";
-    private static final String SCALER_FILE = "scaler.json";
+    // Unquantized variant: reference scores for calibration, and a candidate on devices where it is faster
+    private static final String MODEL_FILE_FLOAT = "itinerary_model_consistent_final.tflite";
+    // Encoders and scaler are compiled into ModelTables at build time (GenerateModelTablesTask)
+    // Optional: exported by model/distill_scorer.py
+    private static final String DISTILLED_FILE = "distilled_scorer.bin";
     private static final String POIS_FILE = "pois_for_app.csv";
+    // Compiled from POIS_FILE at build time (see CompilePoiCatalogTask)
+    private static final String CATALOG_FILE = "pois_for_app.poicat";
+    // Written to app storage by applyCatalogUpdate()
+    private static final String CATALOG_UPDATE_FILE = "pois_update.poicat";
+    // Written to app storage by buildScoreTable()
+    private static final String SCORE_TABLE_FILE = "score_table.bin";
     
     // Model and data
-    private Interpreter tflite;
+    private volatile Interpreter tflite;
+    // Guards every interpreter call and interpreter swap (an Interpreter is not thread-safe),
+    // and the chunk buffers below, which are leased with it
+    private final Object interpreterLock = new Object();
+    private final float[][] chunkInput = new float[INFERENCE_CHUNK_ROWS][];
+    private final float[][] chunkOutput = new float[1][INFERENCE_CHUNK_ROWS];
+    private final float[] paddingRow = new float[FEATURE_COUNT];
+    private InferenceTuner tuner;
+    private volatile InferenceTuner.Config inferenceConfig;
+    private volatile DistilledScorer distilledScorer;
+    // Model scores per (budget level, POI) for single-city scopes; null until loaded or built
+    private volatile ScoreTable scoreTable;
+    private volatile String hashedModelFile;
+    private volatile long modelHash;
+    // Low-RAM devices score with the distilled model, when the build ships one, and never
+    // load the interpreter
+    private volatile boolean preferDistilled;
+    private final Object distilledLock = new Object();
+    private boolean distilledAttempted; // guarded by distilledLock
     private Context context;
-    private Map<String, Integer> locationEncoder;
-    private Map<String, Integer> budgetEncoder;
-    private Map<String, Integer> costCategoryEncoder;
-    private Map<String, Integer> categoryEncoder;
-    private Map<String, Double> scaler;
-    private List<Poi> allPois;
-    private ExecutorService executor;
+    private volatile PoiCatalog catalog;
+    // Content hash of the bundled catalog (0 if it is missing); stamps catalog updates
+    private volatile long bundledCatalogHash;
+    // Canonical places of the current catalog; replaced together with it
+    private volatile LocationResolver resolver;
+    // Destination autocomplete over the same places and the catalog's attractions
+    private volatile DestinationIndex destinations;
+    // Nearest-neighbour index for replacements
+    private volatile SpatialIndex spatial;
+    // Full-text attraction search, built on first use and rebuilt from the previous
+    // index when the catalog changes
+    private final Object attractionLock = new Object();
+    private AttractionIndex attractions;
+    private volatile List<Poi> allPois;
+    // Init, plan runs, upgrades and background builds run on the app's PLANNING lane;
+    // planAsync() callers wait on the INTERACTIVE lane
+    private final AppScheduler scheduler = AppScheduler.get();
+    // Identical concurrent requests share one run
+    private final SingleFlight<String, ItineraryResult> planFlights =
+            new SingleFlight<>(scheduler.executor(AppScheduler.Lane.PLANNING, AppScheduler.Priority.HIGH));
+    // Cancelled by shutdown(); stops the background work the planner started on its own
+    private final CancellationToken lifetime = new CancellationToken();
+    private final CompletableFuture<Void> dataReady;
+    private final CompletableFuture<Void> modelReady;
+    private final CompletableFuture<ItineraryPlanner> ready;
+    private volatile long dataReadyMillis;
+    private volatile Map<String, Long> initTimings = Collections.emptyMap();
+    
+    // Upgrades for provisional plans, by ItineraryResult.upgradeId (oldest dropped first)
+    private final Map<Long, CompletableFuture<ItineraryResult>> pendingUpgrades =
+            new LinkedHashMap<Long, CompletableFuture<ItineraryResult>>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<ItineraryResult>> eldest) {
+                    return size() > MAX_PENDING_UPGRADES;
+                }
+            };
+    private final AtomicLong upgradeIds = new AtomicLong();
+    
+    // Ranking components of recent plans, by ItineraryResult.rankingId (access order)
+    private final Map<Long, RankingComponents> rankings =
+            new LinkedHashMap<Long, RankingComponents>(MAX_CACHED_RANKINGS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, RankingComponents> eldest) {
+                    return size() > MAX_CACHED_RANKINGS;
+                }
+            };
+    private final AtomicLong rankingIds = new AtomicLong();
+    
+    // Finished plans by requestKey() (access order); callers get copies
+    private final Map<String, ItineraryResult> results =
+            new LinkedHashMap<String, ItineraryResult>(MAX_CACHED_RESULTS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ItineraryResult> eldest) {
+                    return size() > MAX_CACHED_RESULTS;
+                }
+            };
+    
+    private volatile Warmup warmup;
+    private final AtomicBoolean firstPlanReported = new AtomicBoolean();
+    
+    private static ItineraryPlanner instance;
     
     // Feature schema for model input (documented order)
     // [0] estimated_visit_cost_inr (scaled)
@@ -55,36 +172,285 @@ public class ItineraryPlanner {
     // [7] popularity_score (normalized)
     private static final int FEATURE_COUNT = 8;
     
+    /**
+     * Shared planner for the whole app, so the model and catalog are loaded once
+     * and provisional plans can be upgraded after the caller has moved on.
+     */
+    public static synchronized ItineraryPlanner getInstance(Context context) {
+        if (instance == null) {
+            instance = new ItineraryPlanner(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
     public ItineraryPlanner(Context context) {
-        try {
-            this.context = context;
-            executor = Executors.newFixedThreadPool(4);
-            System.out.println("Starting ItineraryPlanner initialization...");
-            
-            loadModel(context);
-            loadEncoders(context);
-            loadScaler(context);
-            loadPois(context);
+        this.context = context;
+        System.out.println("Starting ItineraryPlanner initialization...");
+        long initStart = System.nanoTime();
+        
+        // The model and the catalog load side by side; encoders and scaler are
+        // compile-time constants (ModelTables), so there is nothing to parse.
+        InitTaskGraph graph = new InitTaskGraph(planning(AppScheduler.Priority.HIGH))
+                .task("distilled", () -> loadDistilledScorer(context))
+                .task("model", () -> loadModel(context))
+                .task("catalog", () -> loadCatalog(context))
+                // Calibration scores real catalog features, so it needs everything else first
+                .task("tuning", this::tuneInference, "model", "catalog")
+                // If tuning then switches models, the table stops matching and is rebuilt after init
+                .task("scoreTable", this::loadScoreTable, "model", "catalog");
+        
+        // Planning only needs the data; the model is waited on separately (see planItinerary)
+        dataReady = CompletableFuture.allOf(graph.future("catalog"), graph.future("distilled"))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        System.out.println("Error initializing ItineraryPlanner: " + error.getMessage());
+                        error.printStackTrace();
+                        // Fill in defaults for whatever did not load
+                        initializeMissingDefaults();
+                    }
+                    dataReadyMillis = (System.nanoTime() - initStart) / 1_000_000;
+                    return null;
+                });
+        // loadModel() handles its own failures and leaves tflite null
+        modelReady = graph.future("model").handle((ignored, error) -> null);
+        
+        CompletableFuture<Void> tuned = graph.future("tuning").handle((ignored, error) -> {
+            if (error != null) {
+                System.out.println("Inference tuning failed, keeping current setup: " + error.getMessage());
+            }
+            return null;
+        });
+        
+        CompletableFuture<Void> tableLoaded = graph.future("scoreTable").handle((ignored, error) -> null);
+        
+        ready = CompletableFuture.allOf(dataReady, modelReady, tuned, tableLoaded).thenApply(ignored -> {
+            Map<String, Long> timings = graph.timingsMillis();
+            timings.put("ready", dataReadyMillis);
+            initTimings = Collections.unmodifiableMap(timings);
             
-            System.out.println("ItineraryPlanner initialized successfully");
+            System.out.println("ItineraryPlanner initialized successfully " + initTimings);
             System.out.println("Total POIs loaded: " + (allPois != null ? allPois.size() : 0));
             System.out.println("Model loaded: " + (tflite != null ? "Yes" : "No"));
-        } catch (Exception e) {
-            System.out.println("Error initializing ItineraryPlanner: " + e.getMessage());
-            e.printStackTrace();
-            // Initialize with defaults
-            this.context = context;
-            executor = Executors.newFixedThreadPool(4);
-            locationEncoder = new HashMap<>();
-            budgetEncoder = new HashMap<>();
-            costCategoryEncoder = new HashMap<>();
-            categoryEncoder = new HashMap<>();
-            scaler = new HashMap<>();
-            allPois = new ArrayList<>();
+            return this;
+        });
+        
+        // First launch after an install or update: precompute the score table in the background
+        ready.thenRunAsync(this::refreshScoreTable, planning(AppScheduler.Priority.LOW));
+    }
+    
+    /**
+     * Completes once every init task, including the model, has finished (successfully
+     * or with fallbacks). Planning does not need this; it is for warming up early.
+     */
+    public CompletableFuture<ItineraryPlanner> whenReady() {
+        return ready;
+    }
+    
+    /**
+     * Milliseconds spent in each init task, plus "ready" for the time until the
+     * planner could serve plans. Empty until initialization has finished.
+     */
+    public Map<String, Long> getInitTimings() {
+        return initTimings;
+    }
+    
+    /**
+     * Handle for a background warm-up started with {@link #warmUp()}.
+     */
+    public static class Warmup {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        // Passed to the warm-up's interpreter runs and plans, so cancel() also stops those
+        private final CancellationToken token = new CancellationToken();
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private volatile long savedMillis;
+        
+        /**
+         * Stops the warm-up, including an interpreter batch or plan that is already
+         * running, at its next cancellation check.
+         */
+        public void cancel() {
+            cancelled.set(true);
+            token.cancel();
+        }
+        
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+        
+        /**
+         * Completes with the estimated cold-start milliseconds the warm-up absorbed
+         * (0 if it was skipped or cancelled before doing anything).
+         */
+        public CompletableFuture<Long> whenDone() {
+            return done;
+        }
+        
+        public long getSavedMillis() {
+            return savedMillis;
+        }
+    }
+    
+    /**
+     * Pays the first-request costs in the background: waits for the engine to load, runs
+     * dummy batches through the interpreter at the batch sizes this catalog produces and
+     * plans the largest city twice (cold, then warm) so selection, scoring and packing are
+     * JIT-compiled. shutdown() cancels it like {@link Warmup#cancel()}.
+     * Skipped while battery saver is on, and stops early if it turns on midway.
+     */
+    public Warmup warmUp() {
+        Warmup handle = new Warmup();
+        warmup = handle;
+        lifetime.onCancel(handle::cancel);
+        if (isPowerSaveMode()) {
+            System.out.println("Battery saver on, skipping planner warm-up");
+            handle.done.complete(0L);
+            return handle;
+        }
+        ready.thenRunAsync(() -> runWarmup(handle), planning(AppScheduler.Priority.LOW))
+                .whenComplete((ignored, error) -> {
+                    if (error != null && handle.isCancelled()) {
+                        System.out.println("Planner warm-up cancelled mid-step");
+                    } else if (error != null) {
+                        System.out.println("Planner warm-up failed: " + error.getMessage());
+                    }
+                    handle.done.complete(handle.savedMillis);
+                });
+        return handle;
+    }
+    
+    private void runWarmup(Warmup handle) {
+        long start = System.nanoTime();
+        
+        // Step 1: interpreter - tensor allocation for each batch size happens on the first run
+        if (tflite != null) {
+            for (int batch : typicalBatchSizes()) {
+                if (shouldStopWarmup(handle)) return;
+                float[][] input = new float[batch][FEATURE_COUNT];
+                long cold = timeMillis(() -> runModel(input, handle.token));
+                long warm = timeMillis(() -> runModel(input, handle.token));
+                handle.savedMillis += Math.max(0, cold - warm);
+            }
+        }
+        
+        // Step 2: the planning pipeline on the largest city, twice (cold, then warm)
+        if (shouldStopWarmup(handle) || catalog == null || catalog.cityCount() == 0) return;
+        int largest = 0;
+        for (int city = 1; city < catalog.cityCount(); city++) {
+            if (catalog.cityPoiEnd(city) - catalog.cityPoiStart(city)
+                    > catalog.cityPoiEnd(largest) - catalog.cityPoiStart(largest)) {
+                largest = city;
+            }
+        }
+        String city = catalog.cityName(largest);
+        long cold = timeMillis(() -> buildPlan(city, null, 2, "MODERATE", tflite != null, handle.token));
+        if (shouldStopWarmup(handle)) return;
+        long warm = timeMillis(() -> buildPlan(city, null, 2, "MODERATE", tflite != null, handle.token));
+        handle.savedMillis += Math.max(0, cold - warm);
+        
+        System.out.println("Planner warm-up finished in " + (System.nanoTime() - start) / 1_000_000 +
+                         "ms, absorbed ~" + handle.savedMillis + "ms of cold-start cost");
+    }
+    
+    private boolean shouldStopWarmup(Warmup handle) {
+        if (handle.isCancelled()) {
+            System.out.println("Planner warm-up cancelled");
+            return true;
+        }
+        if (isPowerSaveMode()) {
+            System.out.println("Battery saver turned on, stopping planner warm-up");
+            return true;
+        }
+        return false;
+    }
+    
+    private boolean isPowerSaveMode() {
+        if (context == null) {
+            return false;
+        }
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+    
+    private static long timeMillis(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+    
+    private void awaitData() {
+        dataReady.join();
+    }
+    
+    /**
+     * Waits at most {@code budgetMs} for the model load to finish.
+     */
+    private boolean awaitModel(long budgetMs) {
+        try {
+            modelReady.get(budgetMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true; // not reachable, modelReady never fails
+        }
+    }
+    
+    private void initializeMissingDefaults() {
+        if (allPois == null) {
+            createDefaultPois();
+        }
+    }
+    
+    // Once, from the "distilled" task or from loadModel() on a low-RAM device, whichever
+    // gets here first
+    private void loadDistilledScorer(Context context) {
+        synchronized (distilledLock) {
+            if (distilledAttempted) {
+                return;
+            }
+            distilledAttempted = true;
+            try {
+                DistilledScorer scorer = DistilledScorer.fromBuffer(mapAsset(context, DISTILLED_FILE));
+                if (scorer.featureCount() != FEATURE_COUNT) {
+                    System.out.println("Ignoring distilled scorer with " + scorer.featureCount() + " features");
+                    return;
+                }
+                distilledScorer = scorer;
+                System.out.println("Loaded distilled scorer");
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Distilled scorer unavailable: " + e.getMessage());
+            }
         }
     }
     
     private void loadModel(Context context) {
+        // Only low-RAM devices look at the distilled scorer first; elsewhere the model maps
+        // without waiting on an asset that most builds do not ship
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.isLowRamDevice()) {
+            loadDistilledScorer(context);
+            preferDistilled = distilledScorer != null;
+            if (preferDistilled) {
+                System.out.println("Skipping TensorFlow Lite model, using distilled scorer on this low-RAM device");
+                return;
+            }
+        }
+        tuner = new InferenceTuner(context, file -> mapAsset(context, file),
+                MODEL_FILE_FLOAT, MODEL_FILE, MODEL_FILE_FLOAT);
+        // Start with the last calibrated setup; the tuning task re-checks it if needed
+        try {
+            InferenceTuner.Config config = tuner.storedConfig();
+            tflite = new Interpreter(mapAsset(context, config.modelFile), config.toOptions());
+            inferenceConfig = config;
+            System.out.println("Successfully loaded TensorFlow Lite model (" + config + ")");
+            return;
+        } catch (Exception e) {
+            System.out.println("Could not load tuned model setup: " + e.getMessage());
+        }
+        
         try {
             tflite = new Interpreter(loadModelFile(context));
             System.out.println("Successfully loaded TensorFlow Lite model");
@@ -95,320 +461,727 @@ public class ItineraryPlanner {
         }
     }
     
-    private MappedByteBuffer loadModelFile(Context context) throws IOException {
+    /**
+     * First run (or first run after an update): benchmark the bundled model variants on
+     * this device and switch to the fastest setup that agrees with the reference model.
+     */
+    private void tuneInference() {
+        if (tflite == null || tuner == null || !tuner.needsCalibration()) {
+            return;
+        }
+        InferenceTuner.Config chosen = tuner.tune(referenceFeatures(), typicalBatchSizes());
+        if (chosen.equals(inferenceConfig)) {
+            return;
+        }
         try {
-            AssetFileDescriptor fileDescriptor = context.getAssets().openFd(MODEL_FILE);
-            FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
-            FileChannel fileChannel = inputStream.getChannel();
-            long startOffset = fileDescriptor.getStartOffset();
-            long declaredLength = fileDescriptor.getDeclaredLength();
-            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
-            inputStream.close();
-            fileDescriptor.close();
-            return buffer;
-        } catch (IOException e) {
-            System.out.println("Error loading model file: " + e.getMessage());
-            throw e;
+            Interpreter tuned = new Interpreter(mapAsset(context, chosen.modelFile), chosen.toOptions());
+            synchronized (interpreterLock) {
+                Interpreter old = tflite;
+                tflite = tuned;
+                inferenceConfig = chosen;
+                if (old != null) {
+                    old.close();
+                }
+            }
+            System.out.println("Switched inference setup to " + chosen);
+        } catch (Exception e) {
+            System.out.println("Could not switch inference setup to " + chosen + ": " + e.getMessage());
         }
     }
     
-    private String loadAssetAsString(Context context, String filename) throws IOException {
-        AssetManager assetManager = context.getAssets();
-        InputStream is = assetManager.open(filename);
-        int size = is.available();
-        byte[] buffer = new byte[size];
-        is.read(buffer);
-        is.close();
-        return new String(buffer, "UTF-8");
+    private File scoreTableFile() {
+        return new File(new File(context.getFilesDir(), "scores"), SCORE_TABLE_FILE);
     }
     
-    private void loadEncoders(Context context) throws IOException {
+    /**
+     * Hash of the model file the interpreter was created from; the score table is only
+     * valid for exactly that model.
+     */
+    private long currentModelHash() throws IOException {
+        InferenceTuner.Config config = inferenceConfig;
+        String file = config != null ? config.modelFile : MODEL_FILE;
+        if (!file.equals(hashedModelFile)) {
+            CRC32 crc = new CRC32();
+            MappedByteBuffer model = mapAsset(context, file);
+            long length = model.remaining();
+            crc.update(model);
+            modelHash = (crc.getValue() << 32) ^ length;
+            hashedModelFile = file;
+        }
+        return modelHash;
+    }
+    
+    private void loadScoreTable() throws IOException {
+        if (tflite == null || resolver == null || context == null) {
+            return;
+        }
+        scoreTable = ScoreTable.open(scoreTableFile(), currentModelHash(), resolver.contentHash(),
+                                     ModelTables.BudgetEncoder.SIZE);
+        if (scoreTable != null) {
+            System.out.println("Mapped precomputed score table for " + scoreTable.poiCount() + " POIs");
+        }
+    }
+    
+    /**
+     * Computes the score table if there is none for the current model and catalog:
+     * every catalog POI at every budget level, measured from the reference point of its
+     * canonical city. Runs once per install, model change or catalog update.
+     */
+    private void refreshScoreTable() {
+        LocationResolver places = resolver;
+        PoiCatalog source = catalog;
+        if (tflite == null || places == null || context == null || places.cityCount() == 0) {
+            return;
+        }
         try {
-            String json = loadAssetAsString(context, ENCODERS_FILE);
-            JSONObject encoders = new JSONObject(json);
-            
-            // Load location encoder
-            locationEncoder = new HashMap<>();
-            JSONArray cityClasses = encoders.getJSONObject("le_city").getJSONArray("classes");
-            for (int i = 0; i < cityClasses.length(); i++) {
-                locationEncoder.put(cityClasses.getString(i), i);
+            long hash = currentModelHash();
+            ScoreTable current = scoreTable;
+            if (current != null && current.modelHash() == hash && current.catalogHash() == places.contentHash()) {
+                return;
             }
-            
-            // Load budget encoder
-            budgetEncoder = new HashMap<>();
-            JSONArray budgetClasses = encoders.getJSONObject("le_budget").getJSONArray("classes");
-            for (int i = 0; i < budgetClasses.length(); i++) {
-                budgetEncoder.put(budgetClasses.getString(i), i);
+            if (isPowerSaveMode()) {
+                System.out.println("Battery saver is on, postponing score table");
+                return;
             }
             
-            // Load cost category encoder
-            costCategoryEncoder = new HashMap<>();
-            JSONArray costCatClasses = encoders.getJSONObject("le_costcat").getJSONArray("classes");
-            for (int i = 0; i < costCatClasses.length(); i++) {
-                costCategoryEncoder.put(costCatClasses.getString(i), i);
+            long start = System.nanoTime();
+            // Cancelled on shutdown; user plans interleave with it chunk by chunk
+            CancellationToken building = lifetime;
+            List<Poi> pois = allPois;
+            int budgets = ModelTables.BudgetEncoder.SIZE;
+            int n = source.size();
+            float[] scores = new float[budgets * n];
+            for (int c = 0; c < places.cityCount(); c++) {
+                LocationResolver.Place city = places.city(c);
+                if (city.referencePoi < 0) continue;
+                Poi reference = pois.get(city.referencePoi);
+                for (int r = 0; r < city.poiRanges.length; r += 2) {
+                    int first = city.poiRanges[r];
+                    List<Poi> rangePois = pois.subList(first, city.poiRanges[r + 1]);
+                    double[] distances = distancesFrom(reference, rangePois);
+                    for (int budget = 0; budget < budgets; budget++) {
+                        String label = ModelTables.BudgetEncoder.label(budget);
+                        float[][] features = new float[rangePois.size()][];
+                        for (int i = 0; i < features.length; i++) {
+                            features[i] = prepareFeatureVector(rangePois.get(i), distances[i], label);
+                        }
+                        float[] out = runModel(features, building);
+                        if (out == null || catalog != source) {
+                            return; // interpreter closed or catalog replaced
+                        }
+                        System.arraycopy(out, 0, scores, budget * n + first, out.length);
+                    }
+                }
             }
             
-            // Load category encoder
-            categoryEncoder = new HashMap<>();
-            JSONArray catClasses = encoders.getJSONObject("le_cat").getJSONArray("classes");
-            for (int i = 0; i < catClasses.length(); i++) {
-                categoryEncoder.put(catClasses.getString(i), i);
+            ScoreTable table = ScoreTable.of(hash, places.contentHash(), budgets, n, scores);
+            table.writeTo(scoreTableFile());
+            scoreTable = table;
+            System.out.println("Precomputed score table for " + n + " POIs x " + budgets + " budgets in " +
+                             (System.nanoTime() - start) / 1_000_000 + "ms");
+        } catch (CancellationException e) {
+            System.out.println("Score table build cancelled");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not precompute score table: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Model scores for the candidates from the score table, or null unless the table is
+     * current and every candidate lies in the canonical city the location resolves to
+     * (so the table's reference point is the plan's reference point).
+     */
+    private float[] lookupScoreTable(List<Poi> candidates, LocationResolver.Resolution where, String budget) {
+        ScoreTable table = scoreTable;
+        LocationResolver places = resolver;
+        InferenceTuner.Config config = inferenceConfig;
+        String modelFile = config != null ? config.modelFile : MODEL_FILE;
+        if (table == null || places == null || where == null || where.city == null
+                || table.catalogHash() != places.contentHash()
+                || !modelFile.equals(hashedModelFile) || table.modelHash() != modelHash) {
+            return null;
+        }
+        int budgetIndex = encoded(ModelTables.BudgetEncoder.indexOf(budget.toLowerCase()));
+        float[] scores = new float[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            int poi = candidates.get(i).catalogIndex;
+            if (poi < 0 || poi >= table.poiCount() || places.cityIdOf(poi) != where.city.id) {
+                return null;
             }
-            
-            System.out.println("Successfully loaded encoders: " + 
-                              "locations=" + locationEncoder.size() + 
-                              ", budgets=" + budgetEncoder.size() + 
-                              ", categories=" + categoryEncoder.size());
-                              
-        } catch (org.json.JSONException e) {
-            System.out.println("Error loading encoders: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Initialize with default values instead of throwing exception
-            initializeDefaultEncoders();
+            scores[i] = table.score(budgetIndex, poi);
+        }
+        return scores;
+    }
+    
+    /**
+     * Feature rows for an even sample of the catalog, used as the calibration reference set.
+     */
+    private float[][] referenceFeatures() {
+        String[] budgets = {"LOW", "MODERATE", "HIGH"};
+        int count = Math.min(64, allPois.size());
+        float[][] features = new float[count][];
+        for (int i = 0; i < count; i++) {
+            Poi poi = allPois.get((int) ((long) i * allPois.size() / count));
+            double distance = distancesFrom(referencePoi(resolver.resolve(poi.city)), Collections.singletonList(poi))[0];
+            features[i] = prepareFeatureVector(poi, distance, budgets[i % budgets.length]);
+        }
+        return features;
+    }
+    
+    /**
+     * Batch sizes the interpreter runs at: runModel() always feeds it one padded chunk.
+     */
+    private int[] typicalBatchSizes() {
+        return new int[] {INFERENCE_CHUNK_ROWS};
+    }
+    
+    /**
+     * Runs the model on feature rows; null if no interpreter is loaded.
+     *
+     * Rows go through the interpreter INFERENCE_CHUNK_ROWS at a time, always at that shape
+     * (the last chunk is padded), so tensors are allocated once. The interpreter and the
+     * chunk buffers are leased per chunk and the token is checked between chunks: a
+     * cancelled run lets go within one chunk, and concurrent plans interleave instead of
+     * queueing behind a whole batch.
+     */
+    private float[] runModel(float[][] features, CancellationToken cancel) {
+        float[] scores = new float[features.length];
+        for (int from = 0; from < features.length; from += INFERENCE_CHUNK_ROWS) {
+            cancel.throwIfCancelled();
+            int rows = Math.min(INFERENCE_CHUNK_ROWS, features.length - from);
+            synchronized (interpreterLock) {
+                Interpreter interpreter = tflite;
+                if (interpreter == null) {
+                    return null;
+                }
+                System.arraycopy(features, from, chunkInput, 0, rows);
+                Arrays.fill(chunkInput, rows, INFERENCE_CHUNK_ROWS, paddingRow);
+                interpreter.run(chunkInput, chunkOutput);
+                System.arraycopy(chunkOutput[0], 0, scores, from, rows);
+                Arrays.fill(chunkInput, null); // do not keep the caller's rows alive
+            }
+        }
+        return scores;
+    }
+    
+    private MappedByteBuffer loadModelFile(Context context) throws IOException {
+        try {
+            return mapAsset(context, MODEL_FILE);
         } catch (IOException e) {
-            System.out.println("Error reading encoder file: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Initialize with default values
-            initializeDefaultEncoders();
-        }
-    }
-    
-    private void initializeDefaultEncoders() {
-        // Default location encoder with common Indian cities
-        locationEncoder = new HashMap<>();
-        locationEncoder.put("Delhi", 0);
-        locationEncoder.put("Mumbai", 1);
-        locationEncoder.put("Bangalore", 2);
-        locationEncoder.put("Chennai", 3);
-        locationEncoder.put("Kolkata", 4);
-        locationEncoder.put("Hyderabad", 5);
-        locationEncoder.put("Jaipur", 6);
-        locationEncoder.put("Agra", 7);
-        locationEncoder.put("Goa", 8);
-        
-        // Default budget encoder
-        budgetEncoder = new HashMap<>();
-        budgetEncoder.put("LOW", 0);
-        budgetEncoder.put("MODERATE", 1);
-        budgetEncoder.put("HIGH", 2);
-        
-        // Default cost category encoder
-        costCategoryEncoder = new HashMap<>();
-        costCategoryEncoder.put("FREE", 0);
-        costCategoryEncoder.put("BUDGET", 1);
-        costCategoryEncoder.put("MODERATE", 2);
-        costCategoryEncoder.put("LUXURY", 3);
-        
-        // Default category encoder
-        categoryEncoder = new HashMap<>();
-        categoryEncoder.put("Historical", 0);
-        categoryEncoder.put("Religious", 1);
-        categoryEncoder.put("Museum", 2);
-        categoryEncoder.put("Park", 3);
-        categoryEncoder.put("Beach", 4);
-        categoryEncoder.put("Monument", 5);
-        categoryEncoder.put("Market", 6);
-        
-        System.out.println("Initialized default encoders as fallback");
-    }
-    
-    private void loadScaler(Context context) throws IOException {
+            System.out.println("Error loading model file: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Memory-maps an uncompressed asset (see noCompress in build.gradle.kts)
+     */
+    private MappedByteBuffer mapAsset(Context context, String filename) throws IOException {
+        AssetFileDescriptor fileDescriptor = context.getAssets().openFd(filename);
+        FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
+        FileChannel fileChannel = inputStream.getChannel();
+        long startOffset = fileDescriptor.getStartOffset();
+        long declaredLength = fileDescriptor.getDeclaredLength();
+        MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+        inputStream.close();
+        fileDescriptor.close();
+        return buffer;
+    }
+    
+    /**
+     * Maps the compiled catalog, or a catalog update applied over this version of it; falls
+     * back to parsing the CSV if the compiled catalog is missing or stale
+     */
+    private void loadCatalog(Context context) throws IOException {
+        PoiCatalog bundled = null;
         try {
-            String json = loadAssetAsString(context, SCALER_FILE);
-            JSONObject scalerData = new JSONObject(json);
-            
-            scaler = new HashMap<>();
-            JSONArray means = scalerData.getJSONArray("mean");
-            JSONArray scales = scalerData.getJSONArray("scale");
-            JSONArray cols = scalerData.getJSONArray("cols");
+            bundled = PoiCatalog.fromBuffer(mapAsset(context, CATALOG_FILE));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Compiled POI catalog unavailable (" + e.getMessage() + ")");
+        }
+        bundledCatalogHash = bundled != null ? bundled.contentHash() : 0;
+        
+        // A catalog update applied over this bundled catalog takes precedence over it
+        PoiCatalog updated = catalogUpdate(context).open(bundledCatalogHash);
+        if (updated != null) {
+            setCatalog(updated);
+            System.out.println("Mapped updated POI catalog: " + catalog.size() + " POIs");
+            return;
+        }
+        
+        if (bundled != null) {
+            setCatalog(bundled);
+            System.out.println("Mapped compiled POI catalog: " + catalog.size() + " POIs");
+        } else {
+            System.out.println("Parsing " + POIS_FILE);
+            loadPois(context);
+        }
+    }
+    
+    private synchronized void setCatalog(PoiCatalog catalog) {
+        LocationResolver resolver = new LocationResolver(catalog);
+        this.destinations = new DestinationIndex(catalog, resolver);
+        this.spatial = new SpatialIndex(catalog);
+        this.resolver = resolver;
+        this.catalog = catalog;
+        this.allPois = new CatalogPoiList(catalog);
+    }
+    
+    private CatalogUpdate catalogUpdate(Context context) {
+        return new CatalogUpdate(new File(new File(context.getFilesDir(), "catalog"), CATALOG_UPDATE_FILE));
+    }
+    
+    /**
+     * Streams a CSV in the pois_for_app.csv schema into a catalog builder
+     */
+    private CsvCatalogReader newCsvReader(PoiCatalogBuilder builder) {
+        return new CsvCatalogReader(builder)
+                .scaleCost(ModelTables.ESTIMATED_VISIT_COST_INR_MEAN, ModelTables.ESTIMATED_VISIT_COST_INR_SCALE)
+                .scaleTime(ModelTables.TIME_HOURS_MEAN, ModelTables.TIME_HOURS_SCALE);
+    }
+    
+    private void loadPois(Context context) throws IOException {
+        try (InputStream in = context.getAssets().open(POIS_FILE)) {
+            PoiCatalogBuilder builder = new PoiCatalogBuilder();
+            CsvCatalogReader reader = newCsvReader(builder);
+            reader.read(in);
             
-            for (int i = 0; i < cols.length(); i++) {
-                String col = cols.getString(i);
-                scaler.put(col + "_mean", means.getDouble(i));
-                scaler.put(col + "_scale", scales.getDouble(i));
-            }
+            setCatalog(builder.buildCatalog());
+            System.out.println("Successfully loaded " + allPois.size() + " POIs (" + reader.rowsSkipped() + " rows skipped)");
             
-            System.out.println("Successfully loaded scaler data");
-        } catch (org.json.JSONException e) {
-            System.out.println("Error loading scaler: " + e.getMessage());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error loading POIs file: " + e.getMessage());
             e.printStackTrace();
             
-            // Initialize with default values instead of throwing exception
-            initializeDefaultScaler();
-        } catch (IOException e) {
-            System.out.println("Error reading scaler file: " + e.getMessage());
-            e.printStackTrace();
+            // Create some default POIs as fallback
+            createDefaultPois();
+        }
+    }
+    
+    /**
+     * Replaces the POI catalog with a downloaded or user-imported CSV (same schema as
+     * pois_for_app.csv). The CSV is streamed into a compiled catalog, persisted to app
+     * storage and memory-mapped, so later launches skip the parse entirely.
+     *
+     * @return number of POIs in the new catalog, or -1 if the update was rejected
+     */
+    public int applyCatalogUpdate(InputStream csv) {
+        if (context == null) {
+            return -1;
+        }
+        awaitData();
+        CatalogUpdate update = catalogUpdate(context);
+        try {
+            PoiCatalogBuilder builder = new PoiCatalogBuilder();
+            CsvCatalogReader reader = newCsvReader(builder);
+            reader.read(csv);
+            if (builder.size() == 0) {
+                System.out.println("Catalog update contained no usable rows, keeping current catalog");
+                return -1;
+            }
             
-            // Initialize with default values
-            initializeDefaultScaler();
+            // Stamped with the bundled catalog, so an app update with newer bundled data wins
+            update.write(builder, bundledCatalogHash);
+            setCatalog(update.map());
+            System.out.println("Applied catalog update: " + builder.size() + " POIs, " +
+                             reader.rowsSkipped() + " rows skipped");
+            // The score table no longer matches the catalog
+            scheduler.run(AppScheduler.Lane.PLANNING, AppScheduler.Priority.LOW, this::refreshScoreTable);
+            // Neither does attraction search, if it has been used; unchanged rows are reused
+            PoiCatalog updated = catalog;
+            scheduler.run(AppScheduler.Lane.PLANNING, AppScheduler.Priority.LOW,
+                          () -> attractionIndex(updated, false));
+            return builder.size();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error applying catalog update: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private void createDefaultPois() {
+        System.out.println("Creating default POIs as fallback");
+        
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        
+        // Create a few default POIs for major cities
+        String[] cities = {"Delhi", "Mumbai", "Bangalore", "Chennai", "Kolkata", "Hyderabad"};
+        String[] categories = {"Historical", "Religious", "Museum", "Park", "Monument"};
+        
+        for (String city : cities) {
+            for (int i = 0; i < 3; i++) {
+                builder.addPoi(city, "Default",
+                        "Popular Attraction " + (i+1) + " in " + city,
+                        categories[i % categories.length],
+                        "A popular attraction in " + city,
+                        "MODERATE",
+                        0.0, 0.0,
+                        500 + (i * 200),
+                        1.5 + (i * 0.5),
+                        0.8);
+            }
+        }
+        
+        // Add some specific landmark POIs
+        builder.addPoi("Agra", "Uttar Pradesh", "Taj Mahal", "Monument", "", "MODERATE",
+                27.1751, 78.0421, 1100.0, 3.0, 0.95);
+        builder.addPoi("Delhi", "Delhi", "Qutub Minar", "Monument", "", "BUDGET",
+                28.5245, 77.1855, 600.0, 2.0, 0.9);
+        builder.addPoi("Mumbai", "Maharashtra", "Gateway of India", "Monument", "", "FREE",
+                18.9220, 72.8347, 0.0, 1.0, 0.9);
+        
+        setCatalog(builder.buildCatalog());
+        System.out.println("Created " + allPois.size() + " default POIs");
+    }
+    
+    /**
+     * Destination autocomplete: up to {@code k} cities, states and attractions matching the
+     * typed prefix, best first. Empty until the catalog has loaded. Cheap enough to call
+     * per keystroke.
+     */
+    public List<DestinationIndex.Suggestion> suggestDestinations(String prefix, int k) {
+        DestinationIndex index = destinations;
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        return index.complete(prefix, k);
+    }
+
+    /**
+     * Full-text search over attraction names, categories, descriptions, cities and states,
+     * for adding a specific attraction to a trip. Returns up to {@code k} standalone POIs,
+     * best match first; empty until the catalog has loaded.
+     */
+    public List<Poi> searchAttractions(String query, int k) {
+        PoiCatalog source = catalog;
+        if (source == null) {
+            return Collections.emptyList();
+        }
+        List<Poi> results = new ArrayList<>();
+        for (AttractionIndex.Hit hit : attractionIndex(source, true).search(query, k)) {
+            results.add(materialize(source, hit.poi));
+        }
+        return results;
+    }
+    
+    /**
+     * The attraction index for {@code source}, rebuilt from the previous one if the catalog
+     * changed. With {@code create} false nothing is built until search is first used.
+     */
+    private AttractionIndex attractionIndex(PoiCatalog source, boolean create) {
+        synchronized (attractionLock) {
+            if ((attractions == null && create)
+                    || (attractions != null && attractions.catalogHash() != source.contentHash())) {
+                attractions = AttractionIndex.build(source, attractions);
+            }
+            return attractions;
+        }
+    }
+    
+    /**
+     * Main method to plan itinerary with exact requirements implementation
+     *
+     * If the model is still loading after MODEL_WAIT_BUDGET_MS, the plan is built with
+     * fallback scoring and marked provisional; a model-ranked version is produced in the
+     * background as soon as the model is ready (see {@link #upgradeOf}).
+     */
+    public ItineraryResult planItinerary(String location, int days, String budget) {
+        return planItinerary(location, days, budget, new CancellationToken());
+    }
+    
+    /**
+     * As {@link #planItinerary(String, int, String)}, stopping early with a "cancelled"
+     * error result once {@code cancel} is cancelled or the calling thread is interrupted.
+     */
+    public ItineraryResult planItinerary(String location, int days, String budget, CancellationToken cancel) {
+        long start = System.nanoTime();
+        ItineraryResult result = planHedged(location, null, days, budget, cancel);
+        reportFirstPlan(start);
+        return result;
+    }
+    
+    /**
+     * Plans around the traveller's current position ("near me"). The plan is named after
+     * the nearest canonical city (reverse lookup through the spatial index), but scoped and
+     * ranked around the given point itself: the nearest radius step that holds enough
+     * POIs, with distances measured from the point.
+     */
+    public ItineraryResult planItinerary(double latitude, double longitude, int days, String budget) {
+        return planItinerary(latitude, longitude, days, budget, new CancellationToken());
+    }
+    
+    public ItineraryResult planItinerary(double latitude, double longitude, int days, String budget,
+                                         CancellationToken cancel) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return createErrorResult("Current location is not available.");
+        }
+        long start = System.nanoTime();
+        Poi origin = new Poi();
+        origin.name = "current location";
+        origin.latitude = latitude;
+        origin.longitude = longitude;
+        ItineraryResult result = planHedged("near me", origin, days, budget, cancel);
+        reportFirstPlan(start);
+        return result;
+    }
+    
+    /**
+     * Asynchronous {@link #planItinerary(String, int, String)} on the app's INTERACTIVE
+     * lane. Cancelling the returned future cancels the run; it fails with
+     * RejectedExecutionException if the lane is saturated.
+     */
+    public CompletableFuture<ItineraryResult> planAsync(String location, int days, String budget) {
+        return planAsync(location, days, budget, interactive());
+    }
+    
+    /**
+     * As {@link #planAsync(String, int, String)}, waiting for the plan on {@code caller}.
+     * The plan itself still runs on the planner's threads, so {@code caller} may be any
+     * executor that tolerates a blocked task (not a UI thread).
+     */
+    public CompletableFuture<ItineraryResult> planAsync(String location, int days, String budget, Executor caller) {
+        return supplyPlan(cancel -> planItinerary(location, days, budget, cancel), caller);
+    }
+    
+    /** Asynchronous {@link #planItinerary(double, double, int, String)}. */
+    public CompletableFuture<ItineraryResult> planAsync(double latitude, double longitude, int days, String budget) {
+        return supplyPlan(cancel -> planItinerary(latitude, longitude, days, budget, cancel), interactive());
+    }
+    
+    private CompletableFuture<ItineraryResult> supplyPlan(Function<CancellationToken, ItineraryResult> plan,
+                                                         Executor caller) {
+        CancellationToken cancel = new CancellationToken();
+        CompletableFuture<ItineraryResult> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> plan.apply(cancel), caller);
+        } catch (RejectedExecutionException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        CompletableFuture<ItineraryResult> started = future;
+        started.whenComplete((result, error) -> {
+            if (started.isCancelled()) {
+                cancel.cancel();
+            }
+        });
+        return started;
+    }
+    
+    private Executor interactive() {
+        return scheduler.executor(AppScheduler.Lane.INTERACTIVE, AppScheduler.Priority.HIGH);
+    }
+    
+    private Executor planning(AppScheduler.Priority priority) {
+        return scheduler.executor(AppScheduler.Lane.PLANNING, priority);
+    }
+    
+    private void reportFirstPlan(long start) {
+        if (firstPlanReported.compareAndSet(false, true)) {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Warmup w = warmup;
+            if (w != null && w.done.isDone()) {
+                System.out.println("First plan took " + millis + "ms (warm-up saved ~" + w.getSavedMillis() + "ms)");
+            } else {
+                System.out.println("First plan took " + millis + "ms (no completed warm-up)");
+            }
+        }
+    }
+    
+    private ItineraryResult planHedged(String location, Poi origin, int days, String budget, CancellationToken cancel) {
+        // Input validation
+        if (origin == null && (location == null || location.trim().isEmpty())) {
+            return createErrorResult("Please enter a valid location.");
+        }
+        
+        if (days <= 0) {
+            days = 1; // Default to 1 day if invalid
+        }
+        
+        if (budget == null || budget.trim().isEmpty()) {
+            budget = "MODERATE"; // Default to moderate budget
+        }
+        
+        awaitData();
+        // With the distilled scorer preferred there is no model to wait for
+        boolean modelWarm = preferDistilled || awaitModel(MODEL_WAIT_BUDGET_MS);
+        if (modelWarm) {
+            return planShared(location, origin, days, budget, cancel);
+        }
+        ItineraryResult result;
+        try {
+            result = buildPlan(location, origin, days, budget, false, cancel);
+        } catch (CancellationException e) {
+            return cancelledResult();
+        }
+        if (result.dayPlans.isEmpty()) {
+            return result;
+        }
+        
+        // Hedge: serve the fallback plan now, re-rank and re-pack with the model later
+        System.out.println("Model not ready within " + MODEL_WAIT_BUDGET_MS + "ms, serving provisional itinerary");
+        result.provisional = true;
+        result.upgradeId = upgradeIds.incrementAndGet();
+        
+        final int finalDays = days;
+        final String finalBudget = budget;
+        CompletableFuture<ItineraryResult> upgrade = modelReady.thenApplyAsync(ignored -> {
+            if (tflite == null) {
+                return null; // model failed to load, the provisional plan is the final one
+            }
+            // The caller already has its plan; only shutdown() stops the upgrade
+            ItineraryResult upgraded = buildPlan(location, origin, finalDays, finalBudget, true, lifetime);
+            upgraded.upgradeId = result.upgradeId;
+            System.out.println("Upgraded provisional itinerary " + result.upgradeId + " with model scores");
+            return upgraded;
+        }, planning(AppScheduler.Priority.NORMAL));
+        synchronized (pendingUpgrades) {
+            pendingUpgrades.put(result.upgradeId, upgrade);
+        }
+        return result;
+    }
+    
+    /**
+     * A model-ranked plan, from the result cache, from an identical request already in
+     * flight, or planned now. Requests that name the same canonical places (or points in
+     * the same ORIGIN_KEY_DEGREES cell) with the same days, budget level, catalog and
+     * scorer share one plan; each caller gets its own copy, labelled with what it asked
+     * for. Provisional plans never come through here: each carries its own upgrade.
+     */
+    private ItineraryResult planShared(String location, Poi origin, int days, String budget,
+                                       CancellationToken cancel) {
+        LocationResolver places = resolver;
+        LocationResolver.Resolution where = origin == null && places != null ? places.resolve(location) : null;
+        String key = requestKey(where, origin, days, budget);
+        if (key == null) {
+            try {
+                return buildPlan(location, origin, days, budget, true, cancel);
+            } catch (CancellationException e) {
+                return cancelledResult();
+            }
+        }
+        ItineraryResult shared;
+        synchronized (results) {
+            shared = results.get(key);
+        }
+        if (shared != null) {
+            // A near-me key is the traveller's position to about 1 km, so it is not logged
+            System.out.println("Serving cached itinerary for " + (origin != null ? "the current location" : key));
+        } else {
+            try {
+                shared = planFlights.join(key, cancel, flight -> {
+                    ItineraryResult planned = buildPlan(location, origin, days, budget, true, flight);
+                    if (!planned.dayPlans.isEmpty()) {
+                        synchronized (results) {
+                            results.put(key, planned);
+                        }
+                    }
+                    return planned;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return cancelledResult();
+            } catch (CancellationException e) {
+                return cancelledResult();
+            } catch (RejectedExecutionException e) {
+                return createErrorResult("The planner is busy. Please try again in a moment.");
+            } catch (ExecutionException e) {
+                System.out.println("Error in planItinerary: " + e.getCause());
+                return createErrorResult("Failed to generate itinerary. Please try again with different parameters.");
+            }
         }
+        return copyFor(shared, where, location, budget);
     }
     
-    private void initializeDefaultScaler() {
-        // Initialize with reasonable default values
-        scaler = new HashMap<>();
-        
-        // Default means
-        scaler.put("estimated_visit_cost_inr_mean", 500.0);
-        scaler.put("time_hours_mean", 2.0);
-        scaler.put("dist_km_to_city_center_mean", 5.0);
-        
-        // Default scales
-        scaler.put("estimated_visit_cost_inr_scale", 300.0);
-        scaler.put("time_hours_scale", 1.0);
-        scaler.put("dist_km_to_city_center_scale", 3.0);
-        
-        System.out.println("Initialized default scaler values as fallback");
+    private ItineraryResult cancelledResult() {
+        System.out.println("Planning cancelled");
+        return createErrorResult("Planning was cancelled.");
     }
     
-    private void loadPois(Context context) throws IOException {
-        allPois = new ArrayList<>();
-        
-        try {
-            String csv = loadAssetAsString(context, POIS_FILE);
-            String[] lines = csv.split("\n");
-            
-            // Skip header row
-            for (int i = 1; i < lines.length; i++) {
-                String[] tokens = lines[i].split(",");
-                if (tokens.length >= 10) { // Ensure enough columns
-                    try {
-                        Poi poi = new Poi();
-                        poi.city = tokens[0].trim();
-                        poi.state = tokens[1].trim();
-                        poi.name = tokens[2].trim();
-                        poi.category = tokens[3].trim();
-                        poi.latitude = Double.parseDouble(tokens[4].trim());
-                        poi.longitude = Double.parseDouble(tokens[5].trim());
-                        
-                        // Denormalize the scaled values back to actual values
-                        double normalizedCost = Double.parseDouble(tokens[6].trim());
-                        double normalizedTime = Double.parseDouble(tokens[7].trim());
-                        
-                        // Convert back to actual values using: actual = (normalized * scale) + mean
-                        poi.estimatedCost = (normalizedCost * scaler.get("estimated_visit_cost_inr_scale")) + scaler.get("estimated_visit_cost_inr_mean");
-                        poi.timeHours = (normalizedTime * scaler.get("time_hours_scale")) + scaler.get("time_hours_mean");
-                        
-                        // Ensure positive values
-                        poi.estimatedCost = Math.max(0, poi.estimatedCost);
-                        poi.timeHours = Math.max(0.1, poi.timeHours);
-                        
-                        // Set thumbnail based on category
-                        poi.thumbnailUrl = generateDrawableName(poi.category);
-                        
-                        // Add POI to list
-                        allPois.add(poi);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Error parsing POI data at line " + i + ": " + e.getMessage());
-                        // Continue to next POI
-                    }
-                }
+    /**
+     * Canonical key of a plan request, or null if it does not resolve to anything worth
+     * sharing (unknown locations fail fast anyway).
+     */
+    private String requestKey(LocationResolver.Resolution where, Poi origin, int days, String budget) {
+        PoiCatalog source = catalog;
+        if (source == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        if (origin != null) {
+            key.append("near:").append(Math.round(origin.latitude / ORIGIN_KEY_DEGREES))
+               .append(',').append(Math.round(origin.longitude / ORIGIN_KEY_DEGREES));
+        } else if (where == null || where.isEmpty()) {
+            return null;
+        } else {
+            key.append("at:").append(where.city != null ? where.city.id : -1)
+               .append(',').append(where.state != null ? where.state.id : -1);
+            for (LocationResolver.Place place : where.partial) {
+                key.append(',').append(place.id);
             }
-            
-            System.out.println("Successfully loaded " + allPois.size() + " POIs");
-            
-        } catch (IOException e) {
-            System.out.println("Error loading POIs file: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Create some default POIs as fallback
-            createDefaultPois();
         }
+        InferenceTuner.Config config = inferenceConfig;
+        String scorer = tflite != null ? (config != null ? config.modelFile : MODEL_FILE)
+                : distilledScorer != null ? "distilled" : "popularity";
+        key.append('|').append(days).append('|').append(budget.trim().toLowerCase(Locale.ROOT))
+           .append('|').append(Long.toHexString(source.contentHash())).append('|').append(scorer);
+        return key.toString();
     }
     
-    private void createDefaultPois() {
-        System.out.println("Creating default POIs as fallback");
-        
-        // Create a few default POIs for major cities
-        String[] cities = {"Delhi", "Mumbai", "Bangalore", "Chennai", "Kolkata", "Hyderabad"};
-        String[] categories = {"Historical", "Religious", "Museum", "Park", "Monument"};
-        
-        for (String city : cities) {
-            for (int i = 0; i < 3; i++) {
-                Poi poi = new Poi();
-                poi.city = city;
-                poi.state = "Default";
-                poi.name = "Popular Attraction " + (i+1) + " in " + city;
-                poi.category = categories[i % categories.length];
-                poi.estimatedCost = 500 + (i * 200);
-                poi.timeHours = 1.5 + (i * 0.5);
-                poi.latitude = 0.0;
-                poi.longitude = 0.0;
-                poi.description = "A popular attraction in " + city;
-                poi.costCategory = "MODERATE";
-                poi.popularityScore = 0.8;
-                poi.thumbnailUrl = generateDrawableName(poi.category);
-                
-                allPois.add(poi);
-            }
-        }
-        
-        // Add some specific landmark POIs with proper thumbnails
-        Poi taj = new Poi();
-        taj.name = "Taj Mahal";
-        taj.category = "Monument";
-        taj.city = "Agra";
-        taj.state = "Uttar Pradesh";
-        taj.estimatedCost = 1100.0;
-        taj.timeHours = 3.0;
-        taj.latitude = 27.1751;
-        taj.longitude = 78.0421;
-        taj.thumbnailUrl = "monument";
-        taj.popularityScore = 0.95;
-        taj.costCategory = "MODERATE";
-        
-        Poi qutub = new Poi();
-        qutub.name = "Qutub Minar";
-        qutub.category = "Monument";
-        qutub.city = "Delhi";
-        qutub.state = "Delhi";
-        qutub.estimatedCost = 600.0;
-        qutub.timeHours = 2.0;
-        qutub.latitude = 28.5245;
-        qutub.longitude = 77.1855;
-        qutub.thumbnailUrl = "monument";
-        qutub.popularityScore = 0.9;
-        qutub.costCategory = "BUDGET";
-        
-        Poi gateway = new Poi();
-        gateway.name = "Gateway of India";
-        gateway.category = "Monument";
-        gateway.city = "Mumbai";
-        gateway.state = "Maharashtra";
-        gateway.estimatedCost = 0.0;
-        gateway.timeHours = 1.0;
-        gateway.latitude = 18.9220;
-        gateway.longitude = 72.8347;
-        gateway.thumbnailUrl = "monument";
-        gateway.popularityScore = 0.9;
-        gateway.costCategory = "FREE";
-        
-        allPois.add(taj);
-        allPois.add(qutub);
-        allPois.add(gateway);
-        
-        System.out.println("Created " + allPois.size() + " default POIs");
+    /**
+     * A caller's own copy of a shared plan: new day lists of new POIs, and the location, correction,
+     * budget label and summary of this caller's request rather than the first one's.
+     */
+    private ItineraryResult copyFor(ItineraryResult shared, LocationResolver.Resolution where,
+                                    String location, String budget) {
+        if (shared.dayPlans.isEmpty()) {
+            return shared; // error results are not shared state
+        }
+        ItineraryResult copy = new ItineraryResult();
+        copy.metadata = new ItineraryResult.Metadata();
+        copy.metadata.location = where == null ? shared.metadata.location
+                : where.corrected != null ? where.corrected : location;
+        copy.metadata.days = shared.metadata.days;
+        copy.metadata.budget = budget;
+        copy.metadata.generatedAt = shared.metadata.generatedAt;
+        copy.metadata.sourceCities = new ArrayList<>(shared.metadata.sourceCities);
+        copy.correctedFrom = where != null && where.corrected != null ? location : null;
+        copy.dayPlans = ownCopies(shared.dayPlans);
+        copy.totals = new ItineraryResult.Totals(shared.totals.totalEstimatedCost, shared.totals.totalTimeHours);
+        copy.rankingId = shared.rankingId;
+        copy.summary = copy.generateSummary();
+        return copy;
     }
     
     /**
-     * Main method to plan itinerary with exact requirements implementation
+     * Returns the model-ranked replacement for a provisional result. The future completes
+     * with null if no upgrade is coming (not provisional, model unavailable, or the
+     * upgrade was already claimed or evicted). Each upgrade can be claimed once.
      */
-    public ItineraryResult planItinerary(String location, int days, String budget) {
-        // Input validation
-        if (location == null || location.trim().isEmpty()) {
-            return createErrorResult("Please enter a valid location.");
+    public CompletableFuture<ItineraryResult> upgradeOf(ItineraryResult provisional) {
+        if (provisional == null || !provisional.provisional) {
+            return CompletableFuture.completedFuture(null);
         }
-        
-        if (days <= 0) {
-            days = 1; // Default to 1 day if invalid
+        CompletableFuture<ItineraryResult> upgrade;
+        synchronized (pendingUpgrades) {
+            upgrade = pendingUpgrades.remove(provisional.upgradeId);
         }
-        
-        if (budget == null || budget.trim().isEmpty()) {
-            budget = "MODERATE"; // Default to moderate budget
+        if (upgrade == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        
+        return upgrade.exceptionally(error -> {
+            System.out.println("Itinerary upgrade failed: " + error.getMessage());
+            return null;
+        });
+    }
+    
+    /**
+     * Plans for a location name, or around {@code origin} when it is not null. Throws
+     * CancellationException at the next stage or chunk boundary once {@code cancel} is
+     * cancelled.
+     */
+    private ItineraryResult buildPlan(String location, Poi origin, int days, String budget, boolean useModel,
+                                      CancellationToken cancel) {
         ItineraryResult result = new ItineraryResult();
         result.dayPlans = new HashMap<>();
         result.metadata = new ItineraryResult.Metadata();
@@ -418,22 +1191,6 @@ public class ItineraryPlanner {
         result.metadata.generatedAt = System.currentTimeMillis();
         
         try {
-            // Check if model is loaded
-            if (tflite == null) {
-                System.out.println("Interpreter is null, attempting to reload model");
-                try {
-                    // Use the stored context reference instead
-                    if (this.context != null) {
-                        loadModel(this.context);
-                    } else {
-                        return createErrorResult("Application context not available.");
-                    }
-                } catch (Exception e) {
-                    System.out.println("Failed to reload model: " + e.getMessage());
-                    return createErrorResult("Model failed to load — try reinstalling the app.");
-                }
-            }
-            
             // Check if POIs are loaded
             if (allPois == null || allPois.isEmpty()) {
                 System.out.println("No POIs available, creating defaults");
@@ -443,39 +1200,59 @@ public class ItineraryPlanner {
                 }
             }
             
-            // Step 1: Scope selection
-            List<Poi> candidates = selectScope(location, days);
-            if (candidates.isEmpty()) {
-                return createErrorResult("Location not recognized — try city or state name.");
+            // Step 1: Scope selection, on the canonical places the location resolves to, or
+            // around the traveller's position
+            LocationResolver.Resolution where = null;
+            Poi reference;
+            List<Poi> candidates;
+            if (origin != null) {
+                LocationResolver.Place city = nearestCity(origin);
+                if (city != null) {
+                    result.metadata.location = city.name;
+                }
+                reference = origin;
+                candidates = selectNearby(origin, days, cancel);
+                if (candidates.isEmpty()) {
+                    return createErrorResult("No attractions within " + (int) MAX_DISTANCE_KM + " km of your location.");
+                }
+            } else {
+                where = resolver.resolve(location);
+                if (where.corrected != null) {
+                    result.correctedFrom = location;
+                    result.metadata.location = where.corrected;
+                }
+                reference = referencePoi(where);
+                candidates = selectScope(where, days, cancel);
+                if (candidates.isEmpty()) {
+                    ItineraryResult error = createErrorResult(where.suggestions.isEmpty()
+                            ? "Location not recognized — try city or state name."
+                            : "Location not recognized — did you mean " + where.suggestions.get(0) + "?");
+                    error.suggestions = new ArrayList<>(where.suggestions);
+                    return error;
+                }
             }
             
             // Step 2: Pre-filtering
+            cancel.throwIfCancelled();
             candidates = preFilter(candidates, budget);
             if (candidates.isEmpty()) {
                 // If no candidates after filtering, use all from scope with relaxed budget
-                candidates = selectScope(location, days);
+                candidates = origin != null ? selectNearby(origin, days, cancel) : selectScope(where, days, cancel);
                 System.out.println("No POIs after budget filtering, using all available: " + candidates.size());
             }
             
             // Step 3: Scoring & ranking
-            candidates = scoreAndRank(candidates, location, budget);
+            cancel.throwIfCancelled();
+            RankingComponents ranking = scoreAndRank(candidates, where, reference, result.metadata.location,
+                                                     days, budget, useModel, cancel);
+            result.rankingId = rememberRanking(ranking);
             
-            // Step 4: Daily packing
-            result.dayPlans = packDaily(candidates, days, budget);
-            
-            // Step 5: Calculate totals and generate summary
-            result.totals = calculateTotals(result.dayPlans);
-            result.summary = result.generateSummary();
-            
-            // Update metadata with source cities
-            Set<String> sourceCities = new HashSet<>();
-            for (List<Poi> dayPois : result.dayPlans.values()) {
-                for (Poi poi : dayPois) {
-                    sourceCities.add(poi.city);
-                }
-            }
-            result.metadata.sourceCities = new ArrayList<>(sourceCities);
+            // Step 4-5: Daily packing, totals and summary
+            cancel.throwIfCancelled();
+            packInto(result, ranking.ranked(), days, budget, cancel);
             
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             System.out.println("Error in planItinerary: " + e.getMessage());
             e.printStackTrace();
@@ -485,66 +1262,286 @@ public class ItineraryPlanner {
         return result;
     }
     
-    private List<Poi> selectScope(String location, int days) {
-        String normalizedLocation = location.toLowerCase().trim();
-        List<Poi> candidates = new ArrayList<>();
+    private void packInto(ItineraryResult result, List<Poi> ranked, int days, String budget,
+                          CancellationToken cancel) {
+        result.dayPlans = ownCopies(packDaily(ranked, days, budget, cancel));
+        result.totals = calculateTotals(result.dayPlans);
+        result.summary = result.generateSummary();
+        
+        // Update metadata with source cities
+        Set<String> sourceCities = new HashSet<>();
+        for (List<Poi> dayPois : result.dayPlans.values()) {
+            for (Poi poi : dayPois) {
+                sourceCities.add(poi.city);
+            }
+        }
+        result.metadata.sourceCities = new ArrayList<>(sourceCities);
+    }
+    
+    /**
+     * The plan with each catalog POI replaced by a copy that belongs to this result alone,
+     * labelled with its day. Catalog POIs are shared by every plan in flight, the result
+     * cache and the ranking cache, so they never reach a caller.
+     */
+    private static Map<Integer, List<Poi>> ownCopies(Map<Integer, List<Poi>> dayPlans) {
+        Map<Integer, List<Poi>> copies = new HashMap<>();
+        for (Map.Entry<Integer, List<Poi>> day : dayPlans.entrySet()) {
+            List<Poi> pois = new ArrayList<>(day.getValue().size());
+            for (Poi poi : day.getValue()) {
+                Poi copy = poi.copy();
+                copy.day = day.getKey();
+                pois.add(copy);
+            }
+            copies.put(day.getKey(), pois);
+        }
+        return copies;
+    }
+    
+    private long rememberRanking(RankingComponents ranking) {
+        long id = rankingIds.incrementAndGet();
+        synchronized (rankings) {
+            rankings.put(id, ranking);
+        }
+        return id;
+    }
+    
+    /**
+     * Re-ranks and re-packs a plan with new blend weights, from the component scores kept
+     * when it was planned: no model call and no rescope. Returns null if the plan's scores
+     * are no longer cached (only the last few plans are kept), in which case the caller
+     * has to plan again.
+     */
+    public ItineraryResult reweight(ItineraryResult result, RankingWeights weights) {
+        if (result == null || result.rankingId == 0 || weights == null) {
+            return null;
+        }
+        RankingComponents ranking;
+        synchronized (rankings) {
+            ranking = rankings.get(result.rankingId);
+        }
+        if (ranking == null) {
+            return null;
+        }
+        
+        long start = System.nanoTime();
+        ItineraryResult reweighted = new ItineraryResult();
+        reweighted.metadata = new ItineraryResult.Metadata();
+        reweighted.metadata.location = ranking.location;
+        reweighted.metadata.days = ranking.days;
+        reweighted.metadata.budget = ranking.budget;
+        reweighted.metadata.generatedAt = System.currentTimeMillis();
+        reweighted.rankingId = result.rankingId;
+        // Still upgradeable: the upgrade arrives with default weights and can be re-weighted again
+        reweighted.provisional = result.provisional;
+        reweighted.upgradeId = result.upgradeId;
+        reweighted.correctedFrom = result.correctedFrom;
+        packInto(reweighted, ranking.rank(weights), ranking.days, ranking.budget, new CancellationToken());
+        
+        System.out.println("Re-weighted " + ranking.size() + " POIs (" + weights + ") in " +
+                         (System.nanoTime() - start) / 1_000 + "us");
+        return reweighted;
+    }
+    
+    /**
+     * Up to {@code k} alternatives for {@code poi} in day {@code day} of a plan: attractions
+     * near the POI and its neighbours in the day (within MAX_DISTANCE_KM) that fit the hours and budget the day has
+     * left without it, and are not already in the trip. Ranked by the plan's cached model
+     * scores (POIs outside the plan's scope rank as its lowest-scored candidate) blended
+     * with proximity, so no model call is made.
+     */
+    public List<Poi> suggestReplacements(ItineraryResult result, int day, Poi poi, int k) {
+        PoiCatalog source = catalog;
+        SpatialIndex index = spatial;
+        List<Poi> dayPlan = result != null && result.dayPlans != null ? result.dayPlans.get(day) : null;
+        if (source == null || index == null || dayPlan == null || poi == null || k <= 0) {
+            return Collections.emptyList();
+        }
+        long start = System.nanoTime();
+        
+        // Step 1: What the day has left once the POI is taken out
+        double hoursLeft = MAX_HOURS_PER_DAY;
+        double budgetLeft = getDailyBudget(result.metadata != null ? result.metadata.budget : "");
+        int position = -1;
+        for (int i = 0; i < dayPlan.size(); i++) {
+            Poi planned = dayPlan.get(i);
+            if (planned == poi || (poi.catalogIndex >= 0 && planned.catalogIndex == poi.catalogIndex)) {
+                position = i;
+                continue;
+            }
+            hoursLeft -= planned.timeHours;
+            budgetLeft -= planned.estimatedCost;
+        }
+        final double maxHours = hoursLeft;
+        final double maxCost = budgetLeft;
+        BitSet inTrip = new BitSet(source.size());
+        for (List<Poi> planned : result.dayPlans.values()) {
+            for (Poi p : planned) {
+                if (p.catalogIndex >= 0) inTrip.set(p.catalogIndex);
+            }
+        }
+        
+        // Step 2: Nearest fitting POIs around the POI and its neighbours in the day
+        List<Poi> anchors = new ArrayList<>();
+        anchors.add(poi);
+        if (position > 0) anchors.add(dayPlan.get(position - 1));
+        if (position >= 0 && position + 1 < dayPlan.size()) anchors.add(dayPlan.get(position + 1));
+        int perAnchor = Math.max(MIN_REPLACEMENT_CANDIDATES, REPLACEMENT_CANDIDATES_PER_RESULT * k);
+        Map<Integer, Double> nearestKm = new HashMap<>();
+        for (Poi anchor : anchors) {
+            if (anchor.latitude == 0.0 && anchor.longitude == 0.0) continue;
+            int[] rows = index.nearest(anchor.latitude, anchor.longitude, perAnchor, row ->
+                    !inTrip.get(row) && source.timeHours(row) > 0
+                            && source.timeHours(row) <= maxHours && source.estimatedCost(row) <= maxCost);
+            for (int row : rows) {
+                double km = calculateDistance(anchor.latitude, anchor.longitude,
+                                              source.latitude(row), source.longitude(row));
+                if (km <= MAX_DISTANCE_KM) {
+                    nearestKm.merge(row, km, Math::min);
+                }
+            }
+        }
+        
+        // Step 3: Rank by cached score and proximity
+        RankingComponents ranking;
+        synchronized (rankings) {
+            ranking = rankings.get(result.rankingId);
+        }
+        float outOfScope = ranking != null ? ranking.lowestBase() : 0f;
+        int count = nearestKm.size();
+        int[] rows = new int[count];
+        float[] scores = new float[count];
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : nearestKm.entrySet()) {
+            int row = entry.getKey();
+            float base = ranking != null
+                    ? ranking.baseScoreOf(row, outOfScope)
+                    : (float) source.popularity(row);
+            float proximity = (float) (1.0 / (1.0 + entry.getValue()));
+            rows[i] = row;
+            scores[i] = 0.7f * base + 0.3f * proximity;
+            i++;
+        }
+        int[] order = RankingComponents.rankDescending(scores, count);
+        List<Poi> replacements = new ArrayList<>();
+        for (int r = 0; r < Math.min(k, count); r++) {
+            Poi replacement = materialize(source, rows[order[r]]);
+            replacement.day = day;
+            replacements.add(replacement);
+        }
         
-        System.out.println("Selecting scope for location: " + location);
+        System.out.println("Found " + replacements.size() + " replacements for " + poi.name + " among " +
+                         count + " nearby POIs in " + (System.nanoTime() - start) / 1_000 + "us");
+        return replacements;
+    }
+    
+    /**
+     * A copy of the plan with {@code poi} swapped for {@code replacement} in day {@code day}.
+     * Only that day is re-ordered (nearest-neighbour walk from its first stop); every other
+     * day keeps its list as is.
+     */
+    public ItineraryResult replacePoi(ItineraryResult result, int day, Poi poi, Poi replacement) {
+        ItineraryResult swapped = new ItineraryResult();
+        swapped.metadata = new ItineraryResult.Metadata();
+        swapped.metadata.location = result.metadata.location;
+        swapped.metadata.days = result.metadata.days;
+        swapped.metadata.budget = result.metadata.budget;
+        swapped.metadata.generatedAt = System.currentTimeMillis();
+        swapped.rankingId = result.rankingId;
+        swapped.provisional = result.provisional;
+        swapped.upgradeId = result.upgradeId;
+        swapped.correctedFrom = result.correctedFrom;
+        swapped.dayPlans = new HashMap<>(result.dayPlans);
         
-        // Step 1: Exact city match (highest priority)
-        for (Poi poi : allPois) {
-            if (poi.city.toLowerCase().equals(normalizedLocation)) {
-                candidates.add(poi);
+        List<Poi> dayPois = new ArrayList<>(result.dayPlans.get(day));
+        int position = dayPois.indexOf(poi);
+        if (position < 0) {
+            return result;
+        }
+        replacement.day = day;
+        dayPois.set(position, replacement);
+        swapped.dayPlans.put(day, orderByProximity(dayPois));
+        swapped.totals = calculateTotals(swapped.dayPlans);
+        Set<String> sourceCities = new HashSet<>();
+        for (List<Poi> planned : swapped.dayPlans.values()) {
+            for (Poi p : planned) {
+                sourceCities.add(p.city);
+            }
+        }
+        swapped.metadata.sourceCities = new ArrayList<>(sourceCities);
+        swapped.summary = swapped.generateSummary();
+        return swapped;
+    }
+    
+    // Greedy nearest-neighbour walk from the first POI; POIs without coordinates go last
+    private List<Poi> orderByProximity(List<Poi> pois) {
+        List<Poi> remaining = new ArrayList<>();
+        List<Poi> unlocated = new ArrayList<>();
+        for (Poi p : pois) {
+            if (p.latitude == 0.0 && p.longitude == 0.0) {
+                unlocated.add(p);
+            } else {
+                remaining.add(p);
+            }
+        }
+        List<Poi> ordered = new ArrayList<>(pois.size());
+        if (!remaining.isEmpty()) {
+            Poi current = remaining.remove(0);
+            ordered.add(current);
+            while (!remaining.isEmpty()) {
+                int nearest = 0;
+                double nearestKm = Double.MAX_VALUE;
+                for (int i = 0; i < remaining.size(); i++) {
+                    double km = calculateDistance(current.latitude, current.longitude,
+                                                  remaining.get(i).latitude, remaining.get(i).longitude);
+                    if (km < nearestKm) {
+                        nearestKm = km;
+                        nearest = i;
+                    }
+                }
+                current = remaining.remove(nearest);
+                ordered.add(current);
             }
         }
+        ordered.addAll(unlocated);
+        return ordered;
+    }
+    
+    private List<Poi> selectScope(LocationResolver.Resolution where, int days, CancellationToken cancel) {
+        List<Poi> candidates = new ArrayList<>();
+        BitSet taken = new BitSet(catalog.size());
+        
+        System.out.println("Selecting scope for location: " + where.key);
+        
+        // Step 1: Exact city match (highest priority) - contiguous ranges in the catalog
+        if (where.city != null) {
+            addPlace(where.city, taken, candidates, cancel);
+        }
         
         System.out.println("Found " + candidates.size() + " POIs in exact city match");
         
         // Step 2: If insufficient, try state match
         if (candidates.size() < MIN_POIS_PER_DAY * days) {
-            for (Poi poi : allPois) {
-                if (poi.state.toLowerCase().equals(normalizedLocation) && !candidates.contains(poi)) {
-                    candidates.add(poi);
-                }
+            if (where.state != null) {
+                addPlace(where.state, taken, candidates, cancel);
             }
             System.out.println("After state match: " + candidates.size() + " POIs");
         }
         
         // Step 3: If still insufficient, find reference point and expand by coordinates
+        cancel.throwIfCancelled();
         if (candidates.size() < MIN_POIS_PER_DAY * days) {
-            Poi referencePoi = findReferencePoi(location);
+            Poi referencePoi = referencePoi(where);
             if (referencePoi != null) {
                 System.out.println("Using reference POI: " + referencePoi.name + " at " + 
                                  referencePoi.latitude + ", " + referencePoi.longitude);
-                
-                // Expand search radius stepwise: 10km, 25km, 50km, 100km
-                int[] radii = {10, 25, 50, 100};
-                for (int radius : radii) {
-                    for (Poi poi : allPois) {
-                        if (!candidates.contains(poi)) {
-                            double distance = calculateDistance(referencePoi.latitude, referencePoi.longitude,
-                                                            poi.latitude, poi.longitude);
-                            if (distance <= radius) {
-                                candidates.add(poi);
-                            }
-                        }
-                    }
-                    System.out.println("After " + radius + "km radius: " + candidates.size() + " POIs");
-                    if (candidates.size() >= MIN_POIS_PER_DAY * days) {
-                        break;
-                    }
-                }
+                addNearby(referencePoi, days, SCOPE_RADII_KM, taken, candidates);
             }
         }
         
         // Step 4: If still insufficient, try fuzzy matching as last resort
         if (candidates.size() < MIN_POIS_PER_DAY * days) {
-            for (Poi poi : allPois) {
-                if (!candidates.contains(poi) && 
-                    (poi.city.toLowerCase().contains(normalizedLocation) || 
-                     poi.state.toLowerCase().contains(normalizedLocation))) {
-                    candidates.add(poi);
-                }
+            for (LocationResolver.Place place : where.partial) {
+                addPlace(place, taken, candidates, cancel);
             }
             System.out.println("After fuzzy match: " + candidates.size() + " POIs");
         }
@@ -552,32 +1549,73 @@ public class ItineraryPlanner {
         return candidates;
     }
     
-    private Poi findReferencePoi(String location) {
-        String locationLower = location.toLowerCase().trim();
-        
-        // First try to find a POI in the exact city
-        for (Poi poi : allPois) {
-            if (poi.city.toLowerCase().equals(locationLower)) {
-                return poi;
-            }
+    /**
+     * Scope around a coordinate: every POI within the smallest of NEARBY_RADII_KM that
+     * holds enough of them for the trip.
+     */
+    private List<Poi> selectNearby(Poi origin, int days, CancellationToken cancel) {
+        cancel.throwIfCancelled();
+        List<Poi> candidates = new ArrayList<>();
+        System.out.println("Selecting scope around the current location");
+        addNearby(origin, days, NEARBY_RADII_KM, new BitSet(catalog.size()), candidates);
+        return candidates;
+    }
+    
+    /**
+     * Adds the untaken POIs around {@code center} within the first of {@code radii} that
+     * brings the scope up to MIN_POIS_PER_DAY * days, or within the last one if none does.
+     * The spatial index's ring expansion finds how far the needed-th nearest POI is, then
+     * collects that radius in one pass, nearest first.
+     */
+    private void addNearby(Poi center, int days, int[] radii, BitSet taken, List<Poi> candidates) {
+        int needed = MIN_POIS_PER_DAY * days - candidates.size();
+        if (needed <= 0) {
+            return;
         }
-        
-        // Then try to find a POI in the state
-        for (Poi poi : allPois) {
-            if (poi.state.toLowerCase().equals(locationLower)) {
-                return poi;
+        SpatialIndex index = spatial;
+        int[] nearest = index.nearest(center.latitude, center.longitude, needed, row -> !taken.get(row));
+        double reach = nearest.length < needed ? Double.MAX_VALUE
+                : calculateDistance(center.latitude, center.longitude,
+                                    catalog.latitude(nearest[needed - 1]), catalog.longitude(nearest[needed - 1]));
+        int radius = radii[radii.length - 1];
+        for (int step : radii) {
+            if (step >= reach) {
+                radius = step;
+                break;
             }
         }
-        
-        // If no exact match, try fuzzy matching
-        for (Poi poi : allPois) {
-            if (poi.city.toLowerCase().contains(locationLower) || 
-                poi.state.toLowerCase().contains(locationLower)) {
-                return poi;
+        for (int row : index.within(center.latitude, center.longitude, radius, row -> !taken.get(row))) {
+            taken.set(row);
+            candidates.add(allPois.get(row));
+        }
+        System.out.println("After " + radius + "km radius: " + candidates.size() + " POIs");
+    }
+    
+    /** Reverse lookup: the canonical city of the POI nearest to {@code point}, null if none. */
+    private LocationResolver.Place nearestCity(Poi point) {
+        int[] nearest = spatial.nearest(point.latitude, point.longitude, 1, null);
+        return nearest.length == 0 ? null : resolver.cityOf(nearest[0]);
+    }
+    
+    private void addPlace(LocationResolver.Place place, BitSet taken, List<Poi> candidates, CancellationToken cancel) {
+        for (int r = 0; r < place.poiRanges.length; r += 2) {
+            cancel.throwIfCancelled();
+            for (int i = place.poiRanges[r]; i < place.poiRanges[r + 1]; i++) {
+                if (!taken.get(i)) {
+                    taken.set(i);
+                    candidates.add(allPois.get(i));
+                }
             }
         }
-        
-        return null;
+    }
+    
+    /**
+     * The POI whose coordinates anchor distances for a location: the first POI of the
+     * matched city, else of the matched state, else of the first partial match.
+     */
+    private Poi referencePoi(LocationResolver.Resolution where) {
+        LocationResolver.Place place = where.primary();
+        return place == null || place.referencePoi < 0 ? null : allPois.get(place.referencePoi);
     }
     
     private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
@@ -624,72 +1662,244 @@ public class ItineraryPlanner {
         return true; // Default allow all
     }
     
-    private List<Poi> scoreAndRank(List<Poi> candidates, String location, String budget) {
-        if (tflite == null) {
-            // Fallback scoring without ML model
-            return fallbackScoring(candidates, location, budget);
+    /**
+     * Scores and ranks the candidates by distance to {@code reference}. {@code where} is the
+     * resolved location, or null for coordinate scopes (which the score table does not cover).
+     */
+    private RankingComponents scoreAndRank(List<Poi> candidates, LocationResolver.Resolution where, Poi reference,
+                                           String location, int days, String budget, boolean useModel,
+                                           CancellationToken cancel) {
+        // Distance to the reference point, computed once for the whole batch
+        double[] distances = distancesFrom(reference, candidates);
+        
+        // Common city scopes: model scores were precomputed, no inference at all
+        float[] precomputed = lookupScoreTable(candidates, where, budget);
+        if (precomputed != null) {
+            System.out.println("Scored " + candidates.size() + " POIs from the precomputed score table");
+            return rankingComponents(candidates, applyModelScores(precomputed, distances),
+                                     candidates.size(), location, days, budget);
+        }
+        
+        if ((!useModel || tflite == null) && distilledScorer == null) {
+            return rankingComponents(candidates, fallbackScoring(candidates, distances),
+                                     candidates.size(), location, days, budget);
+        }
+        
+        // Stage 1: cheap prefilter, so only candidates that can still be packed reach the model
+        int rerankCount = cascadeSize(days, budget);
+        if (candidates.size() <= rerankCount) {
+            return rankingComponents(candidates, modelScoring(candidates, distances, budget, useModel, cancel),
+                                     candidates.size(), location, days, budget);
+        }
+        int[] order = cheapRanking(candidates, distances, budget);
+        List<Poi> shortlist = new ArrayList<>(rerankCount);
+        double[] shortlistDistances = new double[rerankCount];
+        for (int i = 0; i < rerankCount; i++) {
+            shortlist.add(candidates.get(order[i]));
+            shortlistDistances[i] = distances[order[i]];
+        }
+        
+        // Stage 2: model re-rank of the shortlist; the rest stays behind it in prefilter order
+        cancel.throwIfCancelled();
+        CandidateScores shortlisted = modelScoring(shortlist, shortlistDistances, budget, useModel, cancel);
+        CandidateScores scores = new CandidateScores(candidates.size());
+        for (int i = 0; i < rerankCount; i++) {
+            scores.model[order[i]] = shortlisted.model[i];
+            scores.proximity[order[i]] = shortlisted.proximity[i];
+            scores.order[i] = order[shortlisted.order[i]];
+        }
+        for (int i = rerankCount; i < order.length; i++) {
+            scores.proximity[order[i]] = (float) (1.0 / (1.0 + distances[order[i]]));
+            scores.order[i] = order[i];
+        }
+        System.out.println("Cascade: model re-ranked " + rerankCount + " of " + candidates.size() + " POIs");
+        return rankingComponents(candidates, scores, rerankCount, location, days, budget);
+    }
+    
+    /**
+     * One request's scores, indexed by position in the candidate list they were computed
+     * for. Catalog POIs are shared by every plan in flight and never carry scores, so
+     * concurrent plans cannot see each other's ranking.
+     */
+    private static final class CandidateScores {
+        final float[] model;     // base score: model output, or popularity without a model
+        final float[] proximity; // 1 / (1 + km to the reference point)
+        final int[] order;       // candidate positions, best first
+        
+        CandidateScores(int size) {
+            model = new float[size];
+            proximity = new float[size];
+            order = new int[size];
+        }
+        
+        CandidateScores(float[] model, float[] proximity, float[] combined) {
+            this.model = model;
+            this.proximity = proximity;
+            this.order = RankingComponents.rankDescending(combined, combined.length);
+        }
+    }
+    
+    /**
+     * Snapshots the ranked candidates' component scores for reweight(). Only the first
+     * {@code scoredCount} in rank order were scored; the cascade tail ranked below all of
+     * them, so it takes their lowest score as its base.
+     */
+    private RankingComponents rankingComponents(List<Poi> candidates, CandidateScores scores, int scoredCount,
+                                                String location, int days, String budget) {
+        int n = scores.order.length;
+        RankingComponents components = new RankingComponents(location, days, budget, n);
+        double dailyBudget = getDailyBudget(budget);
+        float floor = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < scoredCount; i++) {
+            floor = Math.min(floor, scores.model[scores.order[i]]);
+        }
+        for (int i = 0; i < n; i++) {
+            int candidate = scores.order[i];
+            Poi poi = candidates.get(candidate);
+            components.pois[i] = poi;
+            components.base[i] = i < scoredCount ? scores.model[candidate] : floor;
+            components.popularity[i] = (float) poi.popularityScore;
+            components.proximity[i] = scores.proximity[candidate];
+            components.cheapness[i] = (float) cheapness(poi, dailyBudget);
+        }
+        return components;
+    }
+    
+    private static double cheapness(Poi poi, double dailyBudget) {
+        return 1.0 - Math.min(1.0, Math.max(0.0, poi.estimatedCost) / dailyBudget);
+    }
+    
+    /**
+     * How many prefiltered candidates the model re-ranks: enough to fill every day several
+     * times over, with more headroom for tight budgets (packing skips more of the top POIs).
+     */
+    private int cascadeSize(int days, String budget) {
+        double dailyBudget = getDailyBudget(budget);
+        int headroom = dailyBudget <= DAILY_BUDGET_LOW ? 4 : dailyBudget >= DAILY_BUDGET_HIGH ? 2 : 3;
+        long size = (long) days * CASCADE_SLOTS_PER_DAY * headroom;
+        return (int) Math.max(CASCADE_MIN_RERANK, Math.min(CASCADE_MAX_RERANK, size));
+    }
+    
+    /**
+     * Stage 1 of the cascade: candidate indices ordered by a cheap score built from
+     * popularity, proximity, budget fit and a category prior (the mean popularity of the
+     * POI's category within this candidate set).
+     */
+    private int[] cheapRanking(List<Poi> candidates, double[] distances, String budget) {
+        int n = candidates.size();
+        double dailyBudget = getDailyBudget(budget);
+        
+        Map<String, double[]> categoryTotals = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Poi poi = candidates.get(i);
+            double[] total = categoryTotals.get(poi.category);
+            if (total == null) {
+                total = new double[2];
+                categoryTotals.put(poi.category, total);
+            }
+            total[0] += poi.popularityScore;
+            total[1]++;
+        }
+        
+        float[] scores = new float[n];
+        for (int i = 0; i < n; i++) {
+            Poi poi = candidates.get(i);
+            double[] total = categoryTotals.get(poi.category);
+            double categoryPrior = total[0] / total[1];
+            double proximity = 1.0 / (1.0 + distances[i]);
+            double budgetMatch = isBudgetCompatible(poi.costCategory, budget) ? cheapness(poi, dailyBudget) : 0.0;
+            scores[i] = (float) (poi.popularityScore * 0.5 + proximity * 0.2 + budgetMatch * 0.15 + categoryPrior * 0.15);
+        }
+        return RankingComponents.rankDescending(scores, n);
+    }
+    
+    /**
+     * Model scoring: the TFLite model when it is loaded and wanted, the distilled scorer
+     * otherwise, popularity/proximity if neither can score.
+     */
+    private CandidateScores modelScoring(List<Poi> candidates, double[] distances, String budget, boolean useModel,
+                                         CancellationToken cancel) {
+        if (!useModel || tflite == null) {
+            return distilledScorer != null ? distilledScoring(candidates, distances, budget)
+                    : fallbackScoring(candidates, distances);
         }
         
         // Prepare features for each candidate
         float[][] inputFeatures = new float[candidates.size()][FEATURE_COUNT];
         
         for (int i = 0; i < candidates.size(); i++) {
-            Poi poi = candidates.get(i);
-            float[] features = prepareFeatureVector(poi, location, budget);
-            inputFeatures[i] = features;
+            inputFeatures[i] = prepareFeatureVector(candidates.get(i), distances[i], budget);
         }
         
         // Run model inference
-        float[][] output = new float[1][candidates.size()];
-        tflite.run(inputFeatures, output);
+        float[] scores = runModel(inputFeatures, cancel);
+        if (scores == null) {
+            return distilledScorer != null ? distilledScoring(candidates, distances, budget)
+                    : fallbackScoring(candidates, distances);
+        }
         
-        // Apply model scores and proximity boost
-        for (int i = 0; i < candidates.size(); i++) {
-            Poi poi = candidates.get(i);
-            poi.modelScore = output[0][i];
-            
+        return applyModelScores(scores, distances);
+    }
+    
+    /**
+     * Scores with the pure-Java distilled model over a column-major feature matrix.
+     */
+    private CandidateScores distilledScoring(List<Poi> candidates, double[] distances, String budget) {
+        int rows = candidates.size();
+        float[] columns = new float[FEATURE_COUNT * rows];
+        for (int r = 0; r < rows; r++) {
+            float[] features = prepareFeatureVector(candidates.get(r), distances[r], budget);
+            for (int f = 0; f < FEATURE_COUNT; f++) {
+                columns[f * rows + r] = features[f];
+            }
+        }
+        float[] scores = new float[rows];
+        distilledScorer.score(columns, rows, scores);
+        return applyModelScores(scores, distances);
+    }
+    
+    private CandidateScores applyModelScores(float[] scores, double[] distances) {
+        int n = scores.length;
+        float[] proximity = new float[n];
+        float[] combined = new float[n];
+        for (int i = 0; i < n; i++) {
             // Calculate proximity boost
-            double distance = calculateDistanceToLocation(poi, location);
-            poi.proximityBoost = 1.0 / (1.0 + distance);
+            proximity[i] = (float) (1.0 / (1.0 + distances[i]));
             
             // Final score: model_score * 0.9 + proximity_boost * 0.1
-            poi.finalScore = poi.modelScore * 0.9 + poi.proximityBoost * 0.1;
+            combined[i] = scores[i] * 0.9f + proximity[i] * 0.1f;
         }
         
-        // Sort by final score descending
-        candidates.sort((a, b) -> Double.compare(b.finalScore, a.finalScore));
-        
-        System.out.println("Scoring completed for " + candidates.size() + " POIs");
-        return candidates;
+        System.out.println("Scoring completed for " + n + " POIs");
+        return new CandidateScores(scores, proximity, combined);
     }
     
-    private float[] prepareFeatureVector(Poi poi, String location, String budget) {
+    private float[] prepareFeatureVector(Poi poi, double distanceKm, String budget) {
         float[] features = new float[FEATURE_COUNT];
         
         // [0] estimated_visit_cost_inr (scaled)
-        features[0] = (float) ((poi.estimatedCost - scaler.get("estimated_visit_cost_inr_mean")) / 
-                               scaler.get("estimated_visit_cost_inr_scale"));
+        features[0] = (float) ((poi.estimatedCost - ModelTables.ESTIMATED_VISIT_COST_INR_MEAN) /
+                               ModelTables.ESTIMATED_VISIT_COST_INR_SCALE);
         
         // [1] time_hours (scaled)
-        features[1] = (float) ((poi.timeHours - scaler.get("time_hours_mean")) / 
-                               scaler.get("time_hours_scale"));
+        features[1] = (float) ((poi.timeHours - ModelTables.TIME_HOURS_MEAN) /
+                               ModelTables.TIME_HOURS_SCALE);
         
-        // [2] dist_km_to_city_center (scaled) - calculate distance to location center
-        double distance = calculateDistanceToLocation(poi, location);
-        features[2] = (float) ((distance - scaler.get("dist_km_to_city_center_mean")) / 
-                               scaler.get("dist_km_to_city_center_scale"));
+        // [2] dist_km_to_city_center (scaled) - distance to the location's reference point
+        features[2] = (float) ((distanceKm - ModelTables.DIST_KM_TO_CITY_CENTER_MEAN) /
+                               ModelTables.DIST_KM_TO_CITY_CENTER_SCALE);
         
         // [3] le_city (encoded)
-        features[3] = locationEncoder.getOrDefault(poi.city, 0);
+        features[3] = encoded(ModelTables.CityEncoder.indexOf(poi.city));
         
         // [4] le_budget (encoded)
-        features[4] = budgetEncoder.getOrDefault(budget.toLowerCase(), 0);
+        features[4] = encoded(ModelTables.BudgetEncoder.indexOf(budget.toLowerCase()));
         
         // [5] le_costcat (encoded)
-        features[5] = costCategoryEncoder.getOrDefault(poi.costCategory, 0);
+        features[5] = encoded(ModelTables.CostCategoryEncoder.indexOf(poi.costCategory));
         
         // [6] le_cat (encoded)
-        features[6] = categoryEncoder.getOrDefault(poi.category, 0);
+        features[6] = encoded(ModelTables.CategoryEncoder.indexOf(poi.category));
         
         // [7] popularity_score (normalized)
         features[7] = (float) poi.popularityScore;
@@ -697,14 +1907,25 @@ public class ItineraryPlanner {
         return features;
     }
     
-    private double calculateDistanceToLocation(Poi poi, String location) {
-        // Find a reference POI for the location
-        Poi referencePoi = findReferencePoi(location);
+    // Unseen labels encode as 0, as the JSON-backed encoders did
+    private static int encoded(int index) {
+        return index < 0 ? 0 : index;
+    }
+    
+    /**
+     * Distance (km) from each POI to the reference point, 0 for all if there is none.
+     * The reference point is looked up once per batch, not once per POI.
+     */
+    private double[] distancesFrom(Poi referencePoi, List<Poi> pois) {
+        double[] distances = new double[pois.size()];
         if (referencePoi != null) {
-            return calculateDistance(referencePoi.latitude, referencePoi.longitude, 
-                                  poi.latitude, poi.longitude);
+            for (int i = 0; i < distances.length; i++) {
+                Poi poi = pois.get(i);
+                distances[i] = calculateDistance(referencePoi.latitude, referencePoi.longitude,
+                                                 poi.latitude, poi.longitude);
+            }
         }
-        return 0.0;
+        return distances;
     }
     
     /**
@@ -783,19 +2004,22 @@ public class ItineraryPlanner {
         }
     }
 
-    private List<Poi> fallbackScoring(List<Poi> candidates, String location, String budget) {
+    private CandidateScores fallbackScoring(List<Poi> candidates, double[] distances) {
         // Simple fallback scoring based on popularity and proximity
-        for (Poi poi : candidates) {
-            double distance = calculateDistanceToLocation(poi, location);
-            poi.proximityBoost = 1.0 / (1.0 + distance);
-            poi.finalScore = poi.popularityScore * 0.7 + poi.proximityBoost * 0.3;
+        int n = candidates.size();
+        float[] popularity = new float[n];
+        float[] proximity = new float[n];
+        float[] combined = new float[n];
+        for (int i = 0; i < n; i++) {
+            // No model: popularity stands in as the base score for reweight()
+            popularity[i] = (float) candidates.get(i).popularityScore;
+            proximity[i] = (float) (1.0 / (1.0 + distances[i]));
+            combined[i] = popularity[i] * 0.7f + proximity[i] * 0.3f;
         }
-        
-        candidates.sort((a, b) -> Double.compare(b.finalScore, a.finalScore));
-        return candidates;
+        return new CandidateScores(popularity, proximity, combined);
     }
     
-    private Map<Integer, List<Poi>> packDaily(List<Poi> candidates, int days, String budget) {
+    private Map<Integer, List<Poi>> packDaily(List<Poi> candidates, int days, String budget, CancellationToken cancel) {
         Map<Integer, List<Poi>> dayPlans = new HashMap<>();
         List<Poi> remainingPois = new ArrayList<>(candidates);
         
@@ -808,6 +2032,7 @@ public class ItineraryPlanner {
         System.out.println("Total POIs: " + totalPois + ", Target per day: " + targetPoisPerDay);
         
         for (int day = 1; day <= days; day++) {
+            cancel.throwIfCancelled();
             List<Poi> dayPois = new ArrayList<>();
             double remainingTime = MAX_HOURS_PER_DAY;
             double remainingBudget = dailyBudget;
@@ -869,21 +2094,31 @@ public class ItineraryPlanner {
     }
     
     private void distributeRemainingPois(List<Poi> remainingPois, Map<Integer, List<Poi>> dayPlans, double dailyBudget) {
+        // Running time/cost per day, so each POI is checked against every day in O(1)
+        int dayCount = dayPlans.size();
+        double[] dayTime = new double[dayCount + 1];
+        double[] dayCost = new double[dayCount + 1];
+        for (int day = 1; day <= dayCount; day++) {
+            List<Poi> dayPois = dayPlans.get(day);
+            if (dayPois == null) continue;
+            for (Poi p : dayPois) {
+                dayTime[day] += p.timeHours;
+                dayCost[day] += p.estimatedCost;
+            }
+        }
+        
         for (Poi poi : remainingPois) {
             // Find the day with the least POIs that can accommodate this POI
             int bestDay = -1;
             int minPois = Integer.MAX_VALUE;
             
-            for (int day = 1; day <= dayPlans.size(); day++) {
+            for (int day = 1; day <= dayCount; day++) {
                 List<Poi> dayPois = dayPlans.get(day);
                 if (dayPois == null) continue;
                 
                 // Check if this day can accommodate the POI
-                double dayTime = dayPois.stream().mapToDouble(p -> p.timeHours).sum();
-                double dayCost = dayPois.stream().mapToDouble(p -> p.estimatedCost).sum();
-                
-                if (dayTime + poi.timeHours <= MAX_HOURS_PER_DAY && 
-                    dayCost + poi.estimatedCost <= dailyBudget) {
+                if (dayTime[day] + poi.timeHours <= MAX_HOURS_PER_DAY && 
+                    dayCost[day] + poi.estimatedCost <= dailyBudget) {
                     
                     if (dayPois.size() < minPois) {
                         minPois = dayPois.size();
@@ -894,6 +2129,8 @@ public class ItineraryPlanner {
             
             if (bestDay != -1) {
                 dayPlans.get(bestDay).add(poi);
+                dayTime[bestDay] += poi.timeHours;
+                dayCost[bestDay] += poi.estimatedCost;
                 System.out.println("Added " + poi.name + " to Day " + bestDay);
             }
         }
@@ -938,12 +2175,62 @@ public class ItineraryPlanner {
         return result;
     }
     
-    public void shutdown() {
-        if (tflite != null) {
-            tflite.close();
+    /**
+     * A standalone Poi for catalog row {@code row}, with the drawable for its category.
+     * Every Poi the planner hands out from the catalog is built here.
+     */
+    private Poi materialize(PoiCatalog source, int row) {
+        Poi poi = source.newPoi(row);
+        poi.thumbnailUrl = generateDrawableName(poi.category);
+        return poi;
+    }
+    
+    /**
+     * Lazy List view over the catalog; a Poi is materialized the first time its row is read
+     * and the same instance is returned afterwards. Lock-free: plans that race on a row may
+     * each build it, and all of them keep the copy that was published first.
+     */
+    private class CatalogPoiList extends AbstractList<Poi> implements RandomAccess {
+        private final PoiCatalog source;
+        private final AtomicReferenceArray<Poi> materialized;
+        
+        CatalogPoiList(PoiCatalog source) {
+            this.source = source;
+            this.materialized = new AtomicReferenceArray<>(source.size());
+        }
+        
+        @Override
+        public Poi get(int index) {
+            Poi poi = materialized.get(index);
+            if (poi == null) {
+                Poi built = materialize(source, index);
+                poi = materialized.compareAndSet(index, null, built) ? built : materialized.get(index);
+            }
+            return poi;
         }
-        if (executor != null) {
-            executor.shutdownNow();
+        
+        @Override
+        public int size() {
+            return materialized.length();
+        }
+    }
+    
+    public void shutdown() {
+        synchronized (ItineraryPlanner.class) {
+            if (instance == this) {
+                instance = null;
+            }
         }
+        // The lanes are app-wide; stop this planner's background work, not the threads
+        lifetime.cancel();
+        // Let in-flight init tasks finish so the interpreter is not closed mid-load
+        ready.whenComplete((planner, error) -> {
+            synchronized (interpreterLock) {
+                if (tflite != null) {
+                    tflite.close();
+                    tflite = null;
+                }
+            }
+        });
     }
 }
\ No newline at end of file
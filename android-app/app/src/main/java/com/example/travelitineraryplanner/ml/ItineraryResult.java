@@ -12,6 +12,14 @@ public class ItineraryResult implements Serializable {
     public List<Poi> pois;
     public Totals totals;
     public String summary;
+    // Ranked without the model because it was still loading; see ItineraryPlanner.upgradeOf
+    public boolean provisional;
+    public long upgradeId;
+    // Key of the ranking components kept for ItineraryPlanner.reweight (0 = none)
+    public long rankingId;
+    // Set when the location was a typo: what the user typed, and the nearest known names
+    public String correctedFrom;
+    public List<String> suggestions;
     
     public ItineraryResult() {
         this.dayPlans = new HashMap<>();
@@ -0,0 +1,448 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps free-text locations to canonical places of one PoiCatalog.
+ *
+ * Catalog cities and states whose names are aliases of each other ("bangalore" and
+ * "bengaluru", "maharastra" and "maharashtra") collapse into one place with one ID, so
+ * everything downstream (scope selection, reference points, the score table) keys on
+ * that ID instead of on strings. Each place carries its POI ranges, reference point,
+ * centroid and bounding box, precomputed once per catalog. Resolved inputs are kept in
+ * a small LRU, so repeated queries skip normalization and lookups entirely.
+ *
+ * Inputs that match nothing ("jaipor", "udaypur") are looked up in a BK-tree over every
+ * name and alias. A single clear nearest name is taken as a typo and resolved in place;
+ * otherwise the nearest names are returned as suggestions for the UI.
+ */
+public class LocationResolver {
+    // Bump when the alias tables change: place IDs and reference points change with them
+    public static final int ALIAS_VERSION = 1;
+    private static final int CACHE_SIZE = 64;
+    private static final int MAX_SUGGESTIONS = 3;
+    // Shorter inputs are too ambiguous to correct ("goa" is one edit from far too much)
+    private static final int MIN_CORRECTION_LENGTH = 3;
+
+    // Canonical name first, then its aliases
+    private static final String[][] CITY_ALIASES = {
+            {"bengaluru", "bangalore"},
+            {"mumbai", "bombay"},
+            {"kolkata", "calcutta"},
+            {"chennai", "madras"},
+            {"gurugram", "gurgaon"},
+            {"mysuru", "mysore"},
+            {"mangaluru", "mangalore"},
+            {"kochi", "cochin"},
+            {"thiruvananthapuram", "trivandrum"},
+            {"puducherry", "pondicherry", "pondy"},
+            {"varanasi", "benares", "banaras", "kashi"},
+            {"prayagraj", "allahabad"},
+            {"vadodara", "baroda"},
+            {"pune", "poona"},
+            {"shimla", "simla"},
+            {"udhagamandalam", "ooty", "ootacamund"},
+            {"kozhikode", "calicut"},
+            {"alappuzha", "alleppey"},
+            {"shivamogga", "shimoga"},
+            {"vijayapura", "bijapur"},
+            {"mahabalipuram", "mamallapuram"},
+            {"visakhapatnam", "vizag"},
+            {"delhi", "new delhi"},
+    };
+    private static final String[][] STATE_ALIASES = {
+            {"maharashtra", "maharastra"},
+            {"odisha", "orissa"},
+            {"puducherry", "pondicherry"},
+            {"uttarakhand", "uttaranchal"},
+            {"delhi", "nct of delhi", "new delhi"},
+    };
+
+    /**
+     * A canonical city or state: the union of its catalog cities/states.
+     */
+    public static final class Place {
+        public final int id;          // unique across cities and states
+        public final String name;     // canonical name (normalized)
+        public final boolean city;
+        // Catalog POI ranges [start, end) of every catalog city/state in this place
+        final int[] poiRanges;
+        // Catalog POI whose coordinates are the place's reference point, -1 if none
+        public final int referencePoi;
+        public final double centroidLatitude;
+        public final double centroidLongitude;
+        public final double minLatitude;
+        public final double maxLatitude;
+        public final double minLongitude;
+        public final double maxLongitude;
+
+        Place(int id, String name, boolean city, int[] poiRanges, PoiCatalog catalog) {
+            this.id = id;
+            this.name = name;
+            this.city = city;
+            this.poiRanges = poiRanges;
+            this.referencePoi = poiRanges.length > 0 && poiRanges[0] < poiRanges[1] ? poiRanges[0] : -1;
+
+            double latSum = 0, lonSum = 0;
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+            int located = 0;
+            for (int r = 0; r < poiRanges.length; r += 2) {
+                for (int poi = poiRanges[r]; poi < poiRanges[r + 1]; poi++) {
+                    double lat = catalog.latitude(poi);
+                    double lon = catalog.longitude(poi);
+                    if (lat == 0.0 && lon == 0.0) continue; // no coordinates
+                    latSum += lat;
+                    lonSum += lon;
+                    minLat = Math.min(minLat, lat);
+                    maxLat = Math.max(maxLat, lat);
+                    minLon = Math.min(minLon, lon);
+                    maxLon = Math.max(maxLon, lon);
+                    located++;
+                }
+            }
+            this.centroidLatitude = located > 0 ? latSum / located : 0.0;
+            this.centroidLongitude = located > 0 ? lonSum / located : 0.0;
+            this.minLatitude = located > 0 ? minLat : 0.0;
+            this.maxLatitude = located > 0 ? maxLat : 0.0;
+            this.minLongitude = located > 0 ? minLon : 0.0;
+            this.maxLongitude = located > 0 ? maxLon : 0.0;
+        }
+
+        public int poiCount() {
+            int count = 0;
+            for (int r = 0; r < poiRanges.length; r += 2) {
+                count += poiRanges[r + 1] - poiRanges[r];
+            }
+            return count;
+        }
+
+        public boolean contains(double latitude, double longitude) {
+            return latitude >= minLatitude && latitude <= maxLatitude
+                    && longitude >= minLongitude && longitude <= maxLongitude;
+        }
+    }
+
+    /**
+     * What a free-text location resolved to. {@code city} and {@code state} are exact
+     * (or alias) matches and can both be set ("delhi"); {@code partial} holds places whose
+     * name merely contains the input, cities first, for the last-resort fuzzy scope.
+     * {@code corrected} is the name a typo was auto-corrected to (null if none), and
+     * {@code suggestions} the nearest names when the input matched nothing.
+     */
+    public static final class Resolution {
+        public final String key;
+        public final Place city;
+        public final Place state;
+        public final List<Place> partial;
+        public final String corrected;
+        public final List<String> suggestions;
+
+        Resolution(String key, Place city, Place state, List<Place> partial,
+                   String corrected, List<String> suggestions) {
+            this.key = key;
+            this.city = city;
+            this.state = state;
+            this.partial = partial;
+            this.corrected = corrected;
+            this.suggestions = suggestions;
+        }
+
+        public boolean isEmpty() {
+            return city == null && state == null && partial.isEmpty();
+        }
+
+        /** The place whose reference point anchors distances: city, else state, else first partial match. */
+        public Place primary() {
+            if (city != null) return city;
+            if (state != null) return state;
+            return partial.isEmpty() ? null : partial.get(0);
+        }
+    }
+
+    private final PoiCatalog catalog;
+    private final List<Place> cities = new ArrayList<>();
+    private final List<Place> states = new ArrayList<>();
+    private final Map<String, Place> cityByKey = new HashMap<>();
+    private final Map<String, Place> stateByKey = new HashMap<>();
+    // Every name and alias key per place, for partial matching
+    private final Map<Place, List<String>> keysByPlace = new HashMap<>();
+    // The same keys, indexed by edit distance for typo correction
+    private final BkTree names = new BkTree();
+    // Catalog city index -> canonical city place ID
+    private final int[] placeOfCity;
+    private final Map<String, Resolution> cache =
+            new LinkedHashMap<String, Resolution>(CACHE_SIZE + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Resolution> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    public LocationResolver(PoiCatalog catalog) {
+        this.catalog = catalog;
+        this.placeOfCity = new int[catalog.cityCount()];
+
+        // Group catalog cities and states by canonical name, in catalog order
+        Map<String, List<Integer>> cityGroups = new LinkedHashMap<>();
+        for (int city = 0; city < catalog.cityCount(); city++) {
+            String key = canonical(normalize(catalog.cityName(city)), CITY_ALIASES);
+            cityGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(city);
+        }
+        Map<String, List<Integer>> stateGroups = new LinkedHashMap<>();
+        for (int state = 0; state < catalog.stateCount(); state++) {
+            String key = canonical(normalize(catalog.stateName(state)), STATE_ALIASES);
+            stateGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(state);
+        }
+
+        int nextId = 0;
+        for (Map.Entry<String, List<Integer>> group : cityGroups.entrySet()) {
+            List<Integer> members = group.getValue();
+            int[] ranges = new int[members.size() * 2];
+            for (int i = 0; i < members.size(); i++) {
+                ranges[2 * i] = catalog.cityPoiStart(members.get(i));
+                ranges[2 * i + 1] = catalog.cityPoiEnd(members.get(i));
+            }
+            Place place = new Place(nextId++, group.getKey(), true, ranges, catalog);
+            cities.add(place);
+            for (int city : members) {
+                placeOfCity[city] = place.id;
+                register(cityByKey, place, normalize(catalog.cityName(city)));
+            }
+            register(cityByKey, place, group.getKey());
+            registerAliases(cityByKey, place, CITY_ALIASES);
+        }
+        for (Map.Entry<String, List<Integer>> group : stateGroups.entrySet()) {
+            List<Integer> members = group.getValue();
+            int[] ranges = new int[members.size() * 2];
+            for (int i = 0; i < members.size(); i++) {
+                ranges[2 * i] = catalog.statePoiStart(members.get(i));
+                ranges[2 * i + 1] = catalog.statePoiEnd(members.get(i));
+            }
+            Place place = new Place(nextId++, group.getKey(), false, ranges, catalog);
+            states.add(place);
+            for (int state : members) {
+                register(stateByKey, place, normalize(catalog.stateName(state)));
+            }
+            register(stateByKey, place, group.getKey());
+            registerAliases(stateByKey, place, STATE_ALIASES);
+        }
+    }
+
+    private void register(Map<String, Place> byKey, Place place, String key) {
+        byKey.putIfAbsent(key, place);
+        names.add(key);
+        List<String> keys = keysByPlace.computeIfAbsent(place, p -> new ArrayList<>());
+        if (!keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+
+    private void registerAliases(Map<String, Place> byKey, Place place, String[][] aliases) {
+        for (String[] group : aliases) {
+            if (group[0].equals(place.name)) {
+                for (String alias : group) {
+                    register(byKey, place, alias);
+                }
+            }
+        }
+    }
+
+    private static String canonical(String key, String[][] aliases) {
+        for (String[] group : aliases) {
+            for (String alias : group) {
+                if (alias.equals(key)) {
+                    return group[0];
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Lower case, punctuation as spaces, whitespace collapsed: "  New-Delhi " -> "new delhi".
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public Resolution resolve(String text) {
+        String raw = text == null ? "" : text;
+        synchronized (cache) {
+            Resolution cached = cache.get(raw);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String key = normalize(raw);
+        Place city = cityByKey.get(key);
+        Place state = stateByKey.get(key);
+        List<Place> partial = new ArrayList<>();
+        if (!key.isEmpty()) {
+            addPartialMatches(cities, key, partial);
+            addPartialMatches(states, key, partial);
+        }
+        Resolution resolution;
+        if (city == null && state == null && partial.isEmpty()) {
+            resolution = correct(key);
+        } else {
+            resolution = new Resolution(key, city, state, Collections.unmodifiableList(partial),
+                    null, Collections.<String>emptyList());
+        }
+
+        synchronized (cache) {
+            cache.put(raw, resolution);
+        }
+        return resolution;
+    }
+
+    /**
+     * Resolution for an input that matched no name: the nearest name if it is a clear
+     * typo (close enough and strictly nearer than any other place), otherwise nothing
+     * but suggestions.
+     */
+    private Resolution correct(String key) {
+        List<BkTree.Match> nearest = nearest(key);
+        List<String> suggestions = new ArrayList<>(nearest.size());
+        for (BkTree.Match match : nearest) {
+            suggestions.add(match.word);
+        }
+        suggestions = Collections.unmodifiableList(suggestions);
+
+        if (!nearest.isEmpty()) {
+            BkTree.Match best = nearest.get(0);
+            boolean unique = nearest.size() == 1 || nearest.get(1).distance > best.distance;
+            if (unique && best.distance <= autoCorrectDistance(key.length())) {
+                System.out.println("Corrected location '" + key + "' to '" + best.word + "'");
+                return new Resolution(best.word, cityByKey.get(best.word), stateByKey.get(best.word),
+                        Collections.<Place>emptyList(), best.word, suggestions);
+            }
+        }
+        return new Resolution(key, null, null, Collections.<Place>emptyList(), null, suggestions);
+    }
+
+    /**
+     * Up to MAX_SUGGESTIONS names within typo distance of the input, nearest first, one
+     * name per place (bigger places first on equal distance).
+     */
+    public List<String> suggest(String text) {
+        List<String> suggestions = new ArrayList<>();
+        for (BkTree.Match match : nearest(normalize(text))) {
+            suggestions.add(match.word);
+        }
+        return suggestions;
+    }
+
+    private List<BkTree.Match> nearest(String key) {
+        if (key.length() < MIN_CORRECTION_LENGTH) {
+            return Collections.emptyList();
+        }
+        List<BkTree.Match> matches = names.search(key, maxDistance(key.length()));
+        matches.sort((a, b) -> {
+            if (a.distance != b.distance) return Integer.compare(a.distance, b.distance);
+            int sizes = Integer.compare(placeOf(b.word).poiCount(), placeOf(a.word).poiCount());
+            return sizes != 0 ? sizes : a.word.compareTo(b.word);
+        });
+        List<BkTree.Match> nearest = new ArrayList<>(MAX_SUGGESTIONS);
+        List<Place> seen = new ArrayList<>(MAX_SUGGESTIONS);
+        for (BkTree.Match match : matches) {
+            Place place = placeOf(match.word);
+            if (seen.contains(place)) continue; // "bengaluru" after "bangalore"
+            seen.add(place);
+            nearest.add(match);
+            if (nearest.size() == MAX_SUGGESTIONS) break;
+        }
+        return nearest;
+    }
+
+    private Place placeOf(String key) {
+        Place city = cityByKey.get(key);
+        return city != null ? city : stateByKey.get(key);
+    }
+
+    // Typos tolerated by suggestions: about one per four characters
+    private static int maxDistance(int length) {
+        return length <= 4 ? 1 : length <= 8 ? 2 : 3;
+    }
+
+    // Typos corrected without asking
+    private static int autoCorrectDistance(int length) {
+        return length < 8 ? 1 : 2;
+    }
+
+    private void addPartialMatches(List<Place> places, String key, List<Place> out) {
+        for (Place place : places) {
+            for (String name : keysByPlace.get(place)) {
+                if (name.contains(key)) {
+                    out.add(place);
+                    break;
+                }
+            }
+        }
+    }
+
+    public int cityCount() {
+        return cities.size();
+    }
+
+    public Place city(int index) {
+        return cities.get(index);
+    }
+
+    public int stateCount() {
+        return states.size();
+    }
+
+    public Place state(int index) {
+        return states.get(index);
+    }
+
+    /** Every normalized name and alias the place is known by, canonical name included. */
+    List<String> keysOf(Place place) {
+        return Collections.unmodifiableList(keysByPlace.get(place));
+    }
+
+    /** Canonical city place ID of a catalog POI. */
+    public int cityIdOf(int poi) {
+        return placeOfCity[catalog.cityIndexOf(poi)];
+    }
+
+    /** Canonical city place of a catalog POI. */
+    public Place cityOf(int poi) {
+        return cities.get(cityIdOf(poi)); // city IDs are their list positions
+    }
+
+    /**
+     * Hash of the catalog plus the alias tables, for caches that depend on place IDs
+     * and reference points.
+     */
+    public long contentHash() {
+        return catalog.contentHash() * 31 + ALIAS_VERSION;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.travelitineraryplanner.ml;
 
 import java.io.Serializable;
 
-// Simple POI model used by the planner
+// Simple POI model used by the planner. The planner's catalog POIs are shared by every
+// plan in flight and never leave it: results carry copies (see copy()), which their
+// callers are free to edit. Scores are per request.
 public class Poi implements Serializable {
     public String id = "";
     public String name = "";
@@ -20,13 +22,31 @@ public class Poi implements Serializable {
     public String address = "";
     public int day = 1;
     public String time = "";
+    // Row in the PoiCatalog this POI was materialized from (-1 if not from the catalog)
+    public int catalogIndex = -1;
 
-    // Scoring fields (computed)
-    public double proximityScore = 0.0;
-    public double proximityBoost = 1.0;
-    public double budgetMatchScore = 0.5;
-    public double modelScore = 0.0;
-    public double finalScore = 0.0;
+    // A standalone copy with the same fields, for handing a shared POI to a caller
+    public Poi copy() {
+        Poi p = new Poi();
+        p.id = id;
+        p.name = name;
+        p.category = category;
+        p.description = description;
+        p.city = city;
+        p.state = state;
+        p.latitude = latitude;
+        p.longitude = longitude;
+        p.estimatedCost = estimatedCost;
+        p.timeHours = timeHours;
+        p.popularityScore = popularityScore;
+        p.costCategory = costCategory;
+        p.thumbnailUrl = thumbnailUrl;
+        p.address = address;
+        p.day = day;
+        p.time = time;
+        p.catalogIndex = catalogIndex;
+        return p;
+    }
 
     // Haversine distance (km) from this POI to (lat, lon)
     public double distanceTo(double lat, double lon) {
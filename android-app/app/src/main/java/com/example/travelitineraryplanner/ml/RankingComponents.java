@@ -0,0 +1,109 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw ranking components of one plan's candidates, kept as primitive arrays so a change
+ * of RankingWeights only re-blends and re-sorts: no model call, no feature building, no rescope.
+ */
+class RankingComponents {
+    final String location;
+    final int days;
+    final String budget;
+    // Candidates in the order the planner ranked them; the arrays below are aligned with it
+    final Poi[] pois;
+    final float[] base;       // model score (popularity when no model scored the plan)
+    final float[] popularity;
+    final float[] proximity;  // 1 / (1 + km to the location's reference point)
+    final float[] cheapness;  // 1 - cost / daily budget, clamped to [0, 1]
+    private final float[] blended;
+    // Catalog row -> position in the arrays above, built on first lookup
+    private Map<Integer, Integer> positions;
+
+    RankingComponents(String location, int days, String budget, int size) {
+        this.location = location;
+        this.days = days;
+        this.budget = budget;
+        this.pois = new Poi[size];
+        this.base = new float[size];
+        this.popularity = new float[size];
+        this.proximity = new float[size];
+        this.cheapness = new float[size];
+        this.blended = new float[size];
+    }
+
+    int size() {
+        return pois.length;
+    }
+
+    List<Poi> ranked() {
+        return new ArrayList<>(Arrays.asList(pois));
+    }
+
+    /**
+     * Candidates re-ranked by {@code weights}; ties keep the planner's original order.
+     */
+    synchronized List<Poi> rank(RankingWeights weights) {
+        int n = pois.length;
+        for (int i = 0; i < n; i++) {
+            blended[i] = weights.model * base[i] + weights.popular * popularity[i]
+                    + weights.nearby * proximity[i] + weights.cheap * cheapness[i];
+        }
+        int[] order = rankDescending(blended, n);
+        List<Poi> ranked = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ranked.add(pois[order[i]]);
+        }
+        return ranked;
+    }
+
+    /**
+     * Base score of catalog row {@code catalogIndex}, or {@code missing} if it was not a
+     * candidate of this plan.
+     */
+    synchronized float baseScoreOf(int catalogIndex, float missing) {
+        if (positions == null) {
+            positions = new HashMap<>(pois.length * 2);
+            for (int i = 0; i < pois.length; i++) {
+                positions.put(pois[i].catalogIndex, i);
+            }
+        }
+        Integer position = positions.get(catalogIndex);
+        return position != null ? base[position] : missing;
+    }
+
+    float lowestBase() {
+        float lowest = Float.POSITIVE_INFINITY;
+        for (float score : base) {
+            lowest = Math.min(lowest, score);
+        }
+        return pois.length > 0 ? lowest : 0f;
+    }
+
+    /**
+     * Indices of {@code scores[0..count)} from highest to lowest score, lower index first on
+     * ties. Each (score, index) pair is packed into one long whose natural order matches,
+     * so ranking is a single primitive sort.
+     */
+    static int[] rankDescending(float[] scores, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            float score = Float.isNaN(scores[i]) ? Float.NEGATIVE_INFINITY : scores[i];
+            int bits = Float.floatToIntBits(score + 0.0f); // + 0.0f folds -0.0 into 0.0
+            // Flip the magnitude bits of negatives so signed int order is float order
+            bits ^= (bits >> 31) & 0x7fffffff;
+            // Higher score first: negate into the high half, index ascending in the low half
+            keys[i] = ((long) ~bits << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+}
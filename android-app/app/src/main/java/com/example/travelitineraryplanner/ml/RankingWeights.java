@@ -0,0 +1,51 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.io.Serializable;
+
+/**
+ * Blend weights for the per-POI ranking components kept by the planner:
+ * the model (or fallback) score, popularity, proximity and cheapness.
+ * See ItineraryPlanner.reweight.
+ */
+public class RankingWeights implements Serializable {
+    // The planner's own blend: model_score * 0.9 + proximity_boost * 0.1
+    public static final RankingWeights DEFAULT = new RankingWeights(0.9f, 0f, 0.1f, 0f);
+
+    public final float model;
+    public final float popular;
+    public final float nearby;
+    public final float cheap;
+
+    public RankingWeights(float model, float popular, float nearby, float cheap) {
+        this.model = model;
+        this.popular = popular;
+        this.nearby = nearby;
+        this.cheap = cheap;
+    }
+
+    /**
+     * Weights for "popular / nearby / cheap" preferences in [0, 1] on top of the default
+     * blend; all-zero preferences give DEFAULT. The result is normalized to sum to 1.
+     */
+    public static RankingWeights fromPreferences(float popular, float nearby, float cheap) {
+        float p = clamp(popular);
+        float n = DEFAULT.nearby + clamp(nearby);
+        float c = clamp(cheap);
+        float sum = DEFAULT.model + p + n + c;
+        return new RankingWeights(DEFAULT.model / sum, p / sum, n / sum, c / sum);
+    }
+
+    private static float clamp(float value) {
+        return Float.isNaN(value) ? 0f : Math.max(0f, Math.min(1f, value));
+    }
+
+    public boolean isDefault() {
+        return Math.abs(model - DEFAULT.model) < 1e-6f && Math.abs(popular - DEFAULT.popular) < 1e-6f
+                && Math.abs(nearby - DEFAULT.nearby) < 1e-6f && Math.abs(cheap - DEFAULT.cheap) < 1e-6f;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("model=%.2f popular=%.2f nearby=%.2f cheap=%.2f", model, popular, nearby, cheap);
+    }
+}
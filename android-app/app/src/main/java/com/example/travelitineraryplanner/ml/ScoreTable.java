@@ -0,0 +1,132 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Precomputed model scores for every catalog POI at every budget level, with the distance
+ * feature measured from the POI's own city reference point (the city's first POI).
+ *
+ * A plan scoped to one known city therefore reads its scores here instead of running the
+ * model. The table is only valid for the model and catalog it was computed from, so both
+ * hashes are stored in the header and checked on open.
+ *
+ * Layout (little endian):
+ *   [0]  int   magic
+ *   [4]  int   version
+ *   [8]  long  model hash
+ *   [16] long  catalog content hash
+ *   [24] int   budget level count
+ *   [28] int   POI count
+ *   [32] float[budget count][POI count] scores, budget-major
+ */
+public class ScoreTable {
+    public static final int MAGIC = 0x31425453; // "STB1"
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final long modelHash;
+    private final long catalogHash;
+    private final int budgetCount;
+    private final int poiCount;
+    private final FloatBuffer scores;
+
+    private ScoreTable(long modelHash, long catalogHash, int budgetCount, int poiCount, FloatBuffer scores) {
+        this.modelHash = modelHash;
+        this.catalogHash = catalogHash;
+        this.budgetCount = budgetCount;
+        this.poiCount = poiCount;
+        this.scores = scores;
+    }
+
+    /**
+     * Wraps freshly computed scores ({@code scores[budget * poiCount + poi]}).
+     */
+    public static ScoreTable of(long modelHash, long catalogHash, int budgetCount, int poiCount, float[] scores) {
+        if (scores.length != budgetCount * poiCount) {
+            throw new IllegalArgumentException("Expected " + budgetCount * poiCount + " scores, got " + scores.length);
+        }
+        return new ScoreTable(modelHash, catalogHash, budgetCount, poiCount, FloatBuffer.wrap(scores));
+    }
+
+    /**
+     * Maps a table written by writeTo. Returns null if there is no table, or if it was
+     * computed for another model or catalog, or is corrupt.
+     */
+    public static ScoreTable open(File file, long modelHash, long catalogHash, int budgetCount) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                System.out.println("Ignoring unreadable score table");
+                return null;
+            }
+            if (buffer.getLong(8) != modelHash || buffer.getLong(16) != catalogHash) {
+                System.out.println("Score table is for another model or catalog");
+                return null;
+            }
+            int budgets = buffer.getInt(24);
+            int pois = buffer.getInt(28);
+            if (budgets != budgetCount || pois < 0 || buffer.limit() != HEADER_SIZE + (long) budgets * pois * 4) {
+                System.out.println("Ignoring score table with unexpected size");
+                return null;
+            }
+            buffer.position(HEADER_SIZE);
+            return new ScoreTable(modelHash, catalogHash, budgets, pois, buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+        } catch (IOException e) {
+            System.out.println("Could not open score table: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the table to {@code file} through a temporary file, so a reader never maps
+     * a half-written table.
+     */
+    public void writeTo(File file) throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        file.getParentFile().mkdirs();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(modelHash).putLong(catalogHash)
+                .putInt(budgetCount).putInt(poiCount);
+        ByteBuffer body = ByteBuffer.allocate(budgetCount * poiCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+        FloatBuffer source = scores.duplicate();
+        source.position(0);
+        body.asFloatBuffer().put(source);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(header.array());
+            out.write(body.array());
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not move score table into place");
+        }
+    }
+
+    public long modelHash() {
+        return modelHash;
+    }
+
+    public long catalogHash() {
+        return catalogHash;
+    }
+
+    public int poiCount() {
+        return poiCount;
+    }
+
+    public float score(int budget, int poi) {
+        return scores.get(budget * poiCount + poi);
+    }
+}
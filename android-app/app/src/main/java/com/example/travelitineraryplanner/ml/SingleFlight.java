@@ -0,0 +1,117 @@
+package com.example.travelitineraryplanner.ml;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent computations of the same key.
+ *
+ * The first caller for a key starts the computation on the executor; callers that arrive
+ * while it is in flight wait on the same computation, and all of them get its result.
+ * A caller leaves when its token is cancelled or it is interrupted while it waits. When
+ * the last waiter leaves, the flight is cancelled: its own token is cancelled and its
+ * thread interrupted, and the next caller for the key starts a fresh one. Nothing is
+ * remembered once a flight lands; caching results is up to the caller.
+ */
+class SingleFlight<K, V> {
+
+    private final class Flight extends FutureTask<V> {
+        final K key;
+        final CancellationToken token;
+        final List<CompletableFuture<V>> waiters = new ArrayList<>(); // guarded by flights
+
+        Flight(K key, CancellationToken token, Function<CancellationToken, V> computation) {
+            super(() -> computation.apply(token));
+            this.key = key;
+            this.token = token;
+        }
+
+        @Override
+        protected void done() {
+            List<CompletableFuture<V>> landed;
+            synchronized (flights) {
+                flights.remove(key, this);
+                landed = new ArrayList<>(waiters);
+            }
+            for (CompletableFuture<V> waiter : landed) {
+                try {
+                    waiter.complete(get());
+                } catch (ExecutionException e) {
+                    waiter.completeExceptionally(e.getCause());
+                } catch (CancellationException | InterruptedException e) {
+                    waiter.cancel(false);
+                }
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final Map<K, Flight> flights = new HashMap<>();
+
+    SingleFlight(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The result of {@code computation} for {@code key}, computed once for every caller
+     * that asks while it is in flight. The computation gets the flight's token, which is
+     * cancelled once nobody waits for the result any more.
+     *
+     * @throws CancellationException if {@code caller} was cancelled while waiting
+     * @throws InterruptedException if this caller was interrupted while waiting
+     * @throws ExecutionException if the computation threw
+     */
+    V join(K key, CancellationToken caller, Function<CancellationToken, V> computation)
+            throws InterruptedException, ExecutionException {
+        CompletableFuture<V> waiter = new CompletableFuture<>();
+        Flight flight;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight(key, new CancellationToken(), computation);
+                flights.put(key, flight);
+                leader = true;
+            }
+            flight.waiters.add(waiter);
+        }
+        if (leader) {
+            try {
+                executor.execute(flight);
+            } catch (RejectedExecutionException e) {
+                flight.cancel(false);
+                throw e;
+            }
+        }
+
+        caller.onCancel(() -> waiter.cancel(false));
+        try {
+            return waiter.get();
+        } finally {
+            synchronized (flights) {
+                flight.waiters.remove(waiter);
+                if (flight.waiters.isEmpty() && !flight.isDone()) {
+                    // Nobody is left to take the result
+                    flight.token.cancel();
+                    flight.cancel(true);
+                }
+            }
+        }
+    }
+
+    /** Number of computations in flight. */
+    int inFlight() {
+        synchronized (flights) {
+            return flights.size();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Uniform lat/lon grid over the catalog's POIs for k-nearest-neighbour and radius queries.
+ *
+ * POIs are bucketed into CELL_DEGREES cells; the occupied cells are one sorted key array
+ * with offsets into a row array (CSR layout), so a cell lookup is a binary search. A
+ * query scans rings of cells outward from the query's cell and stops once the k-th best
+ * distance is within the distance every unscanned cell is guaranteed to be beyond.
+ * POIs without coordinates (0, 0) are not indexed. Longitudes do not wrap around the
+ * antimeridian; the catalog does not come near it.
+ */
+public class SpatialIndex {
+    static final double CELL_DEGREES = 0.1; // about 11 km north-south
+    private static final int COLUMNS = (int) Math.ceil(360 / CELL_DEGREES);
+    private static final double KM_PER_DEGREE = 111.19;
+
+    private final PoiCatalog catalog;
+    private final int[] cellKeys;   // occupied cells, ascending
+    private final int[] cellStarts; // cellKeys.length + 1 offsets into rows
+    private final int[] rows;       // catalog rows grouped by cell
+    // Occupied cell extent, to know when a ring search has seen everything
+    private final int minRow, maxRow, minColumn, maxColumn;
+
+    public SpatialIndex(PoiCatalog catalog) {
+        this.catalog = catalog;
+        int n = catalog.size();
+        long[] keyed = new long[n];
+        int count = 0;
+        int rowLo = Integer.MAX_VALUE, rowHi = Integer.MIN_VALUE;
+        int colLo = Integer.MAX_VALUE, colHi = Integer.MIN_VALUE;
+        for (int poi = 0; poi < n; poi++) {
+            double lat = catalog.latitude(poi);
+            double lon = catalog.longitude(poi);
+            if (lat == 0.0 && lon == 0.0) continue; // no coordinates
+            int row = row(lat);
+            int column = column(lon);
+            rowLo = Math.min(rowLo, row);
+            rowHi = Math.max(rowHi, row);
+            colLo = Math.min(colLo, column);
+            colHi = Math.max(colHi, column);
+            // Cell key in the high half, row in the low half: one sort groups by cell
+            keyed[count++] = ((long) (row * COLUMNS + column) << 32) | poi;
+        }
+        Arrays.sort(keyed, 0, count);
+
+        int[] keys = new int[count];
+        int[] starts = new int[count + 1];
+        rows = new int[count];
+        int cells = 0;
+        for (int i = 0; i < count; i++) {
+            int key = (int) (keyed[i] >>> 32);
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+            rows[i] = (int) keyed[i];
+        }
+        starts[cells] = count;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStarts = Arrays.copyOf(starts, cells + 1);
+        minRow = rowLo;
+        maxRow = rowHi;
+        minColumn = colLo;
+        maxColumn = colHi;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Up to {@code k} catalog rows nearest to (lat, lon) that {@code accept} lets through,
+     * nearest first.
+     */
+    public int[] nearest(double latitude, double longitude, int k, IntPredicate accept) {
+        if (k <= 0 || rows.length == 0) {
+            return new int[0];
+        }
+        int[] best = new int[k];
+        double[] bestKm = new double[k];
+        int[] found = {0};
+        IntConsumer scan = cell -> {
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                int poi = rows[i];
+                double km = distanceKm(latitude, longitude, catalog.latitude(poi), catalog.longitude(poi));
+                if (found[0] == k && km >= bestKm[k - 1]) continue;
+                if (accept != null && !accept.test(poi)) continue;
+                // Insert into the sorted best-k
+                int at = found[0] < k ? found[0]++ : k - 1;
+                while (at > 0 && bestKm[at - 1] > km) {
+                    best[at] = best[at - 1];
+                    bestKm[at] = bestKm[at - 1];
+                    at--;
+                }
+                best[at] = poi;
+                bestKm[at] = km;
+            }
+        };
+
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        // Rings closer in than the occupied extent hold nothing
+        int firstRing = Math.max(Math.max(0, Math.max(minRow - centerRow, centerRow - maxRow)),
+                                 Math.max(minColumn - centerColumn, centerColumn - maxColumn));
+        for (int ring = firstRing; ; ring++) {
+            forEachCellInRing(centerRow, centerColumn, ring, scan);
+            if (coversAll(centerRow, centerColumn, ring)
+                    || (found[0] == k && bestKm[k - 1] <= ringClearanceKm(latitude, ring))) {
+                break; // nothing outside this ring can be nearer
+            }
+        }
+        return Arrays.copyOf(best, found[0]);
+    }
+
+    /**
+     * Catalog rows within {@code radiusKm} of (lat, lon) that {@code accept} lets through,
+     * nearest first. Only rings that can hold such rows are scanned.
+     */
+    public int[] within(double latitude, double longitude, double radiusKm, IntPredicate accept) {
+        if (rows.length == 0 || radiusKm < 0) {
+            return new int[0];
+        }
+        long[][] hits = {new long[16]};
+        int[] found = {0};
+        IntConsumer scan = cell -> {
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                int poi = rows[i];
+                double km = distanceKm(latitude, longitude, catalog.latitude(poi), catalog.longitude(poi));
+                if (km > radiusKm || (accept != null && !accept.test(poi))) continue;
+                if (found[0] == hits[0].length) {
+                    hits[0] = Arrays.copyOf(hits[0], found[0] * 2);
+                }
+                // Non-negative float bits sort like the distances themselves
+                hits[0][found[0]++] = ((long) Float.floatToIntBits((float) km) << 32) | poi;
+            }
+        };
+
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        // Cells beyond a ring are at least ringClearanceKm away; stop once that passes the radius
+        for (int ring = 0; ; ring++) {
+            forEachCellInRing(centerRow, centerColumn, ring, scan);
+            if (coversAll(centerRow, centerColumn, ring) || ringClearanceKm(latitude, ring) > radiusKm) {
+                break;
+            }
+        }
+        Arrays.sort(hits[0], 0, found[0]);
+        int[] result = new int[found[0]];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) hits[0][i];
+        }
+        return result;
+    }
+
+    // Occupied cells on the square ring {@code ring} cells out from the center cell
+    private void forEachCellInRing(int centerRow, int centerColumn, int ring, IntConsumer visitor) {
+        int rowFrom = Math.max(minRow, centerRow - ring);
+        int rowTo = Math.min(maxRow, centerRow + ring);
+        int columnFrom = Math.max(minColumn, centerColumn - ring);
+        int columnTo = Math.min(maxColumn, centerColumn + ring);
+        for (int row = rowFrom; row <= rowTo; row++) {
+            boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+            for (int column = columnFrom; column <= columnTo; column++) {
+                if (!edgeRow && column != centerColumn - ring && column != centerColumn + ring) {
+                    // Inner rows of the ring only have their two edge cells
+                    column = centerColumn + ring - 1;
+                    continue;
+                }
+                int cell = Arrays.binarySearch(cellKeys, row * COLUMNS + column);
+                if (cell >= 0) {
+                    visitor.accept(cell);
+                }
+            }
+        }
+    }
+
+    private boolean coversAll(int centerRow, int centerColumn, int ring) {
+        return centerRow - ring <= minRow && centerRow + ring >= maxRow
+                && centerColumn - ring <= minColumn && centerColumn + ring >= maxColumn;
+    }
+
+    /**
+     * Lower bound on the distance from a point in the center cell to any cell outside ring
+     * {@code ring}: ring cells of margin in the narrower (east-west at high latitude) axis.
+     */
+    private static double ringClearanceKm(double latitude, int ring) {
+        double farLatitude = Math.min(89.0, Math.abs(latitude) + (ring + 1) * CELL_DEGREES);
+        return ring * CELL_DEGREES * KM_PER_DEGREE * Math.cos(Math.toRadians(farLatitude));
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return Math.min(COLUMNS - 1, (int) Math.floor((longitude + 180) / CELL_DEGREES));
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Streaming RFC 4180 parser that feeds POI rows straight into a {@link PoiCatalogBuilder}.
+ *
+ * Input is read through one fixed-size window; each field is copied once into a reusable
+ * scratch array, numbers are parsed from those bytes and strings are interned by their
+ * UTF-8 bytes. No per-line or per-field String is created, so the parse working set is
+ * constant no matter how large the catalog is.
+ *
+ * Columns are matched by header name. Required: city, state, attraction_name, category,
+ * latitude, longitude, estimated_visit_cost_inr, time_hours. Optional: description,
+ * cost_category, popularity_norm.
+ */
+public class CsvCatalogReader {
+    private static final int WINDOW_SIZE = 16 * 1024;
+
+    // Column roles
+    private static final int ROLE_IGNORED = -1;
+    private static final int ROLE_CITY = 0;
+    private static final int ROLE_STATE = 1;
+    private static final int ROLE_NAME = 2;
+    private static final int ROLE_CATEGORY = 3;
+    private static final int ROLE_DESCRIPTION = 4;
+    private static final int ROLE_COST_CATEGORY = 5;
+    private static final int ROLE_LATITUDE = 6;
+    private static final int ROLE_LONGITUDE = 7;
+    private static final int ROLE_COST = 8;
+    private static final int ROLE_TIME = 9;
+    private static final int ROLE_POPULARITY = 10;
+    private static final int ROLE_COUNT = 11;
+    private static final int FIRST_NUMERIC_ROLE = ROLE_LATITUDE;
+
+    private static final String[] ROLE_COLUMNS = {
+            "city", "state", "attraction_name", "category", "description", "cost_category",
+            "latitude", "longitude", "estimated_visit_cost_inr", "time_hours", "popularity_norm"
+    };
+    private static final boolean[] ROLE_REQUIRED = {
+            true, true, true, true, false, false, true, true, true, true, false
+    };
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final PoiCatalogBuilder builder;
+    private double costMean = 0.0;
+    private double costScale = 1.0;
+    private double timeMean = 0.0;
+    private double timeScale = 1.0;
+
+    // Parse state (reused across rows)
+    private byte[] field = new byte[256];
+    private int fieldLength;
+    private int[] columnRoles = new int[0];
+    private int columnCount;
+    private final int[] rowStrings = new int[FIRST_NUMERIC_ROLE];
+    private final double[] rowNumbers = new double[ROLE_COUNT - FIRST_NUMERIC_ROLE];
+    private int rowColumn;
+    private boolean rowValid;
+    private boolean headerDone;
+    private int rowsAdded;
+    private int rowsSkipped;
+
+    public CsvCatalogReader(PoiCatalogBuilder builder) {
+        this.builder = builder;
+    }
+
+    /** Cost column is standard-scaled: actual = value * scale + mean. */
+    public CsvCatalogReader scaleCost(double mean, double scale) {
+        this.costMean = mean;
+        this.costScale = scale;
+        return this;
+    }
+
+    /** Time column is standard-scaled: actual = value * scale + mean. */
+    public CsvCatalogReader scaleTime(double mean, double scale) {
+        this.timeMean = mean;
+        this.timeScale = scale;
+        return this;
+    }
+
+    public int rowsAdded() {
+        return rowsAdded;
+    }
+
+    public int rowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public int read(InputStream in) throws IOException {
+        return read(Channels.newChannel(in));
+    }
+
+    /**
+     * Parses the whole channel. Returns the number of rows added to the builder.
+     */
+    public int read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+        boolean inQuotes = false;
+        boolean quotePending = false; // saw a quote inside a quoted field; next byte decides
+        boolean lastWasCr = false;
+        boolean atStart = true;
+        boolean rowHasData = false;
+        fieldLength = 0;
+        startRow();
+
+        while (channel.read(window) != -1 || window.position() > 0) {
+            window.flip();
+            if (!window.hasRemaining()) {
+                break;
+            }
+            if (atStart) {
+                skipBom(window);
+                atStart = false;
+            }
+            while (window.hasRemaining()) {
+                byte b = window.get();
+                if (quotePending) {
+                    quotePending = false;
+                    if (b == '"') {
+                        append(b); // escaped quote ("")
+                        continue;
+                    }
+                    inQuotes = false; // closing quote; fall through to handle b normally
+                }
+                if (inQuotes) {
+                    if (b == '"') {
+                        quotePending = true;
+                    } else {
+                        append(b);
+                    }
+                    continue;
+                }
+                if (b == '\n' && lastWasCr) {
+                    lastWasCr = false;
+                    continue;
+                }
+                lastWasCr = false;
+                switch (b) {
+                    case '"':
+                        inQuotes = true;
+                        rowHasData = true;
+                        break;
+                    case ',':
+                        endField();
+                        rowHasData = true;
+                        break;
+                    case '\r':
+                    case '\n':
+                        lastWasCr = b == '\r';
+                        if (rowHasData) {
+                            endField();
+                            endRow();
+                        } else {
+                            fieldLength = 0; // blank or whitespace-only line
+                        }
+                        rowHasData = false;
+                        break;
+                    default:
+                        append(b);
+                        if (b > ' ') rowHasData = true;
+                        break;
+                }
+            }
+            window.clear();
+        }
+        if (rowHasData) {
+            endField();
+            endRow();
+        }
+        if (!headerDone) {
+            throw new IOException("CSV catalog has no header row");
+        }
+        return rowsAdded;
+    }
+
+    private static void skipBom(ByteBuffer window) {
+        if (window.remaining() >= 3
+                && window.get(window.position()) == (byte) 0xEF
+                && window.get(window.position() + 1) == (byte) 0xBB
+                && window.get(window.position() + 2) == (byte) 0xBF) {
+            window.position(window.position() + 3);
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private void startRow() {
+        rowColumn = 0;
+        rowValid = true;
+        Arrays.fill(rowStrings, 0);
+        rowNumbers[ROLE_POPULARITY - FIRST_NUMERIC_ROLE] = 0.5;
+    }
+
+    private void endField() {
+        int column = rowColumn++;
+        if (!headerDone) {
+            headerField(column);
+        } else if (column < columnCount && rowValid) {
+            int role = columnRoles[column];
+            if (role >= FIRST_NUMERIC_ROLE) {
+                double value = parseDouble(field, 0, fieldLength);
+                if (Double.isNaN(value)) {
+                    rowValid = false;
+                } else {
+                    rowNumbers[role - FIRST_NUMERIC_ROLE] = value;
+                }
+            } else if (role != ROLE_IGNORED) {
+                rowStrings[role] = builder.internUtf8(field, 0, fieldLength);
+            }
+        }
+        fieldLength = 0;
+    }
+
+    private void headerField(int column) {
+        if (column >= columnRoles.length) {
+            columnRoles = Arrays.copyOf(columnRoles, Math.max(16, column * 2));
+        }
+        String name = new String(field, 0, fieldLength, StandardCharsets.UTF_8).trim().toLowerCase(Locale.ROOT);
+        int role = ROLE_IGNORED;
+        for (int r = 0; r < ROLE_COUNT; r++) {
+            if (ROLE_COLUMNS[r].equals(name)) {
+                role = r;
+                break;
+            }
+        }
+        columnRoles[column] = role;
+        columnCount = column + 1;
+    }
+
+    private void endRow() {
+        if (!headerDone) {
+            for (int r = 0; r < ROLE_COUNT; r++) {
+                if (ROLE_REQUIRED[r] && !hasRole(r)) {
+                    throw new IllegalArgumentException("CSV catalog is missing column '" + ROLE_COLUMNS[r] + "'");
+                }
+            }
+            headerDone = true;
+        } else if (rowValid && rowColumn >= columnCount) {
+            double cost = rowNumbers[ROLE_COST - FIRST_NUMERIC_ROLE] * costScale + costMean;
+            double time = rowNumbers[ROLE_TIME - FIRST_NUMERIC_ROLE] * timeScale + timeMean;
+            builder.addPoi(
+                    rowStrings[ROLE_CITY],
+                    rowStrings[ROLE_STATE],
+                    rowStrings[ROLE_NAME],
+                    rowStrings[ROLE_CATEGORY],
+                    rowStrings[ROLE_DESCRIPTION],
+                    hasRole(ROLE_COST_CATEGORY) ? rowStrings[ROLE_COST_CATEGORY] : builder.intern("medium"),
+                    rowNumbers[ROLE_LATITUDE - FIRST_NUMERIC_ROLE],
+                    rowNumbers[ROLE_LONGITUDE - FIRST_NUMERIC_ROLE],
+                    Math.max(0, cost),
+                    Math.max(0.1, time),
+                    rowNumbers[ROLE_POPULARITY - FIRST_NUMERIC_ROLE]);
+            rowsAdded++;
+        } else {
+            rowsSkipped++;
+        }
+        startRow();
+    }
+
+    private boolean hasRole(int role) {
+        for (int c = 0; c < columnCount; c++) {
+            if (columnRoles[c] == role) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a decimal number directly from ASCII bytes. Returns NaN if the text is not a number.
+     * Values with at most 15 significant digits and a small exponent are computed exactly
+     * (one multiply or divide by an exact power of ten); anything else goes through
+     * Double.parseDouble.
+     */
+    static double parseDouble(byte[] buf, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end && buf[i] <= ' ') i++;
+        while (end > i && buf[end - 1] <= ' ') end--;
+        if (i == end) return Double.NaN;
+
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean exact = true;
+        for (; i < end && buf[i] >= '0' && buf[i] <= '9'; i++) {
+            sawDigit = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (buf[i] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+                exact = false;
+            }
+        }
+        if (i < end && buf[i] == '.') {
+            i++;
+            for (; i < end && buf[i] >= '0' && buf[i] <= '9'; i++) {
+                sawDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (buf[i] - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (!sawDigit) return Double.NaN;
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean expNegative = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                expNegative = buf[i] == '-';
+                i++;
+            }
+            int exp = 0;
+            boolean sawExpDigit = false;
+            for (; i < end && buf[i] >= '0' && buf[i] <= '9'; i++) {
+                sawExpDigit = true;
+                if (exp < 10000) exp = exp * 10 + (buf[i] - '0');
+            }
+            if (!sawExpDigit) return Double.NaN;
+            exponent += expNegative ? -exp : exp;
+        }
+        if (i != end) return Double.NaN;
+
+        double value;
+        if (exact && digits <= 15 && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+        } else {
+            try {
+                value = Double.parseDouble(new String(buf, offset, length, StandardCharsets.US_ASCII).trim());
+                return value;
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return negative ? -value : value;
+    }
+}
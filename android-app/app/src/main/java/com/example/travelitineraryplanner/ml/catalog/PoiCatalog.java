@@ -0,0 +1,222 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import com.example.travelitineraryplanner.ml.Poi;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view over a compiled POI catalog (see {@link PoiCatalogFormat}).
+ *
+ * The numeric columns are typed views straight over the backing buffer, which is
+ * normally a MappedByteBuffer of the bundled asset, so opening a catalog costs a
+ * header check and nothing else. Strings are decoded on first access and cached.
+ */
+public class PoiCatalog {
+    private final ByteBuffer buffer;
+    private final int poiCount;
+    private final int cityCount;
+    private final int stateCount;
+    private final long contentHash;
+
+    private final DoubleBuffer latitude;
+    private final DoubleBuffer longitude;
+    private final FloatBuffer cost;
+    private final FloatBuffer timeHours;
+    private final FloatBuffer popularity;
+    private final IntBuffer nameIds;
+    private final IntBuffer categoryIds;
+    private final IntBuffer costCategoryIds;
+    private final IntBuffer descriptionIds;
+    private final IntBuffer poiCity;
+    private final IntBuffer cityTable;
+    private final IntBuffer stateTable;
+    private final IntBuffer cityByName;
+    private final IntBuffer stateByName;
+    private final IntBuffer stringOffsets;
+    private final int stringDataOffset;
+    private final String[] stringCache;
+
+    private PoiCatalog(ByteBuffer source) {
+        this.buffer = source.duplicate().order(PoiCatalogFormat.BYTE_ORDER);
+        this.buffer.position(0);
+
+        if (buffer.limit() < PoiCatalogFormat.HEADER_SIZE
+                || buffer.getInt(PoiCatalogFormat.OFFSET_MAGIC) != PoiCatalogFormat.MAGIC) {
+            throw new IllegalArgumentException("Not a compiled POI catalog");
+        }
+        int version = buffer.getInt(PoiCatalogFormat.OFFSET_VERSION);
+        if (version != PoiCatalogFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported POI catalog version " + version
+                    + " (expected " + PoiCatalogFormat.VERSION + ")");
+        }
+
+        poiCount = buffer.getInt(PoiCatalogFormat.OFFSET_POI_COUNT);
+        cityCount = buffer.getInt(PoiCatalogFormat.OFFSET_CITY_COUNT);
+        stateCount = buffer.getInt(PoiCatalogFormat.OFFSET_STATE_COUNT);
+        int stringCount = buffer.getInt(PoiCatalogFormat.OFFSET_STRING_COUNT);
+        contentHash = buffer.getLong(PoiCatalogFormat.OFFSET_CONTENT_HASH);
+
+        latitude = section(PoiCatalogFormat.SECTION_LATITUDE, poiCount * 8).asDoubleBuffer();
+        longitude = section(PoiCatalogFormat.SECTION_LONGITUDE, poiCount * 8).asDoubleBuffer();
+        cost = section(PoiCatalogFormat.SECTION_COST, poiCount * 4).asFloatBuffer();
+        timeHours = section(PoiCatalogFormat.SECTION_TIME_HOURS, poiCount * 4).asFloatBuffer();
+        popularity = section(PoiCatalogFormat.SECTION_POPULARITY, poiCount * 4).asFloatBuffer();
+        nameIds = section(PoiCatalogFormat.SECTION_NAME, poiCount * 4).asIntBuffer();
+        categoryIds = section(PoiCatalogFormat.SECTION_CATEGORY, poiCount * 4).asIntBuffer();
+        costCategoryIds = section(PoiCatalogFormat.SECTION_COST_CATEGORY, poiCount * 4).asIntBuffer();
+        descriptionIds = section(PoiCatalogFormat.SECTION_DESCRIPTION, poiCount * 4).asIntBuffer();
+        poiCity = section(PoiCatalogFormat.SECTION_POI_CITY, poiCount * 4).asIntBuffer();
+        cityTable = section(PoiCatalogFormat.SECTION_CITY_TABLE,
+                cityCount * PoiCatalogFormat.CITY_RECORD_INTS * 4).asIntBuffer();
+        stateTable = section(PoiCatalogFormat.SECTION_STATE_TABLE,
+                stateCount * PoiCatalogFormat.STATE_RECORD_INTS * 4).asIntBuffer();
+        cityByName = section(PoiCatalogFormat.SECTION_CITY_BY_NAME, cityCount * 4).asIntBuffer();
+        stateByName = section(PoiCatalogFormat.SECTION_STATE_BY_NAME, stateCount * 4).asIntBuffer();
+        stringOffsets = section(PoiCatalogFormat.SECTION_STRING_OFFSETS, (stringCount + 1) * 4).asIntBuffer();
+        stringDataOffset = sectionOffset(PoiCatalogFormat.SECTION_STRING_DATA);
+        stringCache = new String[stringCount];
+    }
+
+    /**
+     * Opens a catalog over the given buffer (mapped or heap). The buffer is not copied.
+     */
+    public static PoiCatalog fromBuffer(ByteBuffer buffer) {
+        return new PoiCatalog(buffer);
+    }
+
+    private int sectionOffset(int section) {
+        return buffer.getInt(PoiCatalogFormat.OFFSET_SECTION_TABLE + section * 4);
+    }
+
+    private ByteBuffer section(int section, int length) {
+        int offset = sectionOffset(section);
+        if (offset < PoiCatalogFormat.HEADER_SIZE || offset + length > buffer.limit()) {
+            throw new IllegalArgumentException("Corrupt POI catalog: section " + section + " out of bounds");
+        }
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        dup.limit(offset + length);
+        return dup.slice().order(PoiCatalogFormat.BYTE_ORDER);
+    }
+
+    // -------------------------
+    // POI columns
+    // -------------------------
+    public int size() { return poiCount; }
+    public long contentHash() { return contentHash; }
+    public double latitude(int poi) { return latitude.get(poi); }
+    public double longitude(int poi) { return longitude.get(poi); }
+    public double estimatedCost(int poi) { return cost.get(poi); }
+    public double timeHours(int poi) { return timeHours.get(poi); }
+    public double popularity(int poi) { return popularity.get(poi); }
+    public int categoryId(int poi) { return categoryIds.get(poi); }
+    public int cityIndexOf(int poi) { return poiCity.get(poi); }
+    public String name(int poi) { return string(nameIds.get(poi)); }
+    public String category(int poi) { return string(categoryIds.get(poi)); }
+    public String costCategory(int poi) { return string(costCategoryIds.get(poi)); }
+    public String description(int poi) { return string(descriptionIds.get(poi)); }
+    public String city(int poi) { return cityName(cityIndexOf(poi)); }
+    public String state(int poi) { return stateName(cityStateIndex(cityIndexOf(poi))); }
+
+    /**
+     * Materializes a standalone Poi for row {@code poi}. Callers own the returned object.
+     */
+    public Poi newPoi(int poi) {
+        Poi p = new Poi();
+        p.catalogIndex = poi;
+        p.name = name(poi);
+        p.category = category(poi);
+        p.description = description(poi);
+        p.costCategory = costCategory(poi);
+        p.city = city(poi);
+        p.state = state(poi);
+        p.latitude = latitude(poi);
+        p.longitude = longitude(poi);
+        p.estimatedCost = estimatedCost(poi);
+        p.timeHours = timeHours(poi);
+        p.popularityScore = popularity(poi);
+        return p;
+    }
+
+    // -------------------------
+    // City / state indices
+    // -------------------------
+    public int cityCount() { return cityCount; }
+    public String cityName(int city) { return string(cityTable.get(city * PoiCatalogFormat.CITY_RECORD_INTS)); }
+    public int cityStateIndex(int city) { return cityTable.get(city * PoiCatalogFormat.CITY_RECORD_INTS + 1); }
+    public int cityPoiStart(int city) { return cityTable.get(city * PoiCatalogFormat.CITY_RECORD_INTS + 2); }
+    public int cityPoiEnd(int city) { return cityTable.get(city * PoiCatalogFormat.CITY_RECORD_INTS + 3); }
+
+    public int stateCount() { return stateCount; }
+    public String stateName(int state) { return string(stateTable.get(state * PoiCatalogFormat.STATE_RECORD_INTS)); }
+    public int stateCityStart(int state) { return stateTable.get(state * PoiCatalogFormat.STATE_RECORD_INTS + 1); }
+    public int stateCityEnd(int state) { return stateTable.get(state * PoiCatalogFormat.STATE_RECORD_INTS + 2); }
+    public int statePoiStart(int state) { return stateTable.get(state * PoiCatalogFormat.STATE_RECORD_INTS + 3); }
+    public int statePoiEnd(int state) { return stateTable.get(state * PoiCatalogFormat.STATE_RECORD_INTS + 4); }
+
+    /**
+     * Returns every city index whose name matches {@code name} (case-insensitive),
+     * in catalog order. A city name can appear under more than one state.
+     */
+    public int[] findCities(String name) {
+        String key = PoiCatalogFormat.nameKey(name);
+        int first = lowerBound(cityByName, cityCount, key, true);
+        int last = first;
+        while (last < cityCount && PoiCatalogFormat.nameKey(cityName(cityByName.get(last))).equals(key)) {
+            last++;
+        }
+        int[] result = new int[last - first];
+        for (int i = first; i < last; i++) {
+            result[i - first] = cityByName.get(i);
+        }
+        return result;
+    }
+
+    /** Returns the state index matching {@code name} (case-insensitive), or -1. */
+    public int findState(String name) {
+        String key = PoiCatalogFormat.nameKey(name);
+        int pos = lowerBound(stateByName, stateCount, key, false);
+        if (pos < stateCount && PoiCatalogFormat.nameKey(stateName(stateByName.get(pos))).equals(key)) {
+            return stateByName.get(pos);
+        }
+        return -1;
+    }
+
+    private int lowerBound(IntBuffer index, int length, String key, boolean cities) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int entry = index.get(mid);
+            String midKey = PoiCatalogFormat.nameKey(cities ? cityName(entry) : stateName(entry));
+            if (midKey.compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // -------------------------
+    // String pool
+    // -------------------------
+    public String string(int id) {
+        String s = stringCache[id];
+        if (s == null) {
+            int start = stringOffsets.get(id);
+            int end = stringOffsets.get(id + 1);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer data = buffer.duplicate();
+            data.position(stringDataOffset + start);
+            data.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            stringCache[id] = s;
+        }
+        return s;
+    }
+}
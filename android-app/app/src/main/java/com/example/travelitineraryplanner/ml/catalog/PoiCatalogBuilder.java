@@ -0,0 +1,311 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects POI rows and serializes them into the compiled catalog format
+ * described in {@link PoiCatalogFormat}.
+ *
+ * Rows are kept in growable primitive columns plus a deduplicating string pool,
+ * so building a catalog never allocates one object per POI.
+ */
+public class PoiCatalogBuilder {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private double[] latitude = new double[INITIAL_CAPACITY];
+    private double[] longitude = new double[INITIAL_CAPACITY];
+    private float[] cost = new float[INITIAL_CAPACITY];
+    private float[] timeHours = new float[INITIAL_CAPACITY];
+    private float[] popularity = new float[INITIAL_CAPACITY];
+    private int[] city = new int[INITIAL_CAPACITY];
+    private int[] state = new int[INITIAL_CAPACITY];
+    private int[] name = new int[INITIAL_CAPACITY];
+    private int[] category = new int[INITIAL_CAPACITY];
+    private int[] costCategory = new int[INITIAL_CAPACITY];
+    private int[] description = new int[INITIAL_CAPACITY];
+    private int count = 0;
+
+    // String pool keyed by UTF-8 bytes, so streaming parsers can intern without decoding.
+    // Open addressing: slots hold (string id + 1), 0 marks an empty slot.
+    private byte[][] poolBytes = new byte[64][];
+    private int[] poolHashes = new int[64];
+    private int poolSize = 0;
+    private int[] poolSlots = new int[128];
+
+    public PoiCatalogBuilder() {
+        intern(""); // string id 0 is always the empty string
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds one POI. Cost and time are expected in real units (INR / hours),
+     * i.e. already denormalized.
+     */
+    public PoiCatalogBuilder addPoi(String cityName, String stateName, String poiName, String categoryName,
+                                    String descriptionText, String costCategoryName,
+                                    double lat, double lon, double costInr, double hours, double popularityScore) {
+        return addPoi(intern(cityName), intern(stateName), intern(poiName), intern(categoryName),
+                intern(descriptionText), intern(costCategoryName),
+                lat, lon, costInr, hours, popularityScore);
+    }
+
+    /** Same as {@link #addPoi(String, String, String, String, String, String, double, double, double, double, double)} with pooled string ids. */
+    public PoiCatalogBuilder addPoi(int cityId, int stateId, int nameId, int categoryId,
+                                    int descriptionId, int costCategoryId,
+                                    double lat, double lon, double costInr, double hours, double popularityScore) {
+        ensureCapacity(count + 1);
+        city[count] = cityId;
+        state[count] = stateId;
+        name[count] = nameId;
+        category[count] = categoryId;
+        description[count] = descriptionId;
+        costCategory[count] = costCategoryId;
+        latitude[count] = lat;
+        longitude[count] = lon;
+        cost[count] = (float) costInr;
+        timeHours[count] = (float) hours;
+        popularity[count] = (float) popularityScore;
+        count++;
+        return this;
+    }
+
+    /** Returns the pool id for a string, adding it if needed. */
+    public int intern(String value) {
+        byte[] bytes = (value == null ? "" : value.trim()).getBytes(StandardCharsets.UTF_8);
+        return internUtf8(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the pool id for the UTF-8 text in {@code buf[offset, offset + length)},
+     * ignoring surrounding ASCII whitespace. Only allocates when the string is new.
+     */
+    public int internUtf8(byte[] buf, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && buf[start] <= ' ' && buf[start] >= 0) start++;
+        while (end > start && buf[end - 1] <= ' ' && buf[end - 1] >= 0) end--;
+
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (buf[i] & 0xff)) * 0x01000193;
+        }
+        int mask = poolSlots.length - 1;
+        int slot = hash & mask;
+        while (poolSlots[slot] != 0) {
+            int id = poolSlots[slot] - 1;
+            if (poolHashes[id] == hash && equalBytes(poolBytes[id], buf, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (poolSize == poolBytes.length) {
+            poolBytes = Arrays.copyOf(poolBytes, poolSize * 2);
+            poolHashes = Arrays.copyOf(poolHashes, poolSize * 2);
+        }
+        int id = poolSize++;
+        poolBytes[id] = Arrays.copyOfRange(buf, start, end);
+        poolHashes[id] = hash;
+        poolSlots[slot] = id + 1;
+        if (poolSize * 2 > poolSlots.length) {
+            rehashPool();
+        }
+        return id;
+    }
+
+    private static boolean equalBytes(byte[] stored, byte[] buf, int start, int end) {
+        if (stored.length != end - start) return false;
+        for (int i = 0; i < stored.length; i++) {
+            if (stored[i] != buf[start + i]) return false;
+        }
+        return true;
+    }
+
+    private void rehashPool() {
+        poolSlots = new int[poolSlots.length * 2];
+        int mask = poolSlots.length - 1;
+        for (int id = 0; id < poolSize; id++) {
+            int slot = poolHashes[id] & mask;
+            while (poolSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            poolSlots[slot] = id + 1;
+        }
+    }
+
+    public PoiCatalog buildCatalog() {
+        return PoiCatalog.fromBuffer(build());
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        ByteBuffer buffer = build();
+        out.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+    }
+
+    /**
+     * Serializes the catalog into a heap buffer positioned at 0.
+     */
+    public ByteBuffer build() {
+        final String[] keys = new String[poolSize];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = PoiCatalogFormat.nameKey(new String(poolBytes[i], StandardCharsets.UTF_8));
+        }
+
+        // Sort POIs by (state, city, name) so cities and states become contiguous ranges
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, Comparator
+                .<Integer, String>comparing(i -> keys[state[i]])
+                .thenComparing(i -> keys[city[i]])
+                .thenComparing(i -> keys[name[i]]));
+
+        int[] poiCity = new int[count];
+        List<int[]> cityRecords = new ArrayList<>();
+        List<int[]> stateRecords = new ArrayList<>();
+        int[] currentCity = null;
+        int[] currentState = null;
+        for (int pos = 0; pos < count; pos++) {
+            int src = order[pos];
+            if (currentState == null || !keys[currentState[0]].equals(keys[state[src]])) {
+                currentState = new int[]{state[src], cityRecords.size(), cityRecords.size(), pos, pos};
+                stateRecords.add(currentState);
+                currentCity = null;
+            }
+            if (currentCity == null || !keys[currentCity[0]].equals(keys[city[src]])) {
+                currentCity = new int[]{city[src], stateRecords.size() - 1, pos, pos};
+                cityRecords.add(currentCity);
+            }
+            currentCity[3] = pos + 1;
+            currentState[2] = cityRecords.size();
+            currentState[4] = pos + 1;
+            poiCity[pos] = cityRecords.size() - 1;
+        }
+
+        Integer[] cityByName = new Integer[cityRecords.size()];
+        for (int i = 0; i < cityByName.length; i++) cityByName[i] = i;
+        Arrays.sort(cityByName, Comparator.<Integer, String>comparing(c -> keys[cityRecords.get(c)[0]])
+                .thenComparingInt(c -> c));
+        Integer[] stateByName = new Integer[stateRecords.size()];
+        for (int i = 0; i < stateByName.length; i++) stateByName[i] = i;
+        Arrays.sort(stateByName, Comparator.<Integer, String>comparing(s -> keys[stateRecords.get(s)[0]])
+                .thenComparingInt(s -> s));
+
+        byte[][] encoded = Arrays.copyOf(poolBytes, poolSize);
+        int stringBytes = 0;
+        for (byte[] bytes : encoded) {
+            stringBytes += bytes.length;
+        }
+
+        // Lay out sections
+        int[] sizes = new int[PoiCatalogFormat.SECTION_COUNT];
+        sizes[PoiCatalogFormat.SECTION_LATITUDE] = count * 8;
+        sizes[PoiCatalogFormat.SECTION_LONGITUDE] = count * 8;
+        sizes[PoiCatalogFormat.SECTION_COST] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_TIME_HOURS] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_POPULARITY] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_NAME] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_CATEGORY] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_COST_CATEGORY] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_DESCRIPTION] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_POI_CITY] = count * 4;
+        sizes[PoiCatalogFormat.SECTION_CITY_TABLE] = cityRecords.size() * PoiCatalogFormat.CITY_RECORD_INTS * 4;
+        sizes[PoiCatalogFormat.SECTION_STATE_TABLE] = stateRecords.size() * PoiCatalogFormat.STATE_RECORD_INTS * 4;
+        sizes[PoiCatalogFormat.SECTION_CITY_BY_NAME] = cityRecords.size() * 4;
+        sizes[PoiCatalogFormat.SECTION_STATE_BY_NAME] = stateRecords.size() * 4;
+        sizes[PoiCatalogFormat.SECTION_STRING_OFFSETS] = (poolSize + 1) * 4;
+        sizes[PoiCatalogFormat.SECTION_STRING_DATA] = stringBytes;
+
+        int[] offsets = new int[PoiCatalogFormat.SECTION_COUNT];
+        int cursor = PoiCatalogFormat.HEADER_SIZE;
+        for (int s = 0; s < PoiCatalogFormat.SECTION_COUNT; s++) {
+            offsets[s] = cursor;
+            cursor = PoiCatalogFormat.align(cursor + sizes[s]);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(cursor).order(PoiCatalogFormat.BYTE_ORDER);
+        for (int pos = 0; pos < count; pos++) {
+            int src = order[pos];
+            out.putDouble(offsets[PoiCatalogFormat.SECTION_LATITUDE] + pos * 8, latitude[src]);
+            out.putDouble(offsets[PoiCatalogFormat.SECTION_LONGITUDE] + pos * 8, longitude[src]);
+            out.putFloat(offsets[PoiCatalogFormat.SECTION_COST] + pos * 4, cost[src]);
+            out.putFloat(offsets[PoiCatalogFormat.SECTION_TIME_HOURS] + pos * 4, timeHours[src]);
+            out.putFloat(offsets[PoiCatalogFormat.SECTION_POPULARITY] + pos * 4, popularity[src]);
+            out.putInt(offsets[PoiCatalogFormat.SECTION_NAME] + pos * 4, name[src]);
+            out.putInt(offsets[PoiCatalogFormat.SECTION_CATEGORY] + pos * 4, category[src]);
+            out.putInt(offsets[PoiCatalogFormat.SECTION_COST_CATEGORY] + pos * 4, costCategory[src]);
+            out.putInt(offsets[PoiCatalogFormat.SECTION_DESCRIPTION] + pos * 4, description[src]);
+            out.putInt(offsets[PoiCatalogFormat.SECTION_POI_CITY] + pos * 4, poiCity[pos]);
+        }
+        int p = offsets[PoiCatalogFormat.SECTION_CITY_TABLE];
+        for (int[] record : cityRecords) {
+            for (int v : record) { out.putInt(p, v); p += 4; }
+        }
+        p = offsets[PoiCatalogFormat.SECTION_STATE_TABLE];
+        for (int[] record : stateRecords) {
+            for (int v : record) { out.putInt(p, v); p += 4; }
+        }
+        p = offsets[PoiCatalogFormat.SECTION_CITY_BY_NAME];
+        for (int c : cityByName) { out.putInt(p, c); p += 4; }
+        p = offsets[PoiCatalogFormat.SECTION_STATE_BY_NAME];
+        for (int s : stateByName) { out.putInt(p, s); p += 4; }
+
+        p = offsets[PoiCatalogFormat.SECTION_STRING_OFFSETS];
+        int dataOffset = 0;
+        for (byte[] bytes : encoded) {
+            out.putInt(p, dataOffset);
+            p += 4;
+            dataOffset += bytes.length;
+        }
+        out.putInt(p, dataOffset);
+        out.position(offsets[PoiCatalogFormat.SECTION_STRING_DATA]);
+        for (byte[] bytes : encoded) {
+            out.put(bytes);
+        }
+
+        long hash = PoiCatalogFormat.hashStart();
+        byte[] raw = out.array();
+        for (int i = PoiCatalogFormat.HEADER_SIZE; i < raw.length; i++) {
+            hash = PoiCatalogFormat.hashUpdate(hash, raw[i]);
+        }
+
+        out.putInt(PoiCatalogFormat.OFFSET_MAGIC, PoiCatalogFormat.MAGIC);
+        out.putInt(PoiCatalogFormat.OFFSET_VERSION, PoiCatalogFormat.VERSION);
+        out.putInt(PoiCatalogFormat.OFFSET_POI_COUNT, count);
+        out.putInt(PoiCatalogFormat.OFFSET_CITY_COUNT, cityRecords.size());
+        out.putInt(PoiCatalogFormat.OFFSET_STATE_COUNT, stateRecords.size());
+        out.putInt(PoiCatalogFormat.OFFSET_STRING_COUNT, poolSize);
+        out.putLong(PoiCatalogFormat.OFFSET_CONTENT_HASH, hash);
+        for (int s = 0; s < PoiCatalogFormat.SECTION_COUNT; s++) {
+            out.putInt(PoiCatalogFormat.OFFSET_SECTION_TABLE + s * 4, offsets[s]);
+        }
+
+        out.position(0);
+        return out;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= latitude.length) return;
+        int capacity = Math.max(needed, latitude.length * 2);
+        latitude = Arrays.copyOf(latitude, capacity);
+        longitude = Arrays.copyOf(longitude, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+        timeHours = Arrays.copyOf(timeHours, capacity);
+        popularity = Arrays.copyOf(popularity, capacity);
+        city = Arrays.copyOf(city, capacity);
+        state = Arrays.copyOf(state, capacity);
+        name = Arrays.copyOf(name, capacity);
+        category = Arrays.copyOf(category, capacity);
+        costCategory = Arrays.copyOf(costCategory, capacity);
+        description = Arrays.copyOf(description, capacity);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the compiled POI catalog (*.poicat).
+ *
+ * The file is a fixed header followed by 8-byte aligned sections. Every numeric
+ * column is fixed width so the reader can view it straight out of a mapped buffer.
+ * POIs are stored sorted by (state, city, name), which makes every city and every
+ * state a contiguous POI range - those ranges are the prebuilt indices.
+ *
+ * Header (little endian):
+ *   [0]  int   magic
+ *   [4]  int   format version
+ *   [8]  int   POI count
+ *   [12] int   city count
+ *   [16] int   state count
+ *   [20] int   string count
+ *   [24] long  content hash (FNV-1a over all section bytes)
+ *   [32] int[SECTION_COUNT] section offsets from the start of the file
+ *
+ * NOTE: this package is also compiled into buildSrc (catalog compiler task),
+ * so it must stay free of Android imports.
+ */
+public final class PoiCatalogFormat {
+    public static final int MAGIC = 0x43504654; // "TFPC"
+    public static final int VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    public static final String FILE_EXTENSION = "poicat";
+
+    public static final int OFFSET_MAGIC = 0;
+    public static final int OFFSET_VERSION = 4;
+    public static final int OFFSET_POI_COUNT = 8;
+    public static final int OFFSET_CITY_COUNT = 12;
+    public static final int OFFSET_STATE_COUNT = 16;
+    public static final int OFFSET_STRING_COUNT = 20;
+    public static final int OFFSET_CONTENT_HASH = 24;
+    public static final int OFFSET_SECTION_TABLE = 32;
+
+    // Per-POI columns
+    public static final int SECTION_LATITUDE = 0;       // double
+    public static final int SECTION_LONGITUDE = 1;      // double
+    public static final int SECTION_COST = 2;           // float, INR (already denormalized)
+    public static final int SECTION_TIME_HOURS = 3;     // float (already denormalized)
+    public static final int SECTION_POPULARITY = 4;     // float
+    public static final int SECTION_NAME = 5;           // int string id
+    public static final int SECTION_CATEGORY = 6;       // int string id
+    public static final int SECTION_COST_CATEGORY = 7;  // int string id
+    public static final int SECTION_DESCRIPTION = 8;    // int string id
+    public static final int SECTION_POI_CITY = 9;       // int city index
+    // Prebuilt indices
+    public static final int SECTION_CITY_TABLE = 10;    // CITY_RECORD_INTS ints per city
+    public static final int SECTION_STATE_TABLE = 11;   // STATE_RECORD_INTS ints per state
+    public static final int SECTION_CITY_BY_NAME = 12;  // int city index, sorted by name key
+    public static final int SECTION_STATE_BY_NAME = 13; // int state index, sorted by name key
+    // String pool
+    public static final int SECTION_STRING_OFFSETS = 14; // int[stringCount + 1]
+    public static final int SECTION_STRING_DATA = 15;    // UTF-8 bytes
+    public static final int SECTION_COUNT = 16;
+
+    public static final int HEADER_SIZE = align(OFFSET_SECTION_TABLE + SECTION_COUNT * 4);
+
+    // City record: name string id, state index, first POI, end POI (exclusive)
+    public static final int CITY_RECORD_INTS = 4;
+    // State record: name string id, first city, end city, first POI, end POI
+    public static final int STATE_RECORD_INTS = 5;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PoiCatalogFormat() {}
+
+    public static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /** Lookup key used for the by-name indices. */
+    public static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(java.util.Locale.ROOT);
+    }
+
+    public static long hashStart() {
+        return FNV_OFFSET;
+    }
+
+    public static long hashUpdate(long hash, byte b) {
+        return (hash ^ (b & 0xff)) * FNV_PRIME;
+    }
+}
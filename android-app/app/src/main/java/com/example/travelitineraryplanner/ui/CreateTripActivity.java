@@ -1,26 +1,45 @@
 package com.example.travelitineraryplanner.ui;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.Filter;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.example.travelitineraryplanner.R;
+import com.example.travelitineraryplanner.concurrent.AppScheduler;
 import com.example.travelitineraryplanner.data.repository.TripRepository;
+import com.example.travelitineraryplanner.ml.DestinationIndex;
+import com.example.travelitineraryplanner.ml.ItineraryPlanner;
 import com.example.travelitineraryplanner.ml.ItineraryResult;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * CreateTripActivity - collects trip input, runs planner off the UI thread,
@@ -30,33 +49,57 @@ import java.util.concurrent.Executors;
  */
 public class CreateTripActivity extends AppCompatActivity {
 
-    private EditText destinationEditText;
+    private AutoCompleteTextView destinationEditText;
     private EditText durationEditText;
     private AutoCompleteTextView budgetSpinner;
     private Button generateItineraryButton;
+    private Button planNearMeButton;
     private ProgressBar progressBar;
     private TextView errorTextView;
     private ImageView backButton;
 
     private TripRepository tripRepository;
-    private ExecutorService executor;
+    // The plan in progress; cancelled when the user leaves so it stops using the CPU
+    private CompletableFuture<ItineraryResult> pendingPlan;
+
+    // Destination autocomplete: debounced on the UI thread, looked up on its own thread,
+    // and any result older than the latest keystroke is dropped
+    private final Handler suggestionHandler = new Handler(Looper.getMainLooper());
+    private final Executor suggestionExecutor =
+            AppScheduler.get().executorDroppingWhenFull(AppScheduler.Lane.INTERACTIVE, AppScheduler.Priority.HIGH);
+    private final AtomicInteger suggestionGeneration = new AtomicInteger();
+    private Runnable pendingSuggestions;
+    private SuggestionAdapter suggestionAdapter;
 
     private static final String[] BUDGET_OPTIONS = {"Budget", "Moderate", "Luxury"};
+    private static final long SUGGESTION_DEBOUNCE_MS = 150;
+    private static final int MAX_SUGGESTIONS = 6;
+    // A last known fix older than this is too stale to plan "near me" from
+    private static final long MAX_LOCATION_AGE_MS = 30 * 60 * 1000L;
+
+    private final ActivityResultLauncher<String> locationPermission = registerForActivityResult(
+            new ActivityResultContracts.RequestPermission(), granted -> {
+                if (granted) {
+                    planNearMe();
+                } else {
+                    showError("Location permission is needed to plan near you");
+                }
+            });
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_create_trip);
 
-        // repository + executor (keep as in original; TripRepository should accept Application)
+        // repository (keep as in original; TripRepository should accept Application)
         tripRepository = new TripRepository(getApplication());
-        executor = Executors.newFixedThreadPool(2);
 
         // Views
         destinationEditText = findViewById(R.id.destinationEditText);
         durationEditText = findViewById(R.id.durationEditText);
         budgetSpinner = findViewById(R.id.budgetSpinner);
         generateItineraryButton = findViewById(R.id.generateItineraryButton);
+        planNearMeButton = findViewById(R.id.planNearMeButton);
         progressBar = findViewById(R.id.progressBar);
         errorTextView = findViewById(R.id.errorTextView);
         backButton = findViewById(R.id.backButton);
@@ -67,9 +110,13 @@ public class CreateTripActivity extends AppCompatActivity {
         }
 
         setupBudgetSpinner();
+        setupDestinationSuggestions();
 
         // generate
         generateItineraryButton.setOnClickListener(v -> generateItinerary());
+        if (planNearMeButton != null) {
+            planNearMeButton.setOnClickListener(v -> planNearMe());
+        }
     }
 
     private void setupBudgetSpinner() {
@@ -91,6 +138,100 @@ public class CreateTripActivity extends AppCompatActivity {
         });
     }
 
+    private void setupDestinationSuggestions() {
+        suggestionAdapter = new SuggestionAdapter(this);
+        destinationEditText.setAdapter(suggestionAdapter);
+        destinationEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                // Picking a suggestion replaces the text; that is not a new query
+                if (!destinationEditText.isPerformingCompletion()) {
+                    requestSuggestions(s.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * Looks up suggestions for {@code prefix} once typing pauses. Every call supersedes
+     * the previous one, whether it is still waiting out the debounce, queued, or running.
+     */
+    private void requestSuggestions(String prefix) {
+        final int generation = cancelSuggestions();
+        if (prefix.trim().isEmpty()) {
+            suggestionAdapter.clear();
+            return;
+        }
+        pendingSuggestions = () -> suggestionExecutor.execute(() -> {
+            if (generation != suggestionGeneration.get()) {
+                return; // superseded while queued
+            }
+            List<DestinationIndex.Suggestion> suggestions =
+                    ItineraryPlanner.getInstance(CreateTripActivity.this)
+                            .suggestDestinations(prefix, MAX_SUGGESTIONS);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed() || generation != suggestionGeneration.get()) {
+                    return;
+                }
+                suggestionAdapter.clear();
+                suggestionAdapter.addAll(suggestions);
+                if (!suggestions.isEmpty() && destinationEditText.hasFocus()) {
+                    destinationEditText.showDropDown();
+                } else {
+                    destinationEditText.dismissDropDown();
+                }
+            });
+        });
+        suggestionHandler.postDelayed(pendingSuggestions, SUGGESTION_DEBOUNCE_MS);
+    }
+
+    /** Drops the pending lookup and invalidates any in flight; returns the new generation. */
+    private int cancelSuggestions() {
+        if (pendingSuggestions != null) {
+            suggestionHandler.removeCallbacks(pendingSuggestions);
+            pendingSuggestions = null;
+        }
+        return suggestionGeneration.incrementAndGet();
+    }
+
+    /**
+     * Shows suggestions exactly as the planner ranked them (no re-filtering by the
+     * dropdown) and fills in a suggestion's destination rather than its label.
+     */
+    private static class SuggestionAdapter extends ArrayAdapter<DestinationIndex.Suggestion> {
+        private final Filter passThrough = new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                return new FilterResults();
+            }
+
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public CharSequence convertResultToString(Object resultValue) {
+                return ((DestinationIndex.Suggestion) resultValue).destination;
+            }
+        };
+
+        SuggestionAdapter(AppCompatActivity activity) {
+            super(activity, android.R.layout.simple_dropdown_item_1line);
+        }
+
+        @Override
+        public Filter getFilter() {
+            return passThrough;
+        }
+    }
+
     private void generateItinerary() {
         String destination = destinationEditText.getText().toString().trim();
         String durationText = durationEditText.getText().toString().trim();
@@ -105,77 +246,144 @@ public class CreateTripActivity extends AppCompatActivity {
             return;
         }
 
-        if (TextUtils.isEmpty(durationText)) {
-            showError("Please enter duration");
+        int duration = readDuration();
+        if (duration < 0 || !hasBudget()) {
+            return;
+        }
+        runPlanner(planner -> planner.planAsync(destination, duration, budget));
+    }
+
+    /**
+     * Plans around the device's last known location; the destination field is ignored.
+     * Asks for the coarse location permission first if it has not been granted.
+     */
+    private void planNearMe() {
+        int duration = readDuration();
+        if (duration < 0 || !hasBudget()) {
+            return;
+        }
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+            locationPermission.launch(Manifest.permission.ACCESS_COARSE_LOCATION);
+            return;
+        }
+        Location location = lastKnownLocation();
+        if (location == null) {
+            showError("Current location is not available. Enter a destination instead.");
             return;
         }
+        String budget = budgetSpinner.getText().toString().trim();
+        // The position itself stays out of the log
+        System.out.println("CreateTripActivity.planNearMe -> duration=" + duration + " budget=" + budget);
+        runPlanner(planner -> planner.planAsync(location.getLatitude(), location.getLongitude(),
+                duration, budget));
+    }
 
-        final int duration;
+    /** Most recent fix from any provider that is fresh enough, or null. */
+    @SuppressWarnings("MissingPermission") // checked by planNearMe
+    private Location lastKnownLocation() {
+        LocationManager manager = (LocationManager) getSystemService(LOCATION_SERVICE);
+        if (manager == null) {
+            return null;
+        }
+        Location best = null;
+        String[] providers = {LocationManager.NETWORK_PROVIDER, LocationManager.GPS_PROVIDER,
+                LocationManager.PASSIVE_PROVIDER};
+        for (String provider : providers) {
+            try {
+                Location location = manager.getLastKnownLocation(provider);
+                if (location != null && (best == null || location.getTime() > best.getTime())) {
+                    best = location;
+                }
+            } catch (SecurityException | IllegalArgumentException e) {
+                // provider not permitted or not present on this device
+            }
+        }
+        if (best == null || System.currentTimeMillis() - best.getTime() > MAX_LOCATION_AGE_MS) {
+            return null;
+        }
+        return best;
+    }
+
+    /** The entered trip length in days, or -1 after showing why it is not valid. */
+    private int readDuration() {
+        String durationText = durationEditText.getText().toString().trim();
+        if (TextUtils.isEmpty(durationText)) {
+            showError("Please enter duration");
+            return -1;
+        }
         try {
-            duration = Integer.parseInt(durationText);
+            int duration = Integer.parseInt(durationText);
             if (duration < 1 || duration > 365) {
                 showError("Duration must be between 1 and 365 days");
-                return;
+                return -1;
             }
+            return duration;
         } catch (NumberFormatException e) {
             showError("Please enter a valid number for duration");
-            return;
+            return -1;
         }
+    }
 
-        if (TextUtils.isEmpty(budget)) {
+    private boolean hasBudget() {
+        if (TextUtils.isEmpty(budgetSpinner.getText().toString().trim())) {
             showError("Please select budget");
-            return;
+            return false;
         }
+        return true;
+    }
 
+    private void runPlanner(Function<ItineraryPlanner, CompletableFuture<ItineraryResult>> plan) {
         setLoading(true);
         hideError();
-
-        // Run planner on background thread to avoid blocking UI
-        executor.execute(() -> {
-            try {
-                // create planner instance (original code used new ItineraryPlanner(this))
-                com.example.travelitineraryplanner.ml.ItineraryPlanner planner =
-                        new com.example.travelitineraryplanner.ml.ItineraryPlanner(CreateTripActivity.this);
-
-                // run planning
-                ItineraryResult result = planner.planItinerary(destination, duration, budget);
-
-                // ensure planner resources are released if provided
-                try {
-                    planner.shutdown();
-                } catch (Exception ignore) {
+        cancelSuggestions();
+        destinationEditText.dismissDropDown();
+
+        // shared planner: model and catalog stay loaded between trips, and a
+        // provisional result keeps being upgraded after this activity finishes
+        ItineraryPlanner planner = ItineraryPlanner.getInstance(CreateTripActivity.this);
+        CompletableFuture<ItineraryResult> planned = plan.apply(planner);
+        pendingPlan = planned;
+
+        // The planner runs on its own threads; the result is handled on the main thread
+        planned.whenCompleteAsync((finalResult, error) -> {
+            if (planned.isCancelled() || isDestroyed()) {
+                return; // the user left; nobody is waiting for this result
+            }
+            setLoading(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                cause.printStackTrace();
+                showError("Failed to generate itinerary: " + cause.getMessage());
+            } else if (finalResult != null && finalResult.dayPlans != null && !finalResult.dayPlans.isEmpty()) {
+                if (finalResult.correctedFrom != null) {
+                    Toast.makeText(CreateTripActivity.this, "Showing results for " + finalResult.metadata.location,
+                            Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(CreateTripActivity.this, "Itinerary generated successfully!", Toast.LENGTH_SHORT).show();
                 }
 
-                // make final for use on UI thread
-                final ItineraryResult finalResult = result;
-
-                runOnUiThread(() -> {
-                    setLoading(false);
-                    if (finalResult != null && finalResult.dayPlans != null && !finalResult.dayPlans.isEmpty()) {
-                        Toast.makeText(CreateTripActivity.this, "Itinerary generated successfully!", Toast.LENGTH_SHORT).show();
-
-                        Intent intent = new Intent(CreateTripActivity.this, ItineraryActivity.class);
-                        // pass result — must be Serializable/Parcelable in your model
-                        intent.putExtra("itinerary_result", finalResult);
-                        startActivity(intent);
-                        finish();
-                    } else {
-                        showError("Failed to generate itinerary. Please try again.");
-                    }
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> {
-                    setLoading(false);
-                    showError("Failed to generate itinerary: " + e.getMessage());
-                });
+                Intent intent = new Intent(CreateTripActivity.this, ItineraryActivity.class);
+                // pass result — must be Serializable/Parcelable in your model
+                intent.putExtra("itinerary_result", finalResult);
+                startActivity(intent);
+                finish();
+            } else if (finalResult != null && finalResult.suggestions != null
+                    && !finalResult.suggestions.isEmpty()) {
+                showSuggestion(finalResult.suggestions.get(0));
+            } else if (finalResult != null && !TextUtils.isEmpty(finalResult.summary)) {
+                showError(finalResult.summary);
+            } else {
+                showError("Failed to generate itinerary. Please try again.");
             }
-        });
+        }, ContextCompat.getMainExecutor(this));
     }
 
     private void setLoading(boolean loading) {
         if (progressBar != null) progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
         if (generateItineraryButton != null) generateItineraryButton.setEnabled(!loading);
+        if (planNearMeButton != null) planNearMeButton.setEnabled(!loading);
     }
 
     private void showError(String message) {
@@ -190,10 +398,26 @@ public class CreateTripActivity extends AppCompatActivity {
 
     private void hideError() {
         if (errorTextView != null) {
+            errorTextView.setOnClickListener(null);
             errorTextView.setVisibility(View.GONE);
         }
     }
 
+    /**
+     * "Did you mean" for a destination the planner could not place; tapping it fills in
+     * the suggestion and plans again.
+     */
+    private void showSuggestion(String suggestion) {
+        showError("Location not recognized. Did you mean " + suggestion + "?");
+        if (errorTextView != null) {
+            errorTextView.setOnClickListener(v -> {
+                destinationEditText.setText(suggestion, false);
+                destinationEditText.setSelection(suggestion.length());
+                generateItinerary();
+            });
+        }
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
@@ -203,6 +427,7 @@ public class CreateTripActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executor != null) executor.shutdownNow();
+        if (pendingPlan != null) pendingPlan.cancel(false);
+        cancelSuggestions();
     }
 }
@@ -2,16 +2,25 @@ package com.example.travelitineraryplanner.ui;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
 import android.widget.ProgressBar;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import androidx.lifecycle.MutableLiveData;
+import androidx.core.content.ContextCompat;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -19,16 +28,22 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.travelitineraryplanner.data.repository.TripRepository;
 
 import com.example.travelitineraryplanner.R;
+import com.example.travelitineraryplanner.concurrent.AppScheduler;
+import com.example.travelitineraryplanner.ml.ItineraryPlanner;
 import com.example.travelitineraryplanner.ml.ItineraryResult;
 import com.example.travelitineraryplanner.ml.Poi;
+import com.example.travelitineraryplanner.ml.RankingWeights;
 import com.example.travelitineraryplanner.ui.adapter.ItineraryAdapter;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ItineraryActivity - displays a generated itinerary and allows saving/sharing.
@@ -47,10 +62,30 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
     private TextView emptyStateText;
     private FloatingActionButton saveButton;
     private FloatingActionButton shareButton;
+    private MaterialCardView rankingCard;
+    private SeekBar popularSeekBar;
+    private SeekBar nearbySeekBar;
+    private SeekBar cheapSeekBar;
 
     private ItineraryResult itineraryResult;
     private ItineraryAdapter adapter;
 
+    // Slider moves are re-ranked one at a time; only the latest move is shown
+    private final Executor rankingExecutor =
+            AppScheduler.get().executorDroppingWhenFull(AppScheduler.Lane.INTERACTIVE, AppScheduler.Priority.HIGH);
+    private final AtomicInteger rankingGeneration = new AtomicInteger();
+    // A slider move whose re-rank is not on screen yet; Save re-ranks before saving
+    private boolean rankingPending;
+    // Attraction search (per keystroke) and replacement lookups; only the latest
+    // search's results are shown
+    private final Executor searchExecutor =
+            AppScheduler.get().executorDroppingWhenFull(AppScheduler.Lane.INTERACTIVE, AppScheduler.Priority.HIGH);
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private static final int MAX_SEARCH_RESULTS = 20;
+    private static final int MAX_REPLACEMENTS = 5;
+    // Attractions were added or swapped by hand: planner re-rankings and upgrades would drop them
+    private boolean editedByUser;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -70,6 +105,7 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
                 if (raw instanceof ItineraryResult) {
                     itineraryResult = (ItineraryResult) raw;
                     displayItinerary();
+                    listenForUpgrade();
                 } else {
                     showError("Invalid itinerary data received");
                 }
@@ -91,43 +127,50 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
                 
                 // Load trip items from repository
                 TripRepository repository = new TripRepository(getApplication());
-                repository.getItineraryItemsByTripId(tripId, items -> {
-                    runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
+                int savedTripId;
+                try {
+                    savedTripId = Integer.parseInt(tripId);
+                } catch (NumberFormatException e) {
+                    savedTripId = -1; // loads nothing
+                }
+                repository.loadItineraryAsync(savedTripId).thenAcceptAsync(items -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    progressBar.setVisibility(View.GONE);
+                    
+                    if (items != null && !items.isEmpty()) {
+                        // Create a basic ItineraryResult to display
+                        itineraryResult = new ItineraryResult();
+                        // Initialize metadata if it's null
+                        if (itineraryResult.metadata == null) {
+                            itineraryResult.metadata = new ItineraryResult.Metadata();
+                        }
+                        itineraryResult.metadata.location = destination;
+                        itineraryResult.metadata.days = duration;
+                        itineraryResult.metadata.budget = budget;
                         
-                        if (items != null && !items.isEmpty()) {
-                            // Create a basic ItineraryResult to display
-                            itineraryResult = new ItineraryResult();
-                            // Initialize metadata if it's null
-                            if (itineraryResult.metadata == null) {
-                                itineraryResult.metadata = new ItineraryResult.Metadata();
-                            }
-                            itineraryResult.metadata.location = destination;
-                            itineraryResult.metadata.days = duration;
-                            itineraryResult.metadata.budget = budget;
-                            
-                            // Convert ItineraryItems to POIs
-                            List<Poi> pois = new ArrayList<>();
-                            for (int i = 0; i < items.size(); i++) {
-                                Poi poi = new Poi();
-                                poi.name = items.get(i).name;
-                                poi.description = items.get(i).description;
-                                poi.category = items.get(i).category;
-                                poi.thumbnailUrl = items.get(i).thumbnailUrl;
-                                poi.day = items.get(i).day;
-                                pois.add(poi);
-                            }
-                            itineraryResult.pois = pois;
-                            
-                            displayItinerary();
-                            
-                            // Hide save button since it's already saved
-                            saveButton.setVisibility(View.GONE);
-                        } else {
-                            showError("No itinerary items found for this trip");
+                        // Convert ItineraryItems to POIs
+                        List<Poi> pois = new ArrayList<>();
+                        for (int i = 0; i < items.size(); i++) {
+                            Poi poi = new Poi();
+                            poi.name = items.get(i).name;
+                            poi.description = items.get(i).description;
+                            poi.category = items.get(i).category;
+                            poi.thumbnailUrl = items.get(i).thumbnailUrl;
+                            poi.day = items.get(i).day;
+                            pois.add(poi);
                         }
-                    });
-                });
+                        itineraryResult.pois = pois;
+                        
+                        displayItinerary();
+                        
+                        // Hide save button since it's already saved
+                        saveButton.setVisibility(View.GONE);
+                    } else {
+                        showError("No itinerary items found for this trip");
+                    }
+                }, ContextCompat.getMainExecutor(this));
             } else {
                 showError("No itinerary data to display");
             }
@@ -151,6 +194,28 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
         emptyStateText = findViewById(R.id.empty_state);
         saveButton = findViewById(R.id.save_button);
         shareButton = findViewById(R.id.share_button);
+        rankingCard = findViewById(R.id.ranking_card);
+        popularSeekBar = findViewById(R.id.popular_seek_bar);
+        nearbySeekBar = findViewById(R.id.nearby_seek_bar);
+        cheapSeekBar = findViewById(R.id.cheap_seek_bar);
+
+        SeekBar.OnSeekBarChangeListener rankingListener = new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                if (fromUser) {
+                    applyRankingWeights();
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        };
+        popularSeekBar.setOnSeekBarChangeListener(rankingListener);
+        nearbySeekBar.setOnSeekBarChangeListener(rankingListener);
+        cheapSeekBar.setOnSeekBarChangeListener(rankingListener);
 
         // Initially hide action FABs until we have a result
         saveButton.setVisibility(View.GONE);
@@ -198,11 +263,78 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
         recyclerView.setAdapter(adapter);
         recyclerView.setVisibility(View.VISIBLE);
 
+        // Only freshly planned itineraries have ranking scores to re-weight
+        rankingCard.setVisibility(itineraryResult.rankingId != 0 && !editedByUser ? View.VISIBLE : View.GONE);
+
         // Show action buttons (save/share)
         saveButton.setVisibility(View.VISIBLE);
         shareButton.setVisibility(View.VISIBLE);
     }
 
+    private RankingWeights currentWeights() {
+        return RankingWeights.fromPreferences(
+                popularSeekBar.getProgress() / 100f,
+                nearbySeekBar.getProgress() / 100f,
+                cheapSeekBar.getProgress() / 100f);
+    }
+
+    /**
+     * Re-ranks and re-packs the shown itinerary with the slider weights. The planner
+     * reuses the scores from when the itinerary was generated, so no model call is made.
+     */
+    private void applyRankingWeights() {
+        final ItineraryResult source = itineraryResult;
+        final RankingWeights weights = currentWeights();
+        final int generation = rankingGeneration.incrementAndGet();
+        rankingPending = true;
+        rankingExecutor.execute(() -> {
+            if (generation != rankingGeneration.get()) {
+                return; // a newer slider move is queued
+            }
+            ItineraryResult reweighted = ItineraryPlanner.getInstance(this).reweight(source, weights);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed() || editedByUser || generation != rankingGeneration.get()) {
+                    return;
+                }
+                rankingPending = false;
+                if (reweighted == null) {
+                    // Scores no longer cached by the planner
+                    rankingCard.setVisibility(View.GONE);
+                    return;
+                }
+                itineraryResult = reweighted;
+                displayItinerary();
+            });
+        });
+    }
+
+    /**
+     * A provisional itinerary was ranked before the model finished loading; swap in the
+     * model-ranked version when the planner delivers it.
+     */
+    private void listenForUpgrade() {
+        if (itineraryResult == null || !itineraryResult.provisional) {
+            return;
+        }
+        ItineraryPlanner.getInstance(this).upgradeOf(itineraryResult).thenAccept(upgraded -> {
+            if (upgraded == null) {
+                return;
+            }
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed() || editedByUser) {
+                    return;
+                }
+                itineraryResult = upgraded;
+                displayItinerary();
+                // The upgrade is ranked with default weights; keep the user's preferences
+                if (!currentWeights().isDefault()) {
+                    applyRankingWeights();
+                }
+                Toast.makeText(this, "Itinerary refined with personalized ranking", Toast.LENGTH_SHORT).show();
+            });
+        });
+    }
+
     private void showError(String message) {
         progressBar.setVisibility(View.GONE);
         recyclerView.setVisibility(View.GONE);
@@ -227,33 +359,51 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
 
         // Disable button to prevent multiple saves
         saveButton.setEnabled(false);
-        
+
+        if (rankingPending && !editedByUser) {
+            // The last slider move is not on screen yet (or its re-rank was dropped);
+            // re-rank with the sliders' weights so the saved order is the one they ask for
+            final ItineraryResult source = itineraryResult;
+            final RankingWeights weights = currentWeights();
+            final int generation = rankingGeneration.incrementAndGet();
+            AppScheduler.get().supply(AppScheduler.Lane.INTERACTIVE, AppScheduler.Priority.HIGH,
+                            () -> ItineraryPlanner.getInstance(this).reweight(source, weights))
+                    .whenCompleteAsync((reweighted, error) -> {
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        if (reweighted != null && !editedByUser && generation == rankingGeneration.get()) {
+                            rankingPending = false;
+                            itineraryResult = reweighted;
+                            displayItinerary();
+                        }
+                        storeItinerary();
+                    }, ContextCompat.getMainExecutor(this));
+            return;
+        }
+        storeItinerary();
+    }
+
+    /** Saves the itinerary that is on screen. */
+    private void storeItinerary() {
         // Create a TripRepository instance
         TripRepository tripRepository = new TripRepository(getApplication());
         
-        // Extract trip details from itineraryResult
-        // Add null check for metadata
-        if (itineraryResult.metadata == null) {
-            itineraryResult.metadata = new ItineraryResult.Metadata();
-        }
-        String destination = itineraryResult.metadata.location != null ? itineraryResult.metadata.location : "Unknown";
-        int duration = itineraryResult.dayPlans != null ? itineraryResult.dayPlans.size() : 1;
-        String budget = itineraryResult.metadata.budget != null ? itineraryResult.metadata.budget : "MODERATE";
-        
-        // Create MutableLiveData to receive the result
-        MutableLiveData<Long> resultLiveData = new MutableLiveData<>();
-        resultLiveData.observe(this, tripId -> {
-            if (tripId != null && tripId > 0) {
+        // Save the itinerary as shown, with the user's additions, swaps and slider order;
+        // the result is delivered on the main thread
+        tripRepository.saveTripAsync(itineraryResult).whenCompleteAsync((tripId, error) -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (error == null && tripId != null && tripId > 0) {
                 Toast.makeText(this, "Trip saved successfully!", Toast.LENGTH_SHORT).show();
             } else {
+                if (error != null) error.printStackTrace();
                 Toast.makeText(this, "Failed to save trip", Toast.LENGTH_SHORT).show();
             }
             // Re-enable the save button
             saveButton.setEnabled(true);
-        });
-        
-        // Save the trip
-        tripRepository.createTrip(destination, duration, budget, resultLiveData);
+        }, ContextCompat.getMainExecutor(this));
     }
 
     /**
@@ -286,6 +436,167 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
         startActivity(Intent.createChooser(share, "Share itinerary"));
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.itinerary_menu, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_add_attraction) {
+            showAttractionSearch();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * Search dialog for adding a specific attraction: results update as the user types,
+     * and picking one asks which day to add it to.
+     */
+    private void showAttractionSearch() {
+        if (itineraryResult == null || itineraryResult.dayPlans == null || itineraryResult.dayPlans.isEmpty()) {
+            Toast.makeText(this, "No itinerary to add to", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        EditText queryInput = new EditText(this);
+        queryInput.setHint(R.string.search_attractions_hint);
+        queryInput.setSingleLine(true);
+        ListView resultList = new ListView(this);
+        LinearLayout content = new LinearLayout(this);
+        content.setOrientation(LinearLayout.VERTICAL);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        content.setPadding(padding, padding / 2, padding, 0);
+        content.addView(queryInput);
+        content.addView(resultList);
+
+        List<Poi> results = new ArrayList<>();
+        ArrayAdapter<String> resultAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        resultList.setAdapter(resultAdapter);
+
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle(R.string.add_attraction)
+                .setView(content)
+                .setNegativeButton(android.R.string.cancel, null)
+                .create();
+
+        queryInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String query = s.toString();
+                final int generation = searchGeneration.incrementAndGet();
+                searchExecutor.execute(() -> {
+                    if (generation != searchGeneration.get()) {
+                        return; // a newer keystroke is queued
+                    }
+                    List<Poi> found = query.trim().isEmpty()
+                            ? Collections.<Poi>emptyList()
+                            : ItineraryPlanner.getInstance(ItineraryActivity.this).searchAttractions(query, MAX_SEARCH_RESULTS);
+                    runOnUiThread(() -> {
+                        if (isFinishing() || isDestroyed() || generation != searchGeneration.get()) {
+                            return;
+                        }
+                        results.clear();
+                        results.addAll(found);
+                        resultAdapter.clear();
+                        for (Poi poi : found) {
+                            resultAdapter.add(poi.name + " — " + poi.city);
+                        }
+                    });
+                });
+            }
+        });
+        resultList.setOnItemClickListener((parent, view, position, id) -> {
+            dialog.dismiss();
+            chooseDayFor(results.get(position));
+        });
+        dialog.show();
+    }
+
+    private void chooseDayFor(Poi poi) {
+        List<Integer> days = new ArrayList<>(itineraryResult.dayPlans.keySet());
+        Collections.sort(days);
+        String[] labels = new String[days.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = "Day " + days.get(i);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(poi.name)
+                .setItems(labels, (dialog, which) -> addToDay(poi, days.get(which)))
+                .show();
+    }
+
+    private void addToDay(Poi poi, int day) {
+        poi.day = day;
+        List<Poi> dayPois = new ArrayList<>(itineraryResult.dayPlans.get(day));
+        dayPois.add(poi);
+        itineraryResult.dayPlans.put(day, dayPois);
+        if (itineraryResult.totals == null) {
+            itineraryResult.totals = new ItineraryResult.Totals();
+        }
+        itineraryResult.totals.totalEstimatedCost += poi.estimatedCost;
+        itineraryResult.totals.totalTimeHours += poi.timeHours;
+        itineraryResult.summary = itineraryResult.generateSummary();
+        editedByUser = true;
+        displayItinerary();
+        Toast.makeText(this, "Added " + poi.name + " to day " + day, Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Long-press on a planned POI: offer nearby alternatives that fit the day and swap the
+     * chosen one in. The planner answers from its cached scores, without re-planning.
+     */
+    @Override
+    public void onPoiLongClick(int day, Poi poi) {
+        final ItineraryResult source = itineraryResult;
+        if (source == null || poi == null) {
+            return;
+        }
+        searchExecutor.execute(() -> {
+            ItineraryPlanner planner = ItineraryPlanner.getInstance(this);
+            List<Poi> replacements = planner.suggestReplacements(source, day, poi, MAX_REPLACEMENTS);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed() || source != itineraryResult) {
+                    return;
+                }
+                if (replacements.isEmpty()) {
+                    Toast.makeText(this, "No nearby alternatives fit this day", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                String[] labels = new String[replacements.size()];
+                for (int i = 0; i < labels.length; i++) {
+                    Poi p = replacements.get(i);
+                    labels[i] = String.format("%s (%.1fh, ₹%.0f)", p.name, p.timeHours, p.estimatedCost);
+                }
+                new AlertDialog.Builder(this)
+                        .setTitle("Replace " + poi.name)
+                        .setItems(labels, (dialog, which) -> {
+                            // The alternatives were chosen to fit the day as it was. If a re-rank
+                            // or upgrade replaced it while the dialog was open, swapping into the
+                            // old itinerary would throw that change away, on screen and on Save
+                            if (source != itineraryResult) {
+                                Toast.makeText(this, "The itinerary changed, long-press again to replace "
+                                        + poi.name, Toast.LENGTH_SHORT).show();
+                                return;
+                            }
+                            itineraryResult = planner.replacePoi(source, day, poi, replacements.get(which));
+                            editedByUser = true;
+                            displayItinerary();
+                        })
+                        .setNegativeButton(android.R.string.cancel, null)
+                        .show();
+            });
+        });
+    }
+
     @Override
     public void onPoiClick(Poi poi) {
         // Show POI details dialog (simple toast for now)
@@ -298,5 +609,8 @@ public class ItineraryActivity extends AppCompatActivity implements ItineraryAda
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        // Queued re-rankings and searches see a newer generation and skip their work
+        rankingGeneration.incrementAndGet();
+        searchGeneration.incrementAndGet();
     }
 }
@@ -15,7 +15,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.travelitineraryplanner.R;
-import com.example.travelitineraryplanner.data.local.TripRequest;
+import com.example.travelitineraryplanner.data.local.TripSummary;
 import com.example.travelitineraryplanner.ui.adapter.TripAdapter;
 import com.example.travelitineraryplanner.ui.viewmodel.TripViewModel;
 import com.google.firebase.auth.FirebaseAuth;
@@ -97,16 +97,17 @@ public class OldTripsActivity extends AppCompatActivity {
         tripsRecyclerView.setVisibility(View.GONE);
         emptyStateLayout.setVisibility(View.GONE);
         
-        tripViewModel.getUserTrips().observe(this, new Observer<List<TripRequest>>() {
+        tripViewModel.getUserTrips().observe(this, new Observer<List<TripSummary>>() {
             @Override
-            public void onChanged(List<TripRequest> trips) {
+            public void onChanged(List<TripSummary> trips) {
                 System.out.println("OldTripsActivity: Received " + (trips != null ? trips.size() : 0) + " trips");
                 progressBar.setVisibility(View.GONE);
                 
                 if (trips != null && !trips.isEmpty()) {
                     System.out.println("OldTripsActivity: Showing trips list");
-                    for (TripRequest trip : trips) {
-                        System.out.println("Trip: " + trip.destination + " (" + trip.duration + " days, " + trip.budget + ")");
+                    for (TripSummary summary : trips) {
+                        System.out.println("Trip: " + summary.trip.destination + " (" + summary.trip.duration + " days, "
+                                + summary.trip.budget + ", " + summary.placeCount + " places)");
                     }
                     tripAdapter.setTrips(trips);
                     tripsRecyclerView.setVisibility(View.VISIBLE);
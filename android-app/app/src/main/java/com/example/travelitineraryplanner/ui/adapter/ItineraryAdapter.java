@@ -32,6 +32,9 @@ public class ItineraryAdapter extends RecyclerView.Adapter<ItineraryAdapter.DayV
 
     public interface OnPoiClickListener {
         void onPoiClick(Poi poi);
+
+        /** Long-press on a POI of day {@code day}, e.g. to offer replacements. */
+        default void onPoiLongClick(int day, Poi poi) {}
     }
 
     public ItineraryAdapter(Map<Integer, List<Poi>> dayPlans, OnPoiClickListener listener) {
@@ -97,7 +100,7 @@ public class ItineraryAdapter extends RecyclerView.Adapter<ItineraryAdapter.DayV
             String summary = String.format("• %d places • %.1fh • ₹%.0f", pois.size(), totalTime, totalCost);
             daySummaryText.setText(summary);
 
-            PoiAdapter adapter = new PoiAdapter(pois, poiClickListener, itemView.getContext());
+            PoiAdapter adapter = new PoiAdapter(dayNumber, pois, poiClickListener, itemView.getContext());
             poisRecyclerView.setAdapter(adapter);
         }
     }
@@ -106,11 +109,13 @@ public class ItineraryAdapter extends RecyclerView.Adapter<ItineraryAdapter.DayV
      * Inner adapter for POI items
      */
     private static class PoiAdapter extends RecyclerView.Adapter<PoiAdapter.PoiViewHolder> {
+        private final int dayNumber;
         private final List<Poi> pois;
         private final OnPoiClickListener listener;
         private final Context ctx;
 
-        PoiAdapter(List<Poi> pois, OnPoiClickListener listener, Context ctx) {
+        PoiAdapter(int dayNumber, List<Poi> pois, OnPoiClickListener listener, Context ctx) {
+            this.dayNumber = dayNumber;
             this.pois = pois;
             this.listener = listener;
             this.ctx = ctx;
@@ -156,6 +161,14 @@ public class ItineraryAdapter extends RecyclerView.Adapter<ItineraryAdapter.DayV
                         listener.onPoiClick(pois.get(pos));
                     }
                 });
+                itemView.setOnLongClickListener(v -> {
+                    int pos = getAdapterPosition();
+                    if (pos != RecyclerView.NO_POSITION && listener != null && pos < pois.size()) {
+                        listener.onPoiLongClick(dayNumber, pois.get(pos));
+                        return true;
+                    }
+                    return false;
+                });
             }
 
             void bind(Poi poi) {
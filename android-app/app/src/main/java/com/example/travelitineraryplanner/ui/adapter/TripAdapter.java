@@ -8,12 +8,10 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.travelitineraryplanner.R;
 import com.example.travelitineraryplanner.data.local.TripRequest;
-import com.example.travelitineraryplanner.data.local.ItineraryItem;
-import com.example.travelitineraryplanner.data.repository.TripRepository;
+import com.example.travelitineraryplanner.data.local.TripSummary;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.HashSet;
 
 /**
  * Generic TripAdapter that tolerates slightly different item layout ids.
@@ -21,10 +19,12 @@ import java.util.HashSet;
  *  - trip_destination OR tripDestination OR destinationText
  *  - trip_date OR tripDate OR dateTextView
  *  - trip_duration OR tripDuration OR durationText
+ * Rows bind from {@link TripSummary}, which already carries the item count and place
+ * names, so binding does no I/O.
  */
 public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder> {
 
-    private List<TripRequest> trips;
+    private List<TripSummary> trips;
     private OnTripClickListener listener;
     private OnTripEditListener editListener;
     private OnTripDeleteListener deleteListener;
@@ -42,7 +42,7 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
         void onDelete(TripRequest trip);
     }
 
-    public TripAdapter(List<TripRequest> trips) {
+    public TripAdapter(List<TripSummary> trips) {
         this.trips = trips != null ? trips : new ArrayList<>();
     }
 
@@ -58,7 +58,7 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
         this.deleteListener = l;
     }
 
-    public void setTrips(List<TripRequest> trips) {
+    public void setTrips(List<TripSummary> trips) {
         this.trips = trips != null ? trips : new ArrayList<>();
         notifyDataSetChanged();
     }
@@ -72,8 +72,7 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull TripViewHolder holder, int position) {
-        TripRequest t = trips.get(position);
-        holder.bind(t);
+        holder.bind(trips.get(position));
     }
 
     @Override
@@ -111,7 +110,7 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
 //            itemView.setOnClickListener(v -> {
 //                int pos = getAdapterPosition();
 //                if (pos >= 0 && pos < trips.size() && listener != null) {
-//                    listener.onOpen(trips.get(pos));
+//                    listener.onOpen(trips.get(pos).trip);
 //                }
 //            });
 
@@ -124,7 +123,7 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
                     
                     int pos = getAdapterPosition();
                     if (pos >= 0 && pos < trips.size() && editListener != null) {
-                        editListener.onEdit(trips.get(pos));
+                        editListener.onEdit(trips.get(pos).trip);
                     }
                 });
             }
@@ -133,13 +132,14 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
                 btnDelete.setOnClickListener(v -> {
                     int pos = getAdapterPosition();
                     if (pos >= 0 && pos < trips.size() && deleteListener != null) {
-                        deleteListener.onDelete(trips.get(pos));
+                        deleteListener.onDelete(trips.get(pos).trip);
                     }
                 });
             }
         }
 
-        void bind(TripRequest t) {
+        void bind(TripSummary summary) {
+            TripRequest t = summary.trip;
             if (destinationText != null) {
                 destinationText.setText(t.destination != null ? t.destination : "Unknown");
             }
@@ -151,60 +151,26 @@ public class TripAdapter extends RecyclerView.Adapter<TripAdapter.TripViewHolder
                 }
             }
             if (durationText != null) {
-                durationText.setText(t.duration + " days • " + t.budget);
+                String details = t.duration + " days • " + t.budget;
+                if (summary.totalCost > 0) {
+                    details += String.format(" • ₹%.0f", summary.totalCost);
+                }
+                durationText.setText(details);
             }
 
             // Display POI summary with description of places
             if (poiSummaryText != null) {
-                // Get trip ID to load itinerary items
-                int tripId = t.id;
-
-                // Set initial loading text
-                poiSummaryText.setText("Places to visit: Loading...");
-
-                // Create repository to get itinerary items
-                TripRepository repository = new TripRepository((android.app.Application) root.getContext().getApplicationContext());
-
-                // Get itinerary items for this trip
-                repository.getItineraryItemsByTripId(String.valueOf(tripId), items -> {
-                    // Build a description of places
-                    StringBuilder placesDescription = new StringBuilder("Places to visit: ");
-
-                    if (items != null && !items.isEmpty()) {
-                        // Create a set to avoid duplicate place names
-                        Set<String> uniquePlaces = new HashSet<>();
-
-                        // Add up to 3 unique place names
-                        int count = 0;
-                        for (ItineraryItem item : items) {
-                            if (item.name != null && !item.name.isEmpty() && uniquePlaces.add(item.name)) {
-                                if (count > 0) {
-                                    placesDescription.append(", ");
-                                }
-                                placesDescription.append(item.name);
-                                count++;
-
-                                // Limit to 3 places
-                                if (count >= 3) {
-                                    break;
-                                }
-                            }
-                        }
-
-                        // Add "and more" if there are more places
-                        if (items.size() > 3) {
-                            placesDescription.append(" and more");
-                        }
-                    } else {
-                        placesDescription.append("Tap to add places to your itinerary");
-                    }
-
-                    // Update UI on main thread
-                    final String finalDescription = placesDescription.toString();
-                    if (poiSummaryText != null) {
-                        poiSummaryText.post(() -> poiSummaryText.setText(finalDescription));
+                StringBuilder placesDescription = new StringBuilder("Places to visit: ");
+                if (summary.leadingPlaces != null) {
+                    placesDescription.append(summary.leadingPlaces);
+                    // Add "and more" if there are more places than the three listed
+                    if (summary.placeCount > 3) {
+                        placesDescription.append(" and more");
                     }
-                });
+                } else {
+                    placesDescription.append("Tap to add places to your itinerary");
+                }
+                poiSummaryText.setText(placesDescription.toString());
             }
 
             // Hide the Edit button as it's not needed
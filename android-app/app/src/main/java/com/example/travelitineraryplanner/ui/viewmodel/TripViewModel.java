@@ -4,28 +4,28 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import com.example.travelitineraryplanner.data.local.TripRequest;
+import com.example.travelitineraryplanner.data.local.TripSummary;
 import com.example.travelitineraryplanner.data.repository.TripRepository;
 import java.util.List;
 
 public class TripViewModel extends AndroidViewModel {
     private TripRepository tripRepository;
-    private LiveData<List<TripRequest>> userTrips;
+    private LiveData<List<TripSummary>> userTrips;
 
     public TripViewModel(Application application) {
         super(application);
         tripRepository = new TripRepository(application);
         System.out.println("TripViewModel: Initializing and getting user trips");
-        userTrips = tripRepository.getUserTrips();
+        userTrips = tripRepository.getUserTripSummaries();
     }
 
-    public LiveData<List<TripRequest>> getUserTrips() {
+    public LiveData<List<TripSummary>> getUserTrips() {
         return userTrips;
     }
     
     public void deleteTrip(TripRequest trip) {
-        new Thread(() -> {
-            tripRepository.deleteTrip(trip);
-        }).start();
+        // Runs on the app's DATABASE lane
+        tripRepository.deleteTrip(trip);
     }
 
     @Override
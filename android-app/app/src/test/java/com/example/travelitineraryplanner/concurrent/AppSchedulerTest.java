@@ -0,0 +1,150 @@
+package com.example.travelitineraryplanner.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the app-wide lanes: priority order, bounded queues and stats
+ */
+public class AppSchedulerTest {
+
+    private static final AppScheduler.Lane LANE = AppScheduler.Lane.DATABASE;
+
+    private AppScheduler scheduler;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        // One thread and four queue slots per lane
+        scheduler = new AppScheduler(1, 4);
+        release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.executor(LANE).execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS)); // the lane's only thread is now busy
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testHigherPriorityRunsFirst() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.executor(LANE, AppScheduler.Priority.LOW).execute(() -> order.add("low"));
+        scheduler.executor(LANE, AppScheduler.Priority.NORMAL).execute(() -> order.add("normal 1"));
+        scheduler.executor(LANE, AppScheduler.Priority.HIGH).execute(() -> order.add("high"));
+        CompletableFuture<Void> last = scheduler.run(LANE, AppScheduler.Priority.NORMAL, () -> order.add("normal 2"));
+        release.countDown();
+
+        last.get(5, TimeUnit.SECONDS);
+        waitUntilIdle();
+        assertEquals(Arrays.asList("high", "normal 1", "normal 2", "low"), order);
+    }
+
+    @Test
+    public void testFullLaneRejectsAndLowPriorityIsShedFirst() throws Exception {
+        Executor low = scheduler.executor(LANE, AppScheduler.Priority.LOW);
+        low.execute(() -> {});
+        low.execute(() -> {});
+        try {
+            low.execute(() -> {}); // half of the capacity is taken
+            fail("expected low priority work to be shed");
+        } catch (RejectedExecutionException expected) {
+        }
+        scheduler.executor(LANE).execute(() -> {});
+        scheduler.executor(LANE).execute(() -> {});
+
+        CompletableFuture<String> overflow = scheduler.supply(LANE, AppScheduler.Priority.HIGH, () -> "late");
+        try {
+            overflow.get(5, TimeUnit.SECONDS);
+            fail("expected the full lane to reject");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        // Dropping views swallow the rejection
+        scheduler.executorDroppingWhenFull(LANE, AppScheduler.Priority.HIGH).execute(() -> {});
+
+        AppScheduler.LaneStats stats = scheduler.stats(LANE);
+        assertEquals(4, stats.queued);
+        assertEquals(4, stats.peakQueued);
+        assertEquals(3, stats.rejected);
+        assertEquals(1, stats.running);
+        // Other lanes are unaffected
+        assertEquals("ok", scheduler.supply(AppScheduler.Lane.SYNC, AppScheduler.Priority.LOW, () -> "ok")
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledWorkIsSkipped() throws Exception {
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<String> cancelled = scheduler.supply(LANE, AppScheduler.Priority.NORMAL, () -> {
+            ran.add("cancelled");
+            return "cancelled";
+        });
+        CompletableFuture<String> kept = scheduler.supply(LANE, AppScheduler.Priority.NORMAL, () -> {
+            ran.add("kept");
+            return "kept";
+        });
+        cancelled.cancel(false);
+        release.countDown();
+
+        assertEquals("kept", kept.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("kept"), ran);
+    }
+
+    @Test
+    public void testFailingTaskKeepsTheLane() throws Exception {
+        scheduler.executor(LANE).execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> failed = scheduler.supply(LANE, AppScheduler.Priority.NORMAL, () -> {
+            throw new IllegalArgumentException("bad row");
+        });
+        CompletableFuture<String> after = scheduler.supply(LANE, AppScheduler.Priority.NORMAL, () -> "still running");
+        release.countDown();
+
+        assertEquals("still running", after.get(5, TimeUnit.SECONDS));
+        assertTrue(failed.isCompletedExceptionally());
+        waitUntilIdle();
+        AppScheduler.LaneStats stats = scheduler.stats(LANE);
+        assertEquals(4, stats.submitted);
+        assertEquals(4, stats.completed);
+        assertEquals(1, stats.threads);
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        AppScheduler.LaneStats stats = scheduler.stats(LANE);
+        while (stats.completed < stats.submitted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+            stats = scheduler.stats(LANE);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.travelitineraryplanner.data.repository;
+
+import com.example.travelitineraryplanner.data.local.ItineraryItem;
+import com.example.travelitineraryplanner.data.local.TripRequest;
+import com.example.travelitineraryplanner.ml.ItineraryResult;
+import com.example.travelitineraryplanner.ml.Poi;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that a trip is stored the way its itinerary was shown
+ */
+public class SavedItineraryTest {
+
+    @Test
+    public void testAddedPoiSurvivesTheSave() {
+        ItineraryResult shown = plan("Jaipur", "MODERATE",
+                Arrays.asList(poi("Amber Fort", 400, 3.0), poi("Jal Mahal", 0, 1.0)),
+                Arrays.asList(poi("City Palace", 700, 2.0)));
+        // As ItineraryActivity.addToDay() does
+        Poi added = poi("Nahargarh Fort", 200, 2.5);
+        added.day = 2;
+        List<Poi> dayTwo = new ArrayList<>(shown.dayPlans.get(2));
+        dayTwo.add(added);
+        shown.dayPlans.put(2, dayTwo);
+
+        TripRequest trip = SavedItinerary.tripFor("user", shown);
+        assertEquals("Jaipur", trip.destination);
+        assertEquals("MODERATE", trip.budget);
+        assertEquals(2, trip.duration);
+
+        List<ItineraryItem> items = SavedItinerary.items(0, shown, trip.duration);
+        assertEquals(Arrays.asList("Amber Fort", "Jal Mahal", "City Palace", "Nahargarh Fort"), names(items));
+        ItineraryItem saved = items.get(3);
+        assertEquals(2, saved.day);
+        assertEquals(2, saved.orderInDay);
+        assertEquals(200, saved.estimatedCost, 0.0);
+        assertEquals(2.5, saved.durationHours, 0.0);
+    }
+
+    @Test
+    public void testSwappedPoiIsStoredAsShown() {
+        // Agra Fort swapped for Mehtab Bagh; ItineraryPlanner.replacePoi() returns a new
+        // result with the day's list replaced
+        ItineraryResult shown = plan("Agra", "LOW",
+                Arrays.asList(poi("Taj Mahal", 1100, 3.0), poi("Mehtab Bagh", 300, 1.5)));
+
+        List<ItineraryItem> items = SavedItinerary.items(0, shown, SavedItinerary.tripFor("user", shown).duration);
+        assertEquals(Arrays.asList("Taj Mahal", "Mehtab Bagh"), names(items));
+        assertEquals(300, items.get(1).estimatedCost, 0.0);
+        assertEquals(1.5, items.get(1).durationHours, 0.0);
+    }
+
+    @Test
+    public void testReweightedOrderIsStored() {
+        // The "cheap" slider moved the free sights ahead and onto day 1
+        ItineraryResult shown = plan("Goa", "LOW",
+                Arrays.asList(poi("Baga Beach", 0, 2.0), poi("Fort Aguada", 0, 1.0)),
+                Arrays.asList(poi("Basilica of Bom Jesus", 50, 1.5), poi("Dudhsagar Falls", 900, 5.0)));
+
+        List<ItineraryItem> items = SavedItinerary.items(0, shown, 2);
+        assertEquals(Arrays.asList("Baga Beach", "Fort Aguada", "Basilica of Bom Jesus", "Dudhsagar Falls"), names(items));
+        int[][] dayAndOrder = {{1, 1}, {1, 2}, {2, 1}, {2, 2}};
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(dayAndOrder[i][0], items.get(i).day);
+            assertEquals(dayAndOrder[i][1], items.get(i).orderInDay);
+        }
+    }
+
+    @Test
+    public void testEmptyPlanSavesPlaceholderDays() {
+        ItineraryResult shown = plan("Nowhere", null);
+        shown.metadata.days = 3;
+
+        TripRequest trip = SavedItinerary.tripFor("user", shown);
+        assertEquals(3, trip.duration);
+        assertEquals("MODERATE", trip.budget);
+        List<ItineraryItem> items = SavedItinerary.items(0, shown, trip.duration);
+        assertEquals(3, items.size());
+        assertEquals(3, items.get(2).day);
+        assertEquals("No recommended POIs", items.get(0).name);
+    }
+
+    @SafeVarargs
+    static ItineraryResult plan(String location, String budget, List<Poi>... days) {
+        ItineraryResult result = new ItineraryResult();
+        result.metadata = new ItineraryResult.Metadata();
+        result.metadata.location = location;
+        result.metadata.budget = budget;
+        result.metadata.days = days.length;
+        for (int d = 1; d <= days.length; d++) {
+            for (Poi p : days[d - 1]) {
+                p.day = d;
+            }
+            result.dayPlans.put(d, new ArrayList<>(days[d - 1]));
+        }
+        return result;
+    }
+
+    static Poi poi(String name, double cost, double hours) {
+        Poi p = new Poi();
+        p.name = name;
+        p.estimatedCost = cost;
+        p.timeHours = hours;
+        return p;
+    }
+
+    static List<String> names(List<ItineraryItem> items) {
+        List<String> names = new ArrayList<>();
+        for (ItineraryItem item : items) {
+            names.add(item.name);
+        }
+        return names;
+    }
+}
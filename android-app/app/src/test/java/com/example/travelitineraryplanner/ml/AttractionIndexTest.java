@@ -0,0 +1,83 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for BM25 attraction search
+ */
+public class AttractionIndexTest {
+
+    private PoiCatalog catalog;
+    private AttractionIndex index;
+
+    private static PoiCatalogBuilder baseCatalog() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("jaipur", "rajasthan", "amber fort", "fort", "hilltop fort of the kachwaha rajputs", "medium",
+                26.9855, 75.8513, 500.0, 2.5, 0.8);
+        builder.addPoi("jaipur", "rajasthan", "hawa mahal", "palace", "palace of winds with 953 windows", "low",
+                26.9239, 75.8267, 200.0, 1.5, 0.6);
+        builder.addPoi("jaipur", "rajasthan", "nahargarh fort", "fort", "fort overlooking the pink city", "low",
+                26.9373, 75.8155, 200.0, 2.0, 0.7);
+        builder.addPoi("agra", "uttar pradesh", "taj mahal", "mausoleum", "white marble mausoleum", "medium",
+                27.1750, 78.0421, 1100.0, 3.0, 0.95);
+        builder.addPoi("agra", "uttar pradesh", "agra fort", "fort", "red sandstone fort", "medium",
+                27.1795, 78.0211, 650.0, 2.0, 0.85);
+        return builder;
+    }
+
+    @Before
+    public void setUp() {
+        catalog = baseCatalog().buildCatalog();
+        index = AttractionIndex.build(catalog, null);
+    }
+
+    private String topName(String query) {
+        List<AttractionIndex.Hit> hits = index.search(query, 3);
+        return hits.isEmpty() ? null : catalog.name(hits.get(0).poi);
+    }
+
+    @Test
+    public void testNameMatchesRankFirst() {
+        assertEquals("amber fort", topName("amber fort"));
+        assertEquals("hawa mahal", topName("Hawa Mahal"));
+        // Both words match agra fort; other forts match only one
+        assertEquals("agra fort", topName("fort agra"));
+    }
+
+    @Test
+    public void testLastWordIsAPrefix() {
+        assertEquals("nahargarh fort", topName("nahar"));
+        assertEquals("taj mahal", topName("taj ma"));
+        // Other fields are searched too
+        assertEquals("taj mahal", topName("marble"));
+    }
+
+    @Test
+    public void testTopKAndNoMatches() {
+        List<AttractionIndex.Hit> hits = index.search("fort", 2);
+        assertEquals(2, hits.size());
+        assertTrue(hits.get(0).score >= hits.get(1).score);
+        assertTrue(index.search("zzz", 5).isEmpty());
+        assertTrue(index.search("  ", 5).isEmpty());
+    }
+
+    @Test
+    public void testRebuildAfterCatalogChange() {
+        PoiCatalogBuilder builder = baseCatalog();
+        builder.addPoi("udaipur", "rajasthan", "city palace", "palace", "palace on lake pichola", "medium",
+                24.5764, 73.6835, 300.0, 2.0, 0.7);
+        PoiCatalog updated = builder.buildCatalog();
+        AttractionIndex rebuilt = AttractionIndex.build(updated, index);
+        assertNotEquals(index.catalogHash(), rebuilt.catalogHash());
+        assertEquals("city palace", updated.name(rebuilt.search("pichola", 1).get(0).poi));
+        assertEquals("amber fort", updated.name(rebuilt.search("amber", 1).get(0).poi));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for cooperative planning cancellation
+ */
+public class CancellationTokenTest {
+
+    @Test
+    public void testCancelIsIdempotentAndNotifiesOnce() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger notified = new AtomicInteger();
+        token.onCancel(notified::incrementAndGet);
+        assertFalse(token.isCancelled());
+        token.throwIfCancelled();
+
+        token.cancel();
+        token.cancel();
+        assertTrue(token.isCancelled());
+        assertEquals(1, notified.get());
+        // Late listeners run right away
+        token.onCancel(notified::incrementAndGet);
+        assertEquals(2, notified.get());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testThrowIfCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        token.throwIfCancelled();
+    }
+
+    @Test
+    public void testInterruptCountsAsCancellation() {
+        CancellationToken token = new CancellationToken();
+        Thread.currentThread().interrupt();
+        try {
+            assertTrue(token.isCancelled());
+        } finally {
+            Thread.interrupted(); // clear for the next test
+        }
+        assertFalse(token.isCancelled());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for catalog updates stamped with the bundled catalog they were applied over
+ */
+public class CatalogUpdateTest {
+
+    private static final long BUNDLED = 0x1234L;
+    private static final long NEWER_BUNDLED = 0x5678L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private CatalogUpdate update;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "catalog/pois_update.poicat");
+        update = new CatalogUpdate(file);
+    }
+
+    private static PoiCatalogBuilder oneCity() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("jaipur", "rajasthan", "hawa mahal", "palace", "", "low",
+                26.9239, 75.8267, 200.0, 1.5, 0.6);
+        builder.addPoi("jaipur", "rajasthan", "amber fort", "fort", "", "medium",
+                26.9855, 75.8513, 500.0, 2.5, 0.8);
+        return builder;
+    }
+
+    @Test
+    public void testUpdateOverSameBundledCatalogIsUsed() throws Exception {
+        update.write(oneCity(), BUNDLED);
+        assertEquals(2, update.map().size());
+
+        PoiCatalog reopened = new CatalogUpdate(file).open(BUNDLED);
+        assertNotNull(reopened);
+        assertEquals(2, reopened.size());
+        assertEquals("jaipur", reopened.city(0));
+    }
+
+    @Test
+    public void testStaleUpdateIsDiscarded() throws Exception {
+        update.write(oneCity(), BUNDLED);
+
+        // An app update shipped another bundled catalog
+        assertNull(update.open(NEWER_BUNDLED));
+        assertFalse(file.exists());
+        // Gone for good, not only skipped once
+        assertNull(update.open(BUNDLED));
+    }
+
+    @Test
+    public void testUnstampedUpdateIsDiscarded() throws Exception {
+        // Written before updates were stamped
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            oneCity().writeTo(out);
+        }
+        assertNull(update.open(BUNDLED));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCorruptUpdateIsDiscarded() throws Exception {
+        update.write(oneCity(), BUNDLED);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[] {1, 2, 3});
+        }
+        assertNull(update.open(BUNDLED));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testMissingUpdateIsNull() {
+        assertNull(update.open(BUNDLED));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for destination autocomplete
+ */
+public class DestinationIndexTest {
+
+    private DestinationIndex index;
+
+    @Before
+    public void setUp() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("jaipur", "rajasthan", "hawa mahal", "palace", "", "low",
+                26.9239, 75.8267, 200.0, 1.5, 0.6);
+        builder.addPoi("jaipur", "rajasthan", "amber fort", "fort", "", "medium",
+                26.9855, 75.8513, 500.0, 2.5, 0.8);
+        builder.addPoi("jaisalmer", "rajasthan", "jaisalmer fort", "fort", "", "low",
+                26.9124, 70.9123, 50.0, 2.0, 0.7);
+        builder.addPoi("agra", "uttar pradesh", "taj mahal", "mausoleum", "", "medium",
+                27.1750, 78.0421, 1100.0, 3.0, 0.95);
+        builder.addPoi("bombay", "maharashtra", "gateway of india", "monument", "", "low",
+                18.9220, 72.8347, 0.0, 1.0, 0.9);
+        PoiCatalog catalog = builder.buildCatalog();
+        index = new DestinationIndex(catalog, new LocationResolver(catalog));
+    }
+
+    private static String texts(List<DestinationIndex.Suggestion> suggestions) {
+        StringBuilder sb = new StringBuilder();
+        for (DestinationIndex.Suggestion suggestion : suggestions) {
+            sb.append(suggestion.text).append(" | ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testPlacesOutrankAttractions() {
+        List<DestinationIndex.Suggestion> suggestions = index.complete("Jai", 5);
+        assertEquals(3, suggestions.size());
+        // jaipur has more POIs than jaisalmer; the fort is only an attraction
+        assertEquals("jaipur, rajasthan", suggestions.get(0).text);
+        assertEquals("jaisalmer, rajasthan", suggestions.get(1).text);
+        assertEquals(DestinationIndex.ATTRACTION, suggestions.get(2).kind);
+        assertEquals("jaisalmer", suggestions.get(2).destination);
+    }
+
+    @Test
+    public void testLaterWordsMatch() {
+        String texts = texts(index.complete("mahal", 5));
+        assertTrue(texts, texts.contains("hawa mahal — jaipur"));
+        assertTrue(texts, texts.contains("taj mahal — agra"));
+        assertEquals("taj mahal — agra", index.complete("mahal", 5).get(0).text); // more popular
+    }
+
+    @Test
+    public void testTopKAndOnePerPlace() {
+        assertEquals(1, index.complete("jai", 1).size());
+        // "bombay" and "mumbai" are one place: each prefix offers it once
+        assertEquals(1, index.complete("mum", 5).size());
+        assertEquals("mumbai", index.complete("mum", 5).get(0).destination);
+        assertEquals(1, index.complete("bom", 5).size());
+    }
+
+    @Test
+    public void testStatesAndNoMatches() {
+        DestinationIndex.Suggestion state = index.complete("raj", 5).get(0);
+        assertEquals(DestinationIndex.STATE, state.kind);
+        assertEquals("rajasthan", state.destination);
+        assertTrue(index.complete("zz", 5).isEmpty());
+        assertTrue(index.complete("  ", 5).isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the pure-Java distilled scorer format and evaluation
+ */
+public class DistilledScorerTest {
+
+    private static ByteBuffer header(int kind, int featureCount, float bias, int extraBytes) {
+        ByteBuffer buf = ByteBuffer.allocate(20 + extraBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(DistilledScorer.MAGIC).putInt(DistilledScorer.VERSION).putInt(kind).putInt(featureCount).putFloat(bias);
+        return buf;
+    }
+
+    /**
+     * Two stumps over 2 features:
+     *   tree 0: f0 <= 0.5 ? 1.0 : 2.0
+     *   tree 1: f1 <= 10  ? 0.25 : -0.25
+     */
+    private static ByteBuffer twoStumps() {
+        int trees = 2;
+        int nodes = 6;
+        ByteBuffer buf = header(DistilledScorer.KIND_GBDT, 2, 0.5f, 8 + trees * 4 + nodes * 20);
+        buf.putInt(trees).putInt(nodes);
+        buf.putInt(0).putInt(3);
+        for (int f : new int[] {0, -1, -1, 1, -1, -1}) buf.putInt(f);
+        for (float t : new float[] {0.5f, 0, 0, 10f, 0, 0}) buf.putFloat(t);
+        for (int l : new int[] {1, -1, -1, 4, -1, -1}) buf.putInt(l);
+        for (int r : new int[] {2, -1, -1, 5, -1, -1}) buf.putInt(r);
+        for (float v : new float[] {0, 1f, 2f, 0, 0.25f, -0.25f}) buf.putFloat(v);
+        buf.flip();
+        return buf;
+    }
+
+    @Test
+    public void testGbdtScoresColumnMajorRows() {
+        DistilledScorer scorer = DistilledScorer.fromBuffer(twoStumps());
+        // rows: (0.5, 10) (0.6, 11) (0.0, 20); the first row sits exactly on both thresholds
+        float[] columns = {0.5f, 0.6f, 0.0f, 10f, 11f, 20f};
+        float[] out = new float[3];
+        scorer.score(columns, 3, out);
+
+        assertEquals(0.5f + 1f + 0.25f, out[0], 1e-6);
+        assertEquals(0.5f + 2f - 0.25f, out[1], 1e-6);
+        assertEquals(0.5f + 1f - 0.25f, out[2], 1e-6);
+    }
+
+    @Test
+    public void testLinearScores() {
+        ByteBuffer buf = header(DistilledScorer.KIND_LINEAR, 2, 1f, 8);
+        buf.putFloat(2f).putFloat(-1f).flip();
+        DistilledScorer scorer = DistilledScorer.fromBuffer(buf);
+
+        float[] out = new float[2];
+        scorer.score(new float[] {1f, 3f, 4f, 0f}, 2, out);
+        assertEquals(1f + 2f * 1f - 4f, out[0], 1e-6);
+        assertEquals(1f + 2f * 3f, out[1], 1e-6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCyclicNodeLinksAreRejected() {
+        ByteBuffer buf = twoStumps();
+        // point node 3's left child back at the root
+        buf.putInt(20 + 8 + 8 + 6 * 4 + 6 * 4 + 3 * 4, 0);
+        DistilledScorer.fromBuffer(buf);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongMagicIsRejected() {
+        DistilledScorer.fromBuffer(ByteBuffer.wrap(new byte[64]));
+    }
+}
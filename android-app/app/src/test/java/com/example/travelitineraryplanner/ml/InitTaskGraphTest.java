@@ -0,0 +1,75 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the planner's startup task graph
+ */
+public class InitTaskGraphTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentTasksRunConcurrently() throws Exception {
+        // Both tasks wait for each other, so this only finishes if they overlap
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        InitTaskGraph graph = new InitTaskGraph(executor)
+                .task("a", () -> { bothStarted.countDown(); assertTrue(bothStarted.await(5, TimeUnit.SECONDS)); })
+                .task("b", () -> { bothStarted.countDown(); assertTrue(bothStarted.await(5, TimeUnit.SECONDS)); });
+
+        graph.completion().get(10, TimeUnit.SECONDS);
+        Map<String, Long> timings = graph.timingsMillis();
+        assertEquals(2, timings.size());
+        assertTrue(timings.containsKey("a") && timings.containsKey("b"));
+    }
+
+    @Test
+    public void testDependentTaskWaitsForPrerequisite() throws Exception {
+        AtomicBoolean scalerLoaded = new AtomicBoolean();
+        AtomicBoolean catalogSawScaler = new AtomicBoolean();
+        InitTaskGraph graph = new InitTaskGraph(executor)
+                .task("scaler", () -> { Thread.sleep(50); scalerLoaded.set(true); })
+                .task("catalog", () -> catalogSawScaler.set(scalerLoaded.get()), "scaler");
+
+        graph.completion().get(10, TimeUnit.SECONDS);
+        assertTrue(catalogSawScaler.get());
+        assertTrue(graph.timingsMillis().get("scaler") >= 50);
+    }
+
+    @Test
+    public void testFailureSkipsDependentsAndFailsCompletion() throws Exception {
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        InitTaskGraph graph = new InitTaskGraph(executor)
+                .task("scaler", () -> { throw new IllegalStateException("boom"); })
+                .task("catalog", () -> dependentRan.set(true), "scaler");
+
+        try {
+            graph.completion().join();
+            fail("Expected the graph to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertFalse(dependentRan.get());
+        assertFalse(graph.timingsMillis().containsKey("catalog"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndeclaredDependencyIsRejected() {
+        new InitTaskGraph(executor).task("catalog", () -> {}, "scaler");
+    }
+}
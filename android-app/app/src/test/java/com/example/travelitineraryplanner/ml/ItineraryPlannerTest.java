@@ -6,6 +6,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import android.content.Context;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -176,4 +183,61 @@ public class ItineraryPlannerTest {
             assertTrue("Should handle test environment gracefully", true);
         }
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testConcurrentPlansKeepTheirOwnRankings() throws Exception {
+        // No assets here, so both planners fall back to the default catalog. The reference
+        // planner plans one request at a time; the other plans two cities at once, each
+        // request new to its result cache.
+        ItineraryPlanner reference = new ItineraryPlanner(mockContext);
+        planner = new ItineraryPlanner(mockContext);
+        reference.whenReady().get();
+        planner.whenReady().get();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int days = 1; days <= 5; days++) {
+                List<String> delhi = names(reference.planItinerary("Delhi", days, "moderate"));
+                List<String> mumbai = names(reference.planItinerary("Mumbai", days, "moderate"));
+                assertNotEquals(delhi, mumbai);
+                
+                CyclicBarrier start = new CyclicBarrier(2);
+                int tripDays = days;
+                Future<ItineraryResult> a = pool.submit(() -> {
+                    start.await();
+                    return planner.planItinerary("Delhi", tripDays, "moderate");
+                });
+                Future<ItineraryResult> b = pool.submit(() -> {
+                    start.await();
+                    return planner.planItinerary("Mumbai", tripDays, "moderate");
+                });
+                ItineraryResult delhiPlan = a.get();
+                assertEquals(delhi, names(delhiPlan));
+                assertEquals(mumbai, names(b.get()));
+                
+                // The result owns its POIs: editing them changes neither the catalog nor the
+                // cached plan the next caller is served
+                for (List<Poi> pois : delhiPlan.dayPlans.values()) {
+                    for (Poi poi : pois) {
+                        poi.name = "edited";
+                        poi.day = 99;
+                    }
+                }
+                assertEquals(delhi, names(planner.planItinerary("Delhi", days, "moderate")));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private static List<String> names(ItineraryResult result) {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<Integer, List<Poi>> day : result.dayPlans.entrySet()) {
+            for (Poi poi : day.getValue()) {
+                assertEquals(day.getKey().intValue(), poi.day);
+                names.add(poi.name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for resolving free-text locations to canonical places
+ */
+public class LocationResolverTest {
+
+    private PoiCatalog catalog;
+    private LocationResolver resolver;
+
+    @Before
+    public void setUp() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("bangalore", "karnataka", "lalbagh", "garden", "", "low",
+                12.9507, 77.5848, 50.0, 2.0, 0.7);
+        builder.addPoi("bengaluru", "karnataka", "cubbon park", "park", "", "low",
+                12.9763, 77.5929, 0.0, 1.5, 0.6);
+        builder.addPoi("mumbai", "maharastra", "gateway of india", "monument", "", "low",
+                18.9220, 72.8347, 0.0, 1.0, 0.9);
+        builder.addPoi("pune", "maharashtra", "shaniwar wada", "fort", "", "low",
+                18.5195, 73.8553, 25.0, 1.5, 0.6);
+        builder.addPoi("puri", "odisha", "jagannath temple", "temple", "", "low",
+                19.8048, 85.8179, 0.0, 2.0, 0.8);
+        catalog = builder.buildCatalog();
+        resolver = new LocationResolver(catalog);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("new delhi", LocationResolver.normalize("  New-Delhi "));
+        assertEquals("", LocationResolver.normalize(null));
+    }
+
+    @Test
+    public void testCityAliasesShareOnePlace() {
+        LocationResolver.Place city = resolver.resolve("Bangalore").city;
+        assertNotNull(city);
+        assertSame(city, resolver.resolve("bengaluru").city);
+        assertEquals("bengaluru", city.name);
+        assertEquals(2, city.poiCount());
+        assertEquals(city.id, resolver.cityIdOf(0));
+        assertEquals(city.id, resolver.cityIdOf(1));
+        assertTrue(city.contains(12.96, 77.59));
+        assertFalse(city.contains(18.92, 72.83));
+    }
+
+    @Test
+    public void testStateAliasesShareOnePlace() {
+        LocationResolver.Place state = resolver.resolve("Maharashtra").state;
+        assertNotNull(state);
+        assertSame(state, resolver.resolve("maharastra").state);
+        assertEquals(2, state.poiCount());
+        assertNull(resolver.resolve("maharashtra").city);
+    }
+
+    @Test
+    public void testPartialAndUnknownInputs() {
+        LocationResolver.Resolution partial = resolver.resolve("bengal");
+        assertNull(partial.city);
+        assertEquals("bengaluru", partial.primary().name);
+        assertTrue(resolver.resolve("atlantis").isEmpty());
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, BkTree.distance("jaipur", "jaipur"));
+        assertEquals(1, BkTree.distance("jaipor", "jaipur"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "pune"));
+    }
+
+    @Test
+    public void testClearTypoIsCorrected() {
+        LocationResolver.Resolution typo = resolver.resolve("Mumbay");
+        assertEquals("mumbai", typo.corrected);
+        assertSame(resolver.resolve("mumbai").city, typo.city);
+
+        LocationResolver.Resolution state = resolver.resolve("karnatka");
+        assertEquals("karnataka", state.corrected);
+        assertNotNull(state.state);
+    }
+
+    @Test
+    public void testAmbiguousTypoOnlySuggests() {
+        LocationResolver.Resolution typo = resolver.resolve("pure");
+        assertTrue(typo.isEmpty());
+        assertNull(typo.corrected);
+        assertEquals(2, typo.suggestions.size());
+        assertTrue(typo.suggestions.contains("pune"));
+        assertTrue(typo.suggestions.contains("puri"));
+    }
+
+    @Test
+    public void testSuggestionsAreOnePerPlace() {
+        // bangalore and bengaluru are the same place; only the nearer name is offered
+        assertEquals("bangalore", resolver.suggest("bangalre").get(0));
+        assertEquals(1, resolver.suggest("bangalre").size());
+        assertTrue(resolver.suggest("xyzzy").isEmpty());
+    }
+
+    @Test
+    public void testRepeatedInputsAreCached() {
+        assertSame(resolver.resolve("Pune"), resolver.resolve("Pune"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for re-ranking from cached component scores
+ */
+public class RankingComponentsTest {
+
+    private static RankingComponents threePois() {
+        RankingComponents components = new RankingComponents("jaipur", 1, "MODERATE", 3);
+        float[][] rows = {
+                // base, popularity, proximity, cheapness
+                {0.9f, 0.2f, 0.1f, 0.0f},
+                {0.5f, 0.9f, 0.2f, 0.5f},
+                {0.4f, 0.1f, 0.9f, 1.0f},
+        };
+        for (int i = 0; i < rows.length; i++) {
+            Poi poi = new Poi();
+            poi.name = "poi" + i;
+            components.pois[i] = poi;
+            components.base[i] = rows[i][0];
+            components.popularity[i] = rows[i][1];
+            components.proximity[i] = rows[i][2];
+            components.cheapness[i] = rows[i][3];
+        }
+        return components;
+    }
+
+    private static String names(List<Poi> pois) {
+        StringBuilder sb = new StringBuilder();
+        for (Poi poi : pois) {
+            sb.append(poi.name).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    @Test
+    public void testRankDescendingHandlesNegativesAndTies() {
+        float[] scores = {-1.5f, 2f, 0f, -0.0f, 2f, Float.NaN, -3f};
+        int[] order = RankingComponents.rankDescending(scores, scores.length);
+        assertArrayEquals(new int[] {1, 4, 2, 3, 0, 6, 5}, order);
+    }
+
+    @Test
+    public void testDefaultWeightsFollowModelScore() {
+        assertEquals("poi0 poi1 poi2", names(threePois().rank(RankingWeights.DEFAULT)));
+    }
+
+    @Test
+    public void testPreferencesReorderWithoutModel() {
+        RankingComponents components = threePois();
+        assertEquals("poi1", components.rank(new RankingWeights(0f, 1f, 0f, 0f)).get(0).name);
+        assertEquals("poi2", components.rank(new RankingWeights(0f, 0f, 0f, 1f)).get(0).name);
+        // The cached order is untouched by re-ranking
+        assertEquals("poi0 poi1 poi2", names(components.ranked()));
+    }
+
+    @Test
+    public void testNoPreferencesGiveDefaultWeights() {
+        assertTrue(RankingWeights.fromPreferences(0f, 0f, 0f).isDefault());
+        RankingWeights weights = RankingWeights.fromPreferences(1f, 0.5f, 2f);
+        assertEquals(1f, weights.model + weights.popular + weights.nearby + weights.cheap, 1e-6);
+        assertEquals(weights.popular, weights.cheap, 1e-6); // cheap is clamped to 1
+    }
+}
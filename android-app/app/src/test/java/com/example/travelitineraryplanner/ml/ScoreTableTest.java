@@ -0,0 +1,47 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the precomputed score table file
+ */
+public class ScoreTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeTable() throws Exception {
+        File file = new File(folder.getRoot(), "scores/score_table.bin");
+        // 2 budgets x 3 POIs, budget-major
+        ScoreTable.of(11L, 22L, 2, 3, new float[] {0.1f, 0.2f, 0.3f, 1.1f, 1.2f, 1.3f}).writeTo(file);
+        return file;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ScoreTable table = ScoreTable.open(writeTable(), 11L, 22L, 2);
+        assertNotNull(table);
+        assertEquals(3, table.poiCount());
+        assertEquals(0.2f, table.score(0, 1), 0f);
+        assertEquals(1.3f, table.score(1, 2), 0f);
+    }
+
+    @Test
+    public void testStaleTableIsRejected() throws Exception {
+        File file = writeTable();
+        assertNull(ScoreTable.open(file, 12L, 22L, 2)); // other model
+        assertNull(ScoreTable.open(file, 11L, 23L, 2)); // other catalog
+        assertNull(ScoreTable.open(file, 11L, 22L, 3)); // other budget encoder
+    }
+
+    @Test
+    public void testMissingTableIsNull() {
+        assertNull(ScoreTable.open(new File(folder.getRoot(), "none.bin"), 11L, 22L, 2));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.travelitineraryplanner.ml;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for coalescing concurrent computations per key
+ */
+public class SingleFlightTest {
+
+    private ExecutorService flightExecutor;
+    private ExecutorService callers;
+    private SingleFlight<String, String> flights;
+
+    @Before
+    public void setUp() {
+        flightExecutor = Executors.newFixedThreadPool(2);
+        callers = Executors.newFixedThreadPool(4);
+        flights = new SingleFlight<>(flightExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        flightExecutor.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneComputation() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = callers.submit(() -> flights.join("jaipur", new CancellationToken(), token -> {
+            runs.incrementAndGet();
+            awaitQuietly(release);
+            return "plan";
+        }));
+        waitForFlights(1);
+        Future<String> second = callers.submit(() -> flights.join("jaipur", new CancellationToken(), token -> {
+            runs.incrementAndGet();
+            return "other plan";
+        }));
+        Thread.sleep(50); // let the second caller attach
+        release.countDown();
+
+        assertEquals("plan", first.get(5, TimeUnit.SECONDS));
+        assertEquals("plan", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        waitForFlights(0);
+        // Landed flights are not remembered
+        assertEquals("again", flights.join("jaipur", new CancellationToken(), token -> "again"));
+    }
+
+    @Test
+    public void testLastWaiterLeavingCancelsTheFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Future<String> waiter = callers.submit(() -> flights.join("agra", new CancellationToken(), token -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                assertTrue(token.isCancelled());
+                interrupted.countDown();
+            }
+            return "late";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        waiter.cancel(true); // interrupts the only waiter
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        waitForFlights(0);
+        // The next caller starts over
+        assertEquals("fresh", flights.join("agra", new CancellationToken(), token -> "fresh"));
+    }
+
+    @Test
+    public void testFlightContinuesWhileAnyWaiterRemains() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leaving = callers.submit(() -> flights.join("goa", new CancellationToken(), token -> {
+            awaitQuietly(release);
+            return "beach";
+        }));
+        waitForFlights(1);
+        Future<String> staying = callers.submit(() -> flights.join("goa", new CancellationToken(), token -> "other"));
+        Thread.sleep(50);
+        leaving.cancel(true);
+        Thread.sleep(50);
+        release.countDown();
+        assertEquals("beach", staying.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledCallerLeaves() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CancellationToken leaving = new CancellationToken();
+        Future<String> first = callers.submit(() -> flights.join("pune", leaving, token -> {
+            awaitQuietly(release);
+            return "fort";
+        }));
+        waitForFlights(1);
+        Future<String> second = callers.submit(() -> flights.join("pune", new CancellationToken(), token -> "other"));
+        Thread.sleep(50);
+        leaving.cancel();
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            fail("expected the cancelled caller to leave");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+        release.countDown();
+        assertEquals("fort", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailuresPropagate() throws Exception {
+        try {
+            flights.join("delhi", new CancellationToken(), token -> {
+                throw new IllegalStateException("no catalog");
+            });
+            fail("expected the computation's failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        waitForFlights(0);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitForFlights(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flights.inFlight() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, flights.inFlight());
+    }
+}
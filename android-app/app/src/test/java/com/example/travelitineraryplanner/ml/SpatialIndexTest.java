@@ -0,0 +1,109 @@
+package com.example.travelitineraryplanner.ml;
+
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalog;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for nearest-neighbour and radius queries on the POI grid
+ */
+public class SpatialIndexTest {
+
+    private static PoiCatalog randomCatalog(int size, long seed) {
+        Random random = new Random(seed);
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        for (int i = 0; i < size; i++) {
+            // Clustered around a few cities, like the real catalog
+            double lat = 20 + 5 * (i % 4) + random.nextGaussian() * 0.3;
+            double lon = 75 + 3 * (i % 4) + random.nextGaussian() * 0.3;
+            builder.addPoi("city" + (i % 4), "state", "poi" + i, "fort", "", "low",
+                    lat, lon, 100.0, 1.0, 0.5);
+        }
+        return builder.buildCatalog();
+    }
+
+    // Brute force: every row by distance
+    private static int[] bruteForce(PoiCatalog catalog, double lat, double lon, int k, boolean evenOnly) {
+        return java.util.stream.IntStream.range(0, catalog.size())
+                .filter(row -> !evenOnly || row % 2 == 0)
+                .boxed()
+                .sorted((a, b) -> Double.compare(
+                        SpatialIndex.distanceKm(lat, lon, catalog.latitude(a), catalog.longitude(a)),
+                        SpatialIndex.distanceKm(lat, lon, catalog.latitude(b), catalog.longitude(b))))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        PoiCatalog catalog = randomCatalog(2000, 7);
+        SpatialIndex index = new SpatialIndex(catalog);
+        Random random = new Random(3);
+        for (int q = 0; q < 50; q++) {
+            double lat = 18 + random.nextDouble() * 20;
+            double lon = 73 + random.nextDouble() * 14;
+            assertArrayEquals(bruteForce(catalog, lat, lon, 10, false), index.nearest(lat, lon, 10, null));
+            assertArrayEquals(bruteForce(catalog, lat, lon, 5, true),
+                    index.nearest(lat, lon, 5, row -> row % 2 == 0));
+        }
+    }
+
+    @Test
+    public void testWithinMatchesBruteForce() {
+        PoiCatalog catalog = randomCatalog(2000, 11);
+        SpatialIndex index = new SpatialIndex(catalog);
+        Random random = new Random(5);
+        for (int q = 0; q < 50; q++) {
+            double lat = 18 + random.nextDouble() * 20;
+            double lon = 73 + random.nextDouble() * 14;
+            double radius = 5 + random.nextDouble() * 100;
+            int[] expected = bruteForce(catalog, lat, lon, catalog.size(), q % 2 == 1);
+            int count = 0;
+            while (count < expected.length && SpatialIndex.distanceKm(lat, lon,
+                    catalog.latitude(expected[count]), catalog.longitude(expected[count])) <= radius) {
+                count++;
+            }
+            int[] actual = index.within(lat, lon, radius, q % 2 == 1 ? row -> row % 2 == 0 : null);
+            assertEquals(count, actual.length);
+            // Nearest first
+            for (int i = 1; i < actual.length; i++) {
+                assertTrue(SpatialIndex.distanceKm(lat, lon, catalog.latitude(actual[i - 1]), catalog.longitude(actual[i - 1]))
+                        <= SpatialIndex.distanceKm(lat, lon, catalog.latitude(actual[i]), catalog.longitude(actual[i])) + 1e-3);
+            }
+            int[] sortedActual = actual.clone();
+            int[] sortedExpected = Arrays.copyOf(expected, count);
+            Arrays.sort(sortedActual);
+            Arrays.sort(sortedExpected);
+            assertArrayEquals(sortedExpected, sortedActual);
+        }
+        assertEquals(0, index.within(51.5, -0.1, 50, null).length);
+    }
+
+    @Test
+    public void testFarQueryAndSmallCatalog() {
+        PoiCatalog catalog = randomCatalog(3, 1);
+        SpatialIndex index = new SpatialIndex(catalog);
+        // Asking for more than there are returns all of them, nearest first
+        int[] all = index.nearest(51.5, -0.1, 10, null);
+        assertEquals(3, all.length);
+        assertArrayEquals(bruteForce(catalog, 51.5, -0.1, 3, false), all);
+        assertEquals(0, index.nearest(20, 75, 5, row -> false).length);
+    }
+
+    @Test
+    public void testRowsWithoutCoordinatesAreSkipped() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("a", "s", "located", "fort", "", "low", 26.9, 75.8, 0.0, 1.0, 0.5);
+        builder.addPoi("a", "s", "unlocated", "fort", "", "low", 0.0, 0.0, 0.0, 1.0, 0.5);
+        SpatialIndex index = new SpatialIndex(builder.buildCatalog());
+        assertEquals(1, index.size());
+        assertEquals(1, Arrays.stream(index.nearest(0.1, 0.1, 5, null)).count());
+    }
+}
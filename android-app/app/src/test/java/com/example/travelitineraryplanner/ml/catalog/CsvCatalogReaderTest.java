@@ -0,0 +1,81 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the streaming CSV catalog parser
+ */
+public class CsvCatalogReaderTest {
+
+    private static PoiCatalog parse(String csv, PoiCatalogBuilder builder) throws Exception {
+        CsvCatalogReader reader = new CsvCatalogReader(builder);
+        reader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        return builder.buildCatalog();
+    }
+
+    @Test
+    public void testQuotedFieldsKeepCommasAndQuotes() throws Exception {
+        String csv = "city,state,attraction_name,category,description,latitude,longitude,estimated_visit_cost_inr,time_hours\r\n"
+                + "jaipur,rajasthan,\"Amber Fort, Amer\",fort,\"the \"\"pink\"\" city\",26.9855,75.8513,500,2.5\r\n";
+        PoiCatalog catalog = parse(csv, new PoiCatalogBuilder());
+
+        assertEquals(1, catalog.size());
+        assertEquals("Amber Fort, Amer", catalog.name(0));
+        assertEquals("the \"pink\" city", catalog.description(0));
+        assertEquals(26.9855, catalog.latitude(0), 1e-12);
+        assertEquals(500.0, catalog.estimatedCost(0), 1e-3);
+        assertEquals("medium", catalog.costCategory(0));
+    }
+
+    @Test
+    public void testScaledColumnsAreDenormalized() throws Exception {
+        String csv = "city,state,attraction_name,category,latitude,longitude,estimated_visit_cost_inr,time_hours,cost_category\n"
+                + "agra,uttar pradesh,taj mahal,mausoleum,27.1750075,78.0421013,1.0,-0.5,high\n"
+                + "\n";
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        CsvCatalogReader reader = new CsvCatalogReader(builder).scaleCost(600, 500).scaleTime(2, 1);
+        reader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        PoiCatalog catalog = builder.buildCatalog();
+
+        assertEquals(1, reader.rowsAdded());
+        assertEquals(1100.0, catalog.estimatedCost(0), 1e-3);
+        assertEquals(1.5, catalog.timeHours(0), 1e-6);
+        assertEquals("high", catalog.costCategory(0));
+    }
+
+    @Test
+    public void testMalformedRowsAreSkipped() throws Exception {
+        String csv = "city,state,attraction_name,category,latitude,longitude,estimated_visit_cost_inr,time_hours\n"
+                + "delhi,delhi,red fort,fort,28.6562,77.2410,abc,2\n"
+                + "delhi,delhi,india gate\n"
+                + "delhi,delhi,qutub minar,monument,28.5245,77.1855,600,2";
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        CsvCatalogReader reader = new CsvCatalogReader(builder);
+        reader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, reader.rowsAdded());
+        assertEquals(2, reader.rowsSkipped());
+        assertEquals("qutub minar", builder.buildCatalog().name(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingRequiredColumnFails() throws Exception {
+        parse("city,state\njaipur,rajasthan\n", new PoiCatalogBuilder());
+    }
+
+    @Test
+    public void testParseDoubleMatchesJdk() {
+        String[] values = {"0", "-0.3141472547298894", "26.9239", "1e3", "-2.5E-4", "123456789012345678901", "+7"};
+        for (String v : values) {
+            byte[] bytes = v.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(v, Double.parseDouble(v), CsvCatalogReader.parseDouble(bytes, 0, bytes.length), 0.0);
+        }
+        byte[] bad = "12a".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(Double.isNaN(CsvCatalogReader.parseDouble(bad, 0, bad.length)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.travelitineraryplanner.ml.catalog;
+
+import com.example.travelitineraryplanner.ml.Poi;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip tests for the compiled POI catalog format
+ */
+public class PoiCatalogTest {
+
+    private PoiCatalog catalog;
+
+    @Before
+    public void setUp() {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("jaipur", "rajasthan", "hawa mahal", "palace", "", "low",
+                26.9239, 75.8267, 200.0, 1.5, 0.6);
+        builder.addPoi("agra", "uttar pradesh", "taj mahal", "mausoleum", "historical", "medium",
+                27.1750, 78.0421, 1100.0, 3.0, 0.95);
+        builder.addPoi("jaipur", "rajasthan", "amber fort", "fort", "", "medium",
+                26.9855, 75.8513, 500.0, 2.5, 0.8);
+        builder.addPoi("udaipur", "rajasthan", "city palace", "palace", "", "medium",
+                24.5764, 73.6835, 300.0, 2.0, 0.7);
+        catalog = builder.buildCatalog();
+    }
+
+    @Test
+    public void testColumnsSurviveRoundTrip() {
+        assertEquals(4, catalog.size());
+        int[] agra = catalog.findCities("Agra");
+        assertEquals(1, agra.length);
+        int taj = catalog.cityPoiStart(agra[0]);
+        assertEquals("taj mahal", catalog.name(taj));
+        assertEquals("uttar pradesh", catalog.state(taj));
+        assertEquals("historical", catalog.description(taj));
+        assertEquals(27.1750, catalog.latitude(taj), 1e-9);
+        assertEquals(1100.0, catalog.estimatedCost(taj), 1e-3);
+        assertEquals(3.0, catalog.timeHours(taj), 1e-6);
+    }
+
+    @Test
+    public void testCitiesAndStatesAreContiguousRanges() {
+        int[] jaipur = catalog.findCities("  JAIPUR ");
+        assertEquals(1, jaipur.length);
+        assertEquals(2, catalog.cityPoiEnd(jaipur[0]) - catalog.cityPoiStart(jaipur[0]));
+
+        int rajasthan = catalog.findState("rajasthan");
+        assertTrue(rajasthan >= 0);
+        assertEquals(3, catalog.statePoiEnd(rajasthan) - catalog.statePoiStart(rajasthan));
+        assertEquals(2, catalog.stateCityEnd(rajasthan) - catalog.stateCityStart(rajasthan));
+
+        assertEquals(0, catalog.findCities("mumbai").length);
+        assertEquals(-1, catalog.findState("goa"));
+    }
+
+    @Test
+    public void testSerializedBytesReopen() throws Exception {
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        builder.addPoi("delhi", "delhi", "qutub minar", "monument", "", "low", 28.5245, 77.1855, 600.0, 2.0, 0.9);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.writeTo(out);
+
+        PoiCatalog reopened = PoiCatalog.fromBuffer(ByteBuffer.wrap(out.toByteArray()));
+        Poi poi = reopened.newPoi(0);
+        assertEquals("qutub minar", poi.name);
+        assertEquals("delhi", poi.city);
+        assertEquals(0, poi.catalogIndex);
+        assertEquals(builder.build().getLong(PoiCatalogFormat.OFFSET_CONTENT_HASH), reopened.contentHash());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsForeignBytes() {
+        PoiCatalog.fromBuffer(ByteBuffer.allocate(256));
+    }
+}
@@ -0,0 +1,35 @@
+// buildSrc/build.gradle.kts
+// Build-time tooling for the app module (asset compilers / code generators).
+
+plugins {
+    `java-library`
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(gradleApi())
+    implementation(localGroovy())
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+// The catalog format lives with the app so there is a single reader/writer implementation.
+// Only the Android-free files are pulled in here.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/travelitineraryplanner/gradle/**",
+                "com/example/travelitineraryplanner/ml/catalog/**",
+                "com/example/travelitineraryplanner/ml/Poi.java"
+            )
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.travelitineraryplanner.gradle;
+
+import com.example.travelitineraryplanner.ml.catalog.CsvCatalogReader;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogBuilder;
+import com.example.travelitineraryplanner.ml.catalog.PoiCatalogFormat;
+
+import groovy.json.JsonSlurper;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles pois_for_app.csv into the binary catalog format read by PoiCatalog.
+ *
+ * Cost and time columns in the CSV are standard-scaled; they are denormalized here
+ * with scaler.json so the app never has to parse or transform them at startup.
+ */
+@CacheableTask
+public abstract class CompilePoiCatalogTask extends DefaultTask {
+
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getPoiCsv();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getScalerJson();
+
+    @Input
+    public abstract Property<String> getCatalogName();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    public CompilePoiCatalogTask() {
+        getCatalogName().convention("pois_for_app." + PoiCatalogFormat.FILE_EXTENSION);
+    }
+
+    @TaskAction
+    public void compile() throws IOException {
+        Map<String, Double> scaler = readScaler(getScalerJson().get().getAsFile());
+        double costMean = require(scaler, "estimated_visit_cost_inr_mean");
+        double costScale = require(scaler, "estimated_visit_cost_inr_scale");
+        double timeMean = require(scaler, "time_hours_mean");
+        double timeScale = require(scaler, "time_hours_scale");
+
+        PoiCatalogBuilder builder = new PoiCatalogBuilder();
+        CsvCatalogReader reader = new CsvCatalogReader(builder)
+                .scaleCost(costMean, costScale)
+                .scaleTime(timeMean, timeScale);
+        File csv = getPoiCsv().get().getAsFile();
+        try (InputStream in = new FileInputStream(csv)) {
+            reader.read(in);
+        } catch (IllegalArgumentException e) {
+            throw new GradleException("Cannot compile " + csv + ": " + e.getMessage(), e);
+        }
+
+        File out = new File(getOutputDir().get().getAsFile(), getCatalogName().get());
+        try (OutputStream os = new FileOutputStream(out)) {
+            builder.writeTo(os);
+        }
+        getLogger().lifecycle("Compiled {} POIs into {} ({} rows skipped)", builder.size(), out.getName(), reader.rowsSkipped());
+    }
+
+    private static double require(Map<String, Double> scaler, String key) {
+        Double value = scaler.get(key);
+        if (value == null) {
+            throw new GradleException("scaler.json has no entry for " + key);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Double> readScaler(File file) {
+        Map<String, Object> json = (Map<String, Object>) new JsonSlurper().parse(file);
+        List<Object> cols = (List<Object>) json.get("cols");
+        List<Object> means = (List<Object>) json.get("mean");
+        List<Object> scales = (List<Object>) json.get("scale");
+        Map<String, Double> scaler = new HashMap<>();
+        for (int i = 0; i < cols.size(); i++) {
+            scaler.put(cols.get(i) + "_mean", ((Number) means.get(i)).doubleValue());
+            scaler.put(cols.get(i) + "_scale", ((Number) scales.get(i)).doubleValue());
+        }
+        return scaler;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.travelitineraryplanner.gradle;
+
+import groovy.json.JsonSlurper;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Generates the constant encoder/scaler tables (see ModelTablesGenerator) from the
+ * model pipeline's encoders.json and scaler.json.
+ */
+@CacheableTask
+public abstract class GenerateModelTablesTask extends DefaultTask {
+
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getEncodersJson();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getScalerJson();
+
+    @Input
+    public abstract Property<String> getPackageName();
+
+    @Input
+    public abstract Property<String> getClassName();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    public GenerateModelTablesTask() {
+        getPackageName().convention("com.example.travelitineraryplanner.ml");
+        getClassName().convention("ModelTables");
+    }
+
+    @TaskAction
+    @SuppressWarnings("unchecked")
+    public void generate() throws IOException {
+        Map<String, Object> encoders = (Map<String, Object>) new JsonSlurper().parse(getEncodersJson().get().getAsFile());
+        Map<String, Object> scaler = (Map<String, Object>) new JsonSlurper().parse(getScalerJson().get().getAsFile());
+
+        String source;
+        try {
+            source = ModelTablesGenerator.generate(getPackageName().get(), getClassName().get(), encoders, scaler);
+        } catch (IllegalArgumentException e) {
+            throw new GradleException("Cannot generate model tables: " + e.getMessage(), e);
+        }
+
+        File dir = new File(getOutputDir().get().getAsFile(), getPackageName().get().replace('.', '/'));
+        Files.createDirectories(dir.toPath());
+        File out = new File(dir, getClassName().get() + ".java");
+        Files.write(out.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        getLogger().lifecycle("Generated {} from encoders.json and scaler.json", out.getName());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.travelitineraryplanner.gradle;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders the model's label encoders and standard-scaler parameters as Java source.
+ *
+ * Each encoder becomes a nested class whose indexOf() is a string switch (hashCode
+ * dispatch plus one equals), and every scaler column becomes a pair of
+ * {@code static final double} constants, so the app neither parses JSON at startup
+ * nor boxes values on the scoring path.
+ */
+public final class ModelTablesGenerator {
+
+    // encoders.json key -> generated class name
+    private static final String[][] ENCODERS = {
+            {"le_city", "CityEncoder"},
+            {"le_budget", "BudgetEncoder"},
+            {"le_costcat", "CostCategoryEncoder"},
+            {"le_cat", "CategoryEncoder"},
+    };
+
+    private ModelTablesGenerator() {}
+
+    /**
+     * @param encoders encoders.json as parsed maps/lists ({@code {le_city: {classes: [...]}, ...}})
+     * @param scaler   scaler.json as parsed maps/lists ({@code {cols: [...], mean: [...], scale: [...]}})
+     */
+    @SuppressWarnings("unchecked")
+    public static String generate(String packageName, String className,
+                                  Map<String, Object> encoders, Map<String, Object> scaler) {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("/**\n");
+        out.append(" * GENERATED by GenerateModelTablesTask from encoders.json and scaler.json - do not edit.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(className).append(" {\n");
+        out.append("    private ").append(className).append("() {}\n");
+
+        // Scaler constants
+        List<Object> cols = (List<Object>) scaler.get("cols");
+        List<Object> means = (List<Object>) scaler.get("mean");
+        List<Object> scales = (List<Object>) scaler.get("scale");
+        if (cols == null || means == null || scales == null
+                || means.size() != cols.size() || scales.size() != cols.size()) {
+            throw new IllegalArgumentException("scaler.json needs cols, mean and scale of equal length");
+        }
+        out.append("\n    // Standard scaler: scaled = (value - MEAN) / SCALE\n");
+        for (int i = 0; i < cols.size(); i++) {
+            String constant = constantName(String.valueOf(cols.get(i)));
+            out.append("    public static final double ").append(constant).append("_MEAN = ")
+                    .append(doubleLiteral(((Number) means.get(i)).doubleValue())).append(";\n");
+            out.append("    public static final double ").append(constant).append("_SCALE = ")
+                    .append(doubleLiteral(((Number) scales.get(i)).doubleValue())).append(";\n");
+        }
+
+        // Encoders
+        for (String[] encoder : ENCODERS) {
+            Map<String, Object> entry = (Map<String, Object>) encoders.get(encoder[0]);
+            if (entry == null || !(entry.get("classes") instanceof List)) {
+                throw new IllegalArgumentException("encoders.json has no classes for " + encoder[0]);
+            }
+            appendEncoder(out, encoder[0], encoder[1], (List<Object>) entry.get("classes"));
+        }
+
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static void appendEncoder(StringBuilder out, String key, String name, List<Object> classes) {
+        out.append("\n    /** LabelEncoder ").append(key).append(" (").append(classes.size()).append(" classes). */\n");
+        out.append("    public static final class ").append(name).append(" {\n");
+        out.append("        private ").append(name).append("() {}\n\n");
+        out.append("        public static final int SIZE = ").append(classes.size()).append(";\n\n");
+
+        out.append("        private static final String[] CLASSES = {\n");
+        for (Object label : classes) {
+            out.append("                ").append(stringLiteral(String.valueOf(label))).append(",\n");
+        }
+        out.append("        };\n\n");
+
+        out.append("        /** Encoded index of {@code label}, or -1 if the encoder has never seen it. */\n");
+        out.append("        public static int indexOf(String label) {\n");
+        out.append("            if (label == null) return -1;\n");
+        out.append("            switch (label) {\n");
+        for (int i = 0; i < classes.size(); i++) {
+            out.append("                case ").append(stringLiteral(String.valueOf(classes.get(i))))
+                    .append(": return ").append(i).append(";\n");
+        }
+        out.append("                default: return -1;\n");
+        out.append("            }\n");
+        out.append("        }\n\n");
+
+        out.append("        public static String label(int index) {\n");
+        out.append("            return CLASSES[index];\n");
+        out.append("        }\n");
+        out.append("    }\n");
+    }
+
+    static String constantName(String column) {
+        String name = column.trim().toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", "_");
+        return Character.isDigit(name.charAt(0)) ? "_" + name : name;
+    }
+
+    private static String doubleLiteral(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Scaler value is not finite: " + value);
+        }
+        // Double.toString round-trips exactly
+        return Double.toString(value);
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,157 @@
+"""
+Distill the itinerary TFLite model into a small gradient-boosted tree ensemble
+(or a linear model) that the Android app evaluates in pure Java
+(see ml/DistilledScorer.java).
+
+The teacher is the float TFLite model. The student is fit on the teacher's scores,
+not on target_score, so it reproduces the model's ranking rather than the raw
+labels. Rows from poi_prepared_for_training.csv are replicated across every
+budget id so the student sees the whole budget feature range.
+
+Usage:
+    python distill_scorer.py                      # GBDT, default paths
+    python distill_scorer.py --kind linear
+    python distill_scorer.py --trees 80 --depth 3 --out ../android-app/app/src/main/assets/distilled_scorer.bin
+
+Binary layout (little endian), must match DistilledScorer:
+    int   magic 0x31435344 ("DSC1")
+    int   version (1)
+    int   kind (0 = linear, 1 = gbdt)
+    int   feature count
+    float bias
+    linear: float[feature count] weights
+    gbdt:   int tree count, int node count, int[tree count] root node index,
+            int[node count] feature (-1 = leaf), float[node count] threshold,
+            int[node count] left child, int[node count] right child,
+            float[node count] leaf value (learning rate already applied)
+    A row goes to the left child when feature value <= threshold.
+"""
+import argparse
+import os
+import struct
+
+import numpy as np
+import pandas as pd
+import tensorflow as tf
+from sklearn.ensemble import GradientBoostingRegressor
+from sklearn.linear_model import Ridge
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+MAGIC = 0x31435344
+VERSION = 1
+KIND_LINEAR = 0
+KIND_GBDT = 1
+
+# Same order as ItineraryPlanner.prepareFeatureVector
+FEATURE_COLUMNS = [
+    "estimated_visit_cost_inr",  # scaled
+    "time_hours",                # scaled
+    "dist_km_to_city_center",    # scaled
+    "city_id",
+    "budget_id",
+    "costcat_id",
+    "cat_id",
+    "popularity_norm",
+]
+BUDGET_COLUMN = FEATURE_COLUMNS.index("budget_id")
+
+
+def load_features(csv_path):
+    df = pd.read_csv(csv_path)
+    base = df[FEATURE_COLUMNS].to_numpy(dtype=np.float32)
+    budgets = np.unique(base[:, BUDGET_COLUMN])
+    rows = []
+    for budget in budgets:
+        variant = base.copy()
+        variant[:, BUDGET_COLUMN] = budget
+        rows.append(variant)
+    return np.concatenate(rows)
+
+
+def teacher_scores(model_path, features):
+    interpreter = tf.lite.Interpreter(model_path=model_path)
+    input_index = interpreter.get_input_details()[0]["index"]
+    output_index = interpreter.get_output_details()[0]["index"]
+    interpreter.resize_tensor_input(input_index, features.shape)
+    interpreter.allocate_tensors()
+    interpreter.set_tensor(input_index, features)
+    interpreter.invoke()
+    return interpreter.get_tensor(output_index).reshape(-1).astype(np.float32)
+
+
+def top_k_overlap(scores, reference, k=10):
+    top = set(np.argsort(-scores)[:k])
+    ref = set(np.argsort(-reference)[:k])
+    return len(top & ref) / float(k)
+
+
+def write_linear(path, model, feature_count):
+    with open(path, "wb") as f:
+        f.write(struct.pack("<iiii", MAGIC, VERSION, KIND_LINEAR, feature_count))
+        f.write(struct.pack("<f", float(model.intercept_)))
+        f.write(struct.pack("<%df" % feature_count, *model.coef_.astype(np.float32)))
+
+
+def write_gbdt(path, model, feature_count):
+    features, thresholds, lefts, rights, values, roots = [], [], [], [], [], []
+    for estimator in model.estimators_[:, 0]:
+        tree = estimator.tree_
+        offset = len(features)
+        roots.append(offset)
+        for node in range(tree.node_count):
+            leaf = tree.children_left[node] == -1
+            features.append(-1 if leaf else int(tree.feature[node]))
+            thresholds.append(0.0 if leaf else float(tree.threshold[node]))
+            lefts.append(-1 if leaf else offset + int(tree.children_left[node]))
+            rights.append(-1 if leaf else offset + int(tree.children_right[node]))
+            values.append(float(tree.value[node][0][0]) * model.learning_rate if leaf else 0.0)
+    bias = float(np.ravel(model.init_.predict(np.zeros((1, feature_count))))[0])
+
+    node_count = len(features)
+    with open(path, "wb") as f:
+        f.write(struct.pack("<iiii", MAGIC, VERSION, KIND_GBDT, feature_count))
+        f.write(struct.pack("<f", bias))
+        f.write(struct.pack("<ii", len(roots), node_count))
+        f.write(struct.pack("<%di" % len(roots), *roots))
+        f.write(struct.pack("<%di" % node_count, *features))
+        f.write(struct.pack("<%df" % node_count, *thresholds))
+        f.write(struct.pack("<%di" % node_count, *lefts))
+        f.write(struct.pack("<%di" % node_count, *rights))
+        f.write(struct.pack("<%df" % node_count, *values))
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--data", default=os.path.join(HERE, "data", "poi_prepared_for_training.csv"))
+    parser.add_argument("--teacher", default=os.path.join(HERE, "models", "itinerary_model_consistent_final.tflite"))
+    parser.add_argument("--out", default=os.path.join(HERE, "..", "android-app", "app", "src", "main", "assets",
+                                                      "distilled_scorer.bin"))
+    parser.add_argument("--kind", choices=["gbdt", "linear"], default="gbdt")
+    parser.add_argument("--trees", type=int, default=60)
+    parser.add_argument("--depth", type=int, default=3)
+    parser.add_argument("--learning-rate", type=float, default=0.1)
+    args = parser.parse_args()
+
+    features = load_features(args.data)
+    teacher = teacher_scores(args.teacher, features)
+    print("Distilling %s from %d rows" % (args.kind, len(features)))
+
+    if args.kind == "linear":
+        student = Ridge(alpha=1e-3).fit(features, teacher)
+        write_linear(args.out, student, features.shape[1])
+    else:
+        student = GradientBoostingRegressor(n_estimators=args.trees, max_depth=args.depth,
+                                            learning_rate=args.learning_rate, subsample=0.8,
+                                            random_state=42).fit(features, teacher)
+        write_gbdt(args.out, student, features.shape[1])
+
+    predicted = student.predict(features).astype(np.float32)
+    popularity = features[:, FEATURE_COLUMNS.index("popularity_norm")]
+    print("Student MAE vs teacher: %.4f" % np.mean(np.abs(predicted - teacher)))
+    print("Student top-10 overlap: %.2f (popularity-only fallback: %.2f)"
+          % (top_k_overlap(predicted, teacher), top_k_overlap(popularity, teacher)))
+    print("Wrote %s (%d bytes)" % (args.out, os.path.getsize(args.out)))
+
+
+if __name__ == "__main__":
+    main()